@@ -0,0 +1,64 @@
+package com.alonso.salesapp.dto.sale;
+
+import com.alonso.salesapp.dto.client.ClientSummaryDTO;
+import com.alonso.salesapp.dto.product.ProductSummaryDTO;
+import com.alonso.salesapp.dto.user.UserSummaryDTO;
+import com.alonso.salesapp.model.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Respuesta de una venta: el subtotal calculado de cada línea y la serialización Jackson de SaleResponseDTO
+ * con sus importes Money, que incluye un getSubtotal() por línea.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="SaleResponseSerialization"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaleResponseSerializationBenchmark {
+
+    @Param({"3", "20"})
+    private int linesPerSale;
+
+    private JsonMapper jsonMapper;
+    private SaleResponseDTO sale;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+
+        List<SaleDetailResponseDTO> details = new ArrayList<>(linesPerSale);
+        Money total = Money.ZERO;
+        for (int l = 0; l < linesPerSale; l++) {
+            Money price = Money.of(10.25 + l);
+            short quantity = (short) (1 + l % 4);
+            details.add(new SaleDetailResponseDTO(new ProductSummaryDTO(l + 1, "Producto " + (l + 1), price),
+                    quantity, price, Money.of(l % 2 * 0.5)));
+            total = total.plus(price.times(quantity));
+        }
+        sale = new SaleResponseDTO(1, new ClientSummaryDTO(1, "Carla", "Pérez"), new UserSummaryDTO(1, "ana"),
+                LocalDateTime.of(2026, 3, 1, 10, 0), total, total.percent(18), details);
+    }
+
+    @Benchmark
+    public void subtotals(Blackhole blackhole) {
+        for (SaleDetailResponseDTO detail : sale.details()) {
+            blackhole.consume(detail.getSubtotal());
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return jsonMapper.writeValueAsBytes(sale);
+    }
+}
@@ -0,0 +1,94 @@
+package com.alonso.salesapp.mapper;
+
+import com.alonso.salesapp.dto.sale.SaleResponseDTO;
+import com.alonso.salesapp.model.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeo Sale → SaleResponseDTO con los mappers que genera MapStruct (cliente, usuario, líneas y producto),
+ * para una venta y para una página de ventas.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="SaleMapper"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaleMapperBenchmark {
+
+    @Param({"3", "20"})
+    private int linesPerSale;
+
+    @Param({"50"})
+    private int pageSize;
+
+    private AnnotationConfigApplicationContext context;
+    private SaleMapper mapper;
+    private Sale sale;
+    private List<Sale> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Solo los mappers generados, cableados como en la aplicación
+        context = new AnnotationConfigApplicationContext(SaleMapper.class.getPackageName());
+        mapper = context.getBean(SaleMapper.class);
+
+        Client client = Client.builder().idClient(1).firstName("Carla").lastName("Pérez").build();
+        User user = User.builder().idUser(1).username("ana").build();
+        page = new ArrayList<>(pageSize);
+        for (int s = 0; s < pageSize; s++) {
+            page.add(sale(s + 1, client, user));
+        }
+        sale = page.getFirst();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public SaleResponseDTO toResponseDTO() {
+        return mapper.toResponseDTO(sale);
+    }
+
+    @Benchmark
+    public List<SaleResponseDTO> toResponseDTOList() {
+        return mapper.toResponseDTOList(page);
+    }
+
+    private Sale sale(int idSale, Client client, User user) {
+        List<SaleDetail> details = new ArrayList<>(linesPerSale);
+        Money total = Money.ZERO;
+        for (int l = 0; l < linesPerSale; l++) {
+            Product product = Product.builder().idProduct(l + 1).name("Producto " + (l + 1)).price(Money.of(10.0 + l)).build();
+            details.add(SaleDetail.builder()
+                    .idSaleDetail(idSale * 100 + l)
+                    .product(product)
+                    .quantity((short) (1 + l % 4))
+                    .salePrice(product.getPrice())
+                    .discount(Money.of(l % 2 * 0.5))
+                    .build());
+            total = total.plus(product.getPrice().times(1 + l % 4));
+        }
+        Sale sale = Sale.builder()
+                .idSale(idSale)
+                .client(client)
+                .user(user)
+                .dateTime(LocalDateTime.of(2026, 3, 1, 10, 0).plusMinutes(idSale))
+                .total(total)
+                .tax(total.percent(18))
+                .details(details)
+                .build();
+        details.forEach(detail -> detail.setSale(sale));
+        return sale;
+    }
+}
@@ -0,0 +1,129 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.dto.analytics.LineGroupDTO;
+import com.alonso.salesapp.dto.analytics.SaleLineRow;
+import com.alonso.salesapp.model.LineGroupBy;
+import com.alonso.salesapp.model.Money;
+import org.openjdk.jmh.annotations.*;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupación de líneas de venta por producto en un rango de 30 días: SaleLineColumnStore frente a la
+ * consulta SQL equivalente sobre sale / sale_detail (PostgreSQL en Testcontainers, mismos datos).
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ColumnarVsSql"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ColumnarVsSqlBenchmark {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FROM = START.plusDays(150);
+    private static final LocalDate TO = FROM.plusDays(30);
+
+    private static final String SQL_BY_PRODUCT = """
+            SELECT d.id_product, SUM(d.quantity), SUM(d.quantity * d.sale_price - d.discount), COUNT(*)
+            FROM sale s
+            JOIN sale_detail d ON d.id_sale = s.id_sale
+            WHERE s.date_time >= ? AND s.date_time < ?
+            GROUP BY d.id_product""";
+
+    @Param({"10000000"})
+    private int lines;
+
+    private PostgreSQLContainer postgres;
+    private Connection connection;
+    private SaleLineColumnStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        postgres = new PostgreSQLContainer("postgres:17-alpine");
+        postgres.start();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+
+        // Mismo esquema e índices que genera Hibernate para las columnas que usa la consulta
+        int sales = lines / 3;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE sale (id_sale integer PRIMARY KEY, id_user integer NOT NULL,
+                                       date_time timestamp NOT NULL, total decimal(6,2) NOT NULL)""");
+            statement.execute("""
+                    CREATE TABLE sale_detail (id_sale_detail integer PRIMARY KEY, id_sale integer NOT NULL,
+                                              id_product integer NOT NULL, quantity smallint NOT NULL,
+                                              sale_price decimal(6,2) NOT NULL, discount decimal(6,2) NOT NULL)""");
+            statement.execute("INSERT INTO sale SELECT g, 1 + g % 5, TIMESTAMP '2025-01-01' + (g * (365.0 * 86400 / "
+                    + sales + ")) * INTERVAL '1 second', 100 FROM generate_series(1, " + sales + ") g");
+            statement.execute("INSERT INTO sale_detail SELECT (s - 1) * 3 + l, s, 1 + (s * 7 + l * 3) % 500, "
+                    + "1 + (s + l) % 4, 10 + (s * l) % 200, (s % 2) * 0.5 "
+                    + "FROM generate_series(1, " + sales + ") s, generate_series(1, 3) l");
+            statement.execute("CREATE INDEX IDX_Sale_DateTime_Id ON sale (date_time, id_sale)");
+            statement.execute("CREATE INDEX IDX_SaleDetail_Sale ON sale_detail (id_sale)");
+            statement.execute("CREATE INDEX IDX_SaleDetail_Product ON sale_detail (id_product)");
+            statement.execute("ANALYZE");
+        }
+
+        // La carga lee las mismas filas de la base de datos, como en el arranque de la aplicación
+        store = new SaleLineColumnStore(null, null, true);
+        connection.setAutoCommit(false);
+        try (PreparedStatement query = connection.prepareStatement("""
+                SELECT s.date_time, d.id_product, s.id_user, d.quantity, d.sale_price, d.discount
+                FROM sale_detail d JOIN sale s ON s.id_sale = d.id_sale""")) {
+            query.setFetchSize(10_000);
+            try (ResultSet rows = query.executeQuery()) {
+                List<SaleLineRow> batch = new ArrayList<>(10_000);
+                while (rows.next()) {
+                    batch.add(new SaleLineRow(rows.getTimestamp(1).toLocalDateTime(), rows.getInt(2), rows.getInt(3),
+                            rows.getShort(4), Money.of(rows.getBigDecimal(5)), Money.of(rows.getBigDecimal(6))));
+                    if (batch.size() == 10_000) {
+                        store.load(batch.stream());
+                        batch.clear();
+                    }
+                }
+                store.load(batch.stream());
+            }
+        }
+        connection.setAutoCommit(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public List<LineGroupDTO> columnarByProduct() {
+        return store.aggregate(FROM, TO, null, null, LineGroupBy.PRODUCT);
+    }
+
+    @Benchmark
+    public List<LineGroupDTO> columnarByDayForOneProduct() {
+        return store.aggregate(FROM, TO, 42, null, LineGroupBy.DAY);
+    }
+
+    @Benchmark
+    public List<LineGroupDTO> sqlByProduct() throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(SQL_BY_PRODUCT)) {
+            query.setTimestamp(1, Timestamp.valueOf(FROM.atStartOfDay()));
+            query.setTimestamp(2, Timestamp.valueOf(TO.atStartOfDay()));
+            List<LineGroupDTO> groups = new ArrayList<>();
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    groups.add(new LineGroupDTO(String.valueOf(rows.getInt(1)), rows.getLong(2),
+                            rows.getDouble(3), rows.getLong(4)));
+                }
+            }
+            return groups;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.alonso.salesapp.service.impl;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copia de una imagen subida al directorio de staging: la copia anterior con getBytes() frente a
+ * ProductImagePipeline.stage (transferTo), sobre un multipart de Tomcat respaldado en disco.
+ * Con -prof gc, gc.alloc.rate.norm da los bytes reservados en el heap por subida.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ImageStaging"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageStagingBenchmark {
+
+    @Param({"1048576", "8388608"})
+    private int imageSize;
+
+    private Path root;
+    private Path multipartLocation;
+    private Path stagingDir;
+    private ProductImagePipeline pipeline;
+    private byte[] content;
+    private MultipartFile upload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("image-staging-bench");
+        multipartLocation = Files.createDirectories(root.resolve("multipart"));
+        stagingDir = Files.createDirectories(root.resolve("staging"));
+        pipeline = new ProductImagePipeline(null, null, null, 1, 1, 0, stagingDir.toString());
+        content = new byte[imageSize];
+    }
+
+    // transferTo mueve el archivo del multipart: cada invocación necesita uno nuevo
+    @Setup(Level.Invocation)
+    public void newUpload() throws IOException {
+        upload = ProductImagePipelineTest.diskMultipart(multipartLocation, "photo.jpg", content);
+    }
+
+    @TearDown(Level.Invocation)
+    public void cleanUp() throws IOException {
+        FileSystemUtils.deleteRecursively(multipartLocation);
+        FileSystemUtils.deleteRecursively(stagingDir);
+        Files.createDirectories(multipartLocation);
+        Files.createDirectories(stagingDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, IOException {
+        pipeline.stop();
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public Path bufferedCopy() throws IOException {
+        Path staged = Files.createTempFile(stagingDir, "upload_", ".jpg");
+        return Files.write(staged, upload.getBytes());
+    }
+
+    @Benchmark
+    public Path transferTo() {
+        return pipeline.stage(upload);
+    }
+}
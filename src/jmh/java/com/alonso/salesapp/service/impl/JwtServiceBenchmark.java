@@ -0,0 +1,57 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.model.Role;
+import com.alonso.salesapp.model.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lo que hace JwtAuthenticationFilter en cada request: extraer el usuario y validar el token.
+ * Con el token ya verificado (caché por hash SHA-256) y, como referencia, verificando la firma de cero.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="JwtService"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret",
+                "MySecretKeyForJWTTokenGeneration2026ThisIsAVeryLongSecretKeyThatShouldBeAtLeast256BitsLong");
+        ReflectionTestUtils.setField(jwtService, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 86_400_000L);
+
+        Role role = Role.builder().idRole(1).name("ADMIN").enabled(true).build();
+        user = User.builder().idUser(1).username("ana").password("secret").role(role).enabled(true).tokenVersion(0).build();
+        token = jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtService.validateToken(token, user);
+    }
+
+    // Sin caché: parseo y verificación de la firma HMAC en cada llamada
+    @Benchmark
+    public String extractUsernameUncached() {
+        return jwtService.extractClaim(token, Claims::getSubject);
+    }
+}
@@ -0,0 +1,57 @@
+package com.alonso.salesapp.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pools del primario y de las réplicas de lectura. Solo se activa si datasource.replicas.urls tiene
+ * valor; si no, Spring Boot crea el DataSource único de siempre a partir de spring.datasource.*.
+ */
+@Configuration
+@ConditionalOnProperty("datasource.replicas.urls")
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            @Value("${datasource.replicas.urls}") List<String> replicaUrls,
+            @Value("${datasource.replicas.username:${spring.datasource.username}}") String replicaUsername,
+            @Value("${datasource.replicas.password:${spring.datasource.password}}") String replicaPassword,
+            @Value("${datasource.replicas.read-your-writes:0s}") Duration readYourWrites) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            replicas.add(pool("replica-" + (i + 1), replicaUrls.get(i).trim(), replicaUsername, replicaPassword, true));
+        }
+        return new ReplicaRoutingDataSource(pool("primary", url, username, password, false), replicas, readYourWrites);
+    }
+
+    // El proxy retrasa la conexión real hasta la primera sentencia, cuando ya se sabe si es readOnly
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private static HikariDataSource pool(String name, String url, String username, String password, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setReadOnly(readOnly);
+        return new HikariDataSource(config);
+    }
+}
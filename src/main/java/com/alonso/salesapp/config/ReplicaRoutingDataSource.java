@@ -0,0 +1,121 @@
+package com.alonso.salesapp.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envía las transacciones readOnly a las réplicas (round-robin entre las sanas) y el resto al primario.
+ * <p>
+ * Debe usarse detrás de un LazyConnectionDataSourceProxy: la conexión real se pide con la primera
+ * sentencia, cuando la transacción ya está marcada como readOnly. Sin réplicas sanas se lee del primario.
+ * Con read-your-writes activo, un usuario que acaba de escribir lee del primario durante esa ventana,
+ * así no ve datos anteriores a su propia escritura por el retraso de replicación.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    // Usuarios con escrituras recientes; la entrada caduca al terminar la ventana
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaPools, Duration readYourWrites) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaPools.size(); i++) {
+            Replica replica = new Replica("replica-" + (i + 1), replicaPools.get(i));
+            replicas.add(replica);
+            targets.put(replica.key, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.recentWriters = readYourWrites.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(readYourWrites)
+                .build();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (recentWriters != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                String user = currentUser();
+                if (user != null) {
+                    recentWriters.put(user, Boolean.TRUE);
+                }
+            }
+            return PRIMARY;
+        }
+
+        if (recentWriters != null) {
+            String user = currentUser();
+            if (user != null && recentWriters.getIfPresent(user) != null) {
+                return PRIMARY;
+            }
+        }
+        return nextHealthyReplica();
+    }
+
+    private String nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    // Una réplica caída deja de recibir lecturas hasta que vuelve a responder
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                log.warn("Read replica {} is now {}", replica.key, healthy ? "UP" : "DOWN");
+                replica.healthy = healthy;
+            }
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    private static final class Replica {
+        final String key;
+        final DataSource dataSource;
+        volatile boolean healthy = true;
+
+        Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+}
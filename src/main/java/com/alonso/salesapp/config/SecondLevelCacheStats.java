@@ -0,0 +1,45 @@
+package com.alonso.salesapp.config;
+
+import com.alonso.salesapp.model.Category;
+import com.alonso.salesapp.model.Provider;
+import com.alonso.salesapp.model.Role;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Registra periódicamente aciertos/fallos de la caché de segundo nivel (entidades de referencia y consultas).
+// Solo con hibernate.cache.stats-enabled=true: sin generate_statistics los contadores quedan a cero
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "hibernate.cache.stats-enabled", havingValue = "true")
+public class SecondLevelCacheStats {
+
+    private static final List<Class<?>> CACHED_ENTITIES = List.of(Category.class, Role.class, Provider.class);
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheStats(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Scheduled(fixedDelayString = "${hibernate.cache.stats-interval-ms:300000}")
+    public void logStats() {
+        for (Class<?> entity : CACHED_ENTITIES) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(entity.getName());
+            if (region != null) {
+                log.info("L2 cache {}: size={}, hits={}, misses={}, puts={}", entity.getSimpleName(),
+                        region.getElementCountInMemory(), region.getHitCount(), region.getMissCount(),
+                        region.getPutCount());
+            }
+        }
+        log.info("Query cache: hits={}, misses={}, puts={}", statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount());
+    }
+}
@@ -0,0 +1,134 @@
+package com.alonso.salesapp.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detecta virtual threads que bloquean su carrier (pinning) cuando spring.threads.virtual.enabled=true.
+ * <p>
+ * Al arrancar informa del modo y de la JVM: hasta Java 23 un virtual thread que se bloquea dentro de un
+ * bloque synchronized (propio o de una librería, p. ej. el driver JDBC) no suelta su carrier. En marcha
+ * escucha el evento JFR jdk.VirtualThreadPinned y agrupa los casos por el primer frame de la aplicación
+ * (o el primero de la pila si no hay ninguno); cada sitio nuevo se registra con su pila y el total por
+ * sitio se vuelca periódicamente en el log.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.alonso.salesapp.";
+    private static final int LOGGED_FRAMES = 12;
+    private static final int TOP_SITES = 10;
+
+    private final Duration threshold;
+    private final LongAdder pinned = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${threads.virtual.pinning.threshold-ms:20}") long thresholdMs) {
+        this.threshold = Duration.ofMillis(Math.max(0, thresholdMs));
+    }
+
+    @PostConstruct
+    public void start() {
+        int feature = Runtime.version().feature();
+        log.info("Virtual threads enabled for request handling and async work (Java {}, pinning threshold {} ms)",
+                feature, threshold.toMillis());
+        if (feature < 24) {
+            log.warn("Java {} pins the carrier thread when a virtual thread blocks inside synchronized; "
+                    + "pinned waits longer than {} ms will be reported", feature, threshold.toMillis());
+        }
+        if (System.getProperty("jdk.tracePinnedThreads") == null) {
+            log.debug("Start with -Djdk.tracePinnedThreads=full to also print pinned stacks to stdout");
+        }
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public long pinnedCount() {
+        return pinned.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${threads.virtual.pinning.stats-interval-ms:300000}")
+    public void logStats() {
+        if (sites.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, LongAdder>> top = sites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .limit(TOP_SITES)
+                .toList();
+        log.info("Virtual thread pinning: events={}, sites={}", pinned.sum(), sites.size());
+        top.forEach(entry -> log.info("  pinned {} time(s) at {}", entry.getValue().sum(), entry.getKey()));
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String site = site(frames);
+        LongAdder count = new LongAdder();
+        LongAdder previous = sites.putIfAbsent(site, count);
+        if (previous == null) {
+            // Solo la primera vez por sitio se registra la pila completa
+            log.warn("Virtual thread pinned for {} ms at {}\n{}", event.getDuration().toMillis(), site,
+                    format(event.getStackTrace()));
+        } else {
+            count = previous;
+        }
+        count.increment();
+    }
+
+    static String site(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith(APP_PACKAGE))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(VirtualThreadPinningMonitor::describe)
+                .orElse("unknown");
+    }
+
+    private static String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t(no stack trace)";
+        }
+        StringBuilder out = new StringBuilder();
+        stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .forEach(frame -> out.append("\tat ").append(describe(frame)).append('\n'));
+        return out.toString();
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,77 @@
+package com.alonso.salesapp.controller;
+
+import com.alonso.salesapp.dto.analytics.CashierSalesDTO;
+import com.alonso.salesapp.dto.analytics.LineGroupDTO;
+import com.alonso.salesapp.dto.analytics.ProductMarginDTO;
+import com.alonso.salesapp.dto.analytics.RevenuePeriodDTO;
+import com.alonso.salesapp.dto.analytics.TicketStatsDTO;
+import com.alonso.salesapp.dto.analytics.TopProductDTO;
+import com.alonso.salesapp.model.AnalyticsPeriod;
+import com.alonso.salesapp.model.LineGroupBy;
+import com.alonso.salesapp.service.IAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Reportes sobre un rango [from, to) de ventas, calculados en la base de datos
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final IAnalyticsService service;
+
+    @GetMapping("/top-products")
+    public ResponseEntity<List<TopProductDTO>> topProducts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(service.topProducts(from, to, limit));
+    }
+
+    @GetMapping("/revenue")
+    public ResponseEntity<List<RevenuePeriodDTO>> revenueByPeriod(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "DAY") AnalyticsPeriod period) {
+        return ResponseEntity.ok(service.revenueByPeriod(from, to, period));
+    }
+
+    @GetMapping("/ticket")
+    public ResponseEntity<TicketStatsDTO> ticketStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(service.ticketStats(from, to));
+    }
+
+    @GetMapping("/cashiers")
+    public ResponseEntity<List<CashierSalesDTO>> salesByCashier(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(service.salesByCashier(from, to));
+    }
+
+    // Margen bruto por producto con el coste medio vigente en cada venta
+    @GetMapping("/margin")
+    public ResponseEntity<List<ProductMarginDTO>> marginByProduct(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(service.marginByProduct(from, to));
+    }
+
+    // Líneas de venta agrupadas desde la analítica en memoria (analytics.columnar.enabled)
+    @GetMapping("/lines")
+    public ResponseEntity<List<LineGroupDTO>> lineTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer idProduct,
+            @RequestParam(required = false) Integer idUser,
+            @RequestParam(defaultValue = "PRODUCT") LineGroupBy groupBy) {
+        return ResponseEntity.ok(service.lineTotals(from, to, idProduct, idUser, groupBy));
+    }
+}
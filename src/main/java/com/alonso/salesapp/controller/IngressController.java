@@ -2,12 +2,17 @@ package com.alonso.salesapp.controller;
 
 import com.alonso.salesapp.dto.ingress.IngressRequestDTO;
 import com.alonso.salesapp.dto.ingress.IngressResponseDTO;
+import com.alonso.salesapp.model.ExportFormat;
 import com.alonso.salesapp.service.IngressService;
+import com.alonso.salesapp.service.impl.IdempotencyStore;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,20 +22,35 @@ import java.util.List;
 public class IngressController {
 
     private final IngressService service;
+    private final IdempotencyStore idempotency;
 
     @GetMapping
     public ResponseEntity<List<IngressResponseDTO>> readAll() {
         return ResponseEntity.ok(service.readAll());
     }
 
+    // Exportación completa en streaming: las filas se escriben a medida que se leen de la BD
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        StreamingResponseBody body = out -> service.export(format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ingress.%s\"".formatted(format.getExtension()))
+                .body(body);
+    }
+
     @GetMapping("/{idIngress}")
     public ResponseEntity<IngressResponseDTO> readById(@PathVariable Integer idIngress) {
         return ResponseEntity.ok(service.readById(idIngress));
     }
 
+    // Con Idempotency-Key, un reintento devuelve el ingreso ya creado en lugar de registrar otro
     @PostMapping
-    public ResponseEntity<IngressResponseDTO> create(@Valid @RequestBody IngressRequestDTO ingressRequestDTO) {
-        IngressResponseDTO created = service.create(ingressRequestDTO);
+    public ResponseEntity<IngressResponseDTO> create(
+            @Valid @RequestBody IngressRequestDTO ingressRequestDTO,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        IngressResponseDTO created = idempotency.execute("ingress", idempotencyKey, ingressRequestDTO,
+                IngressResponseDTO.class, () -> service.create(ingressRequestDTO));
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 }
\ No newline at end of file
@@ -30,6 +30,15 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @Operation(summary = "Search products", description = "Full-text search over name and description, ranked by relevance. " +
+            "Only the first 1000 matches are ranked and counted")
+    @GetMapping("/search")
+    public ResponseEntity<Page<ProductResponseDTO>> search(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(service.search(q, page, size));
+    }
+
     @Operation(summary = "Get product by ID", description = "Retrieve a product by its ID")
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponseDTO> readById(@PathVariable Integer id) {
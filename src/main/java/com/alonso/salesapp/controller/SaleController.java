@@ -1,14 +1,28 @@
 package com.alonso.salesapp.controller;
 
+import com.alonso.salesapp.dto.sale.DailySalesDTO;
+import com.alonso.salesapp.dto.sale.SaleBatchDTO;
+import com.alonso.salesapp.dto.sale.SaleBatchResponseDTO;
 import com.alonso.salesapp.dto.sale.SaleDTO;
+import com.alonso.salesapp.dto.sale.SaleFilterDTO;
+import com.alonso.salesapp.dto.sale.SalePageDTO;
 import com.alonso.salesapp.dto.sale.SaleResponseDTO;
+import com.alonso.salesapp.model.ExportFormat;
 import com.alonso.salesapp.service.ISaleService;
+import com.alonso.salesapp.service.impl.IdempotencyStore;
+import com.alonso.salesapp.service.impl.OptimisticRetry;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,10 +31,40 @@ import java.util.List;
 public class SaleController {
 
     private final ISaleService service;
+    private final IdempotencyStore idempotency;
+    private final OptimisticRetry retry;
 
     @GetMapping
-    public ResponseEntity<List<SaleResponseDTO>> readAll() {
-        return ResponseEntity.ok(service.readAll());
+    public ResponseEntity<SalePageDTO> readAll(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer idClient,
+            @RequestParam(required = false) Integer idUser,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDateTime,
+            @RequestParam(required = false) Integer afterId,
+            @RequestParam(defaultValue = "20") int size) {
+        SaleFilterDTO filter = new SaleFilterDTO(from, to, idClient, idUser, afterDateTime, afterId);
+        return ResponseEntity.ok(service.readPage(filter, size));
+    }
+
+    // Exportación completa en streaming: las filas se escriben a medida que se leen de la BD
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        StreamingResponseBody body = out -> service.export(format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sales.%s\"".formatted(format.getExtension()))
+                .body(body);
+    }
+
+    // Totales por día desde el resumen incremental (no recorre las ventas)
+    @GetMapping("/summary/daily")
+    public ResponseEntity<List<DailySalesDTO>> readDailySummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer idCategory,
+            @RequestParam(required = false) Integer idUser) {
+        return ResponseEntity.ok(service.readDailySummary(from, to, idCategory, idUser));
     }
 
     @GetMapping("/{idSale}")
@@ -28,9 +72,24 @@ public class SaleController {
         return ResponseEntity.ok(service.readById(idSale));
     }
 
+    // Con Idempotency-Key, un reintento devuelve la venta ya creada en lugar de registrar otra.
+    // Los conflictos de versión (modo OPTIMISTIC) repiten la transacción completa.
     @PostMapping
-    public ResponseEntity<SaleResponseDTO> create(@Valid @RequestBody SaleDTO saleDTO) {
-        SaleResponseDTO created = service.create(saleDTO);
+    public ResponseEntity<SaleResponseDTO> create(
+            @Valid @RequestBody SaleDTO saleDTO,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        SaleResponseDTO created = retry.execute(() -> idempotency.execute("sale", idempotencyKey, saleDTO,
+                SaleResponseDTO.class, () -> service.create(saleDTO)));
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
-}
\ No newline at end of file
+
+    // Lote de ventas de un terminal: resultado por venta, una sola transacción y un bloqueo por producto
+    @PostMapping("/batch")
+    public ResponseEntity<SaleBatchResponseDTO> createBatch(
+            @Valid @RequestBody SaleBatchDTO batchDTO,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        SaleBatchResponseDTO result = idempotency.execute("sale-batch", idempotencyKey, batchDTO,
+                SaleBatchResponseDTO.class, () -> service.createBatch(batchDTO.sales()));
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,12 @@
+package com.alonso.salesapp.dto.analytics;
+
+// Ventas por cajero (Sale.user) con su ranking y porcentaje sobre la facturación del rango
+public record CashierSalesDTO(
+        Long ranking,
+        Integer idUser,
+        String username,
+        Long sales,
+        Double revenue,
+        Double averageTicket,
+        Double revenueShare
+) {}
@@ -0,0 +1,9 @@
+package com.alonso.salesapp.dto.analytics;
+
+// Totales de un grupo de líneas de venta: group es el id de producto o de cajero, o el día (ISO)
+public record LineGroupDTO(
+        String group,
+        Long units,
+        Double revenue,
+        Long lines
+) {}
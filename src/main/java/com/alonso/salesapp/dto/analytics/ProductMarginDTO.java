@@ -0,0 +1,12 @@
+package com.alonso.salesapp.dto.analytics;
+
+// Margen bruto por producto: importe vendido frente al coste medio registrado en cada línea
+public record ProductMarginDTO(
+        Integer idProduct,
+        String name,
+        Long units,
+        Double revenue,
+        Double cost,
+        Double margin,
+        Double marginPercent
+) {}
@@ -0,0 +1,13 @@
+package com.alonso.salesapp.dto.analytics;
+
+import java.time.LocalDateTime;
+
+// Facturación de un periodo (día, semana o mes) con el acumulado desde el inicio del rango
+public record RevenuePeriodDTO(
+        LocalDateTime period,
+        Long sales,
+        Double revenue,
+        Double tax,
+        Double averageTicket,
+        Double runningRevenue
+) {}
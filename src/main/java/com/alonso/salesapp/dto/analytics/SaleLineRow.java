@@ -0,0 +1,15 @@
+package com.alonso.salesapp.dto.analytics;
+
+import com.alonso.salesapp.model.Money;
+
+import java.time.LocalDateTime;
+
+// Fila mínima de una línea de venta para cargar la analítica en memoria (sin hidratar entidades)
+public record SaleLineRow(
+        LocalDateTime dateTime,
+        Integer idProduct,
+        Integer idUser,
+        Short quantity,
+        Money salePrice,
+        Money discount
+) {}
@@ -0,0 +1,10 @@
+package com.alonso.salesapp.dto.analytics;
+
+// Ticket medio del rango; la mediana no se deja arrastrar por unas pocas ventas grandes
+public record TicketStatsDTO(
+        Long sales,
+        Double revenue,
+        Double averageTicket,
+        Double medianTicket,
+        Double maxTicket
+) {}
@@ -0,0 +1,11 @@
+package com.alonso.salesapp.dto.analytics;
+
+// Producto más vendido en el rango: ranking por unidades y porcentaje sobre el total facturado
+public record TopProductDTO(
+        Long ranking,
+        Integer idProduct,
+        String name,
+        Long units,
+        Double revenue,
+        Double revenueShare
+) {}
@@ -3,6 +3,7 @@ package com.alonso.salesapp.dto.ingress;
 import com.alonso.salesapp.dto.ingressdetail.IngressDetailResponseDTO;
 import com.alonso.salesapp.dto.provider.ProviderSummaryDTO;
 import com.alonso.salesapp.dto.user.UserSummaryDTO;
+import com.alonso.salesapp.model.Money;
 import com.fasterxml.jackson.annotation.JsonFormat;
 
 import java.time.LocalDateTime;
@@ -17,11 +18,9 @@ public record IngressResponseDTO(
         @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "America/Lima")
         LocalDateTime dateTime,
 
-        @JsonFormat(shape = JsonFormat.Shape.NUMBER, pattern = "#.00")
-        Double total,
+        Money total,
 
-        @JsonFormat(shape = JsonFormat.Shape.NUMBER, pattern = "#.00")
-        Double tax,
+        Money tax,
 
         List<IngressDetailResponseDTO> details
 ) {
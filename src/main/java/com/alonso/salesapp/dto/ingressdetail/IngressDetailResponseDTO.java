@@ -1,28 +1,19 @@
 package com.alonso.salesapp.dto.ingressdetail;
 
 import com.alonso.salesapp.dto.product.ProductSummaryDTO;
-import com.fasterxml.jackson.annotation.JsonFormat;
-
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import com.alonso.salesapp.model.Money;
 
 public record IngressDetailResponseDTO(
 
         Integer idIngressDetail, // ID SIMPLE (Igual que SaleDetail)
         ProductSummaryDTO product, // EL PRODUCTO
         Short quantity,
-
-        @JsonFormat(shape = JsonFormat.Shape.NUMBER, pattern = "#.00")
-        Double cost
+        Money cost
 ) {
-    @JsonFormat(shape = JsonFormat.Shape.NUMBER, pattern = "#.00")
-    public Double getSubtotal() {
+    public Money getSubtotal() {
         if (quantity == null || cost == null) {
-            return 0.00;
+            return Money.ZERO;
         }
-        return BigDecimal.valueOf(quantity)
-                .multiply(BigDecimal.valueOf(cost))
-                .setScale(2, RoundingMode.HALF_UP) // Aquí defines los 2 decimales matemáticos
-                .doubleValue();
+        return cost.times(quantity);
     }
 }
@@ -1,6 +1,7 @@
 package com.alonso.salesapp.dto.product;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.alonso.salesapp.model.ImageStatus;
+import com.alonso.salesapp.model.Money;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.validation.constraints.*;
@@ -21,9 +22,7 @@ public record ProductResponseDTO(
         @Size(min = 3, max = 150)
         String description,
 
-        @Min(value = 1, message = "El precio debe ser mayor a 0")
-        @JsonFormat(shape = JsonFormat.Shape.NUMBER, pattern = "#.00")
-        Double price,
+        Money price,
 
         Integer stock,
 
@@ -31,6 +30,8 @@ public record ProductResponseDTO(
 
         String imagePublicId,
 
-        Boolean enabled
+        Boolean enabled,
+
+        ImageStatus imageStatus // PENDING mientras la imagen se sube en segundo plano
 ) {
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.alonso.salesapp.dto.product;
 
+import com.alonso.salesapp.model.Money;
+
 public record ProductSummaryDTO(
         Integer idProduct,
         String name,
-        Double price
+        Money price
 ) {}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.alonso.salesapp.dto.sale;
+
+import java.time.LocalDate;
+
+// Totales de un día leídos del resumen diario (revenue sin impuestos)
+public record DailySalesDTO(
+        LocalDate day,
+        Long units,
+        Double revenue,
+        Long lines
+) {}
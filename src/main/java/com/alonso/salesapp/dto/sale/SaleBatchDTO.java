@@ -0,0 +1,16 @@
+package com.alonso.salesapp.dto.sale;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// Ventas encoladas por un terminal POS que se envían en una sola petición.
+// Sin @Valid en la lista: cada venta se valida en ISaleService.createBatch y se rechaza en su resultado
+public record SaleBatchDTO(
+        @NotNull
+        @NotEmpty(message = "El lote debe tener al menos una venta")
+        @Size(max = 500, message = "El lote admite como máximo 500 ventas")
+        List<SaleDTO> sales
+) {}
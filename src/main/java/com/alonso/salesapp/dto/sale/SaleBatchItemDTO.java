@@ -0,0 +1,11 @@
+package com.alonso.salesapp.dto.sale;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Resultado de una venta del lote: la venta creada o el motivo por el que se rechazó
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SaleBatchItemDTO(
+        int index,
+        SaleResponseDTO sale,
+        String error
+) {}
@@ -0,0 +1,10 @@
+package com.alonso.salesapp.dto.sale;
+
+import java.util.List;
+
+// Resultados en el mismo orden que las ventas enviadas
+public record SaleBatchResponseDTO(
+        int created,
+        int failed,
+        List<SaleBatchItemDTO> results
+) {}
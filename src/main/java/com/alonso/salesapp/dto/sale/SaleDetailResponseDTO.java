@@ -1,30 +1,20 @@
 package com.alonso.salesapp.dto.sale;
 
 import com.alonso.salesapp.dto.product.ProductSummaryDTO;
-import com.fasterxml.jackson.annotation.JsonFormat;
-
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import com.alonso.salesapp.model.Money;
 
 
 public record SaleDetailResponseDTO(
         ProductSummaryDTO product,
         Short quantity,
-
-        @JsonFormat(shape = JsonFormat.Shape.NUMBER, pattern = "#.00")
-        Double salePrice,
-        @JsonFormat(shape = JsonFormat.Shape.NUMBER, pattern = "#.00")
-        Double discount
+        Money salePrice,
+        Money discount
 ) {
-    @JsonFormat(shape = JsonFormat.Shape.NUMBER, pattern = "#.00")
-    public Double getSubtotal() {
+    // Aritmética entera en céntimos: exacta y sin BigDecimal intermedios en cada respuesta
+    public Money getSubtotal() {
         if (quantity == null || salePrice == null) {
-            return 0.00;
+            return Money.ZERO;
         }
-        return BigDecimal.valueOf(quantity)
-                .multiply(BigDecimal.valueOf(salePrice))
-                .subtract(BigDecimal.valueOf(discount))
-                .setScale(2, RoundingMode.HALF_UP) // Aquí defines los 2 decimales matemáticos
-                .doubleValue();
+        return Money.ofCents(Money.lineCents(quantity, salePrice, discount));
     }
-}
\ No newline at end of file
+}
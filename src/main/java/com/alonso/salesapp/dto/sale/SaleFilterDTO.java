@@ -0,0 +1,13 @@
+package com.alonso.salesapp.dto.sale;
+
+import java.time.LocalDateTime;
+
+// Filtros opcionales de GET /sales. afterDateTime + afterId es el cursor (última venta de la página anterior)
+public record SaleFilterDTO(
+        LocalDateTime from,
+        LocalDateTime to,
+        Integer idClient,
+        Integer idUser,
+        LocalDateTime afterDateTime,
+        Integer afterId
+) {}
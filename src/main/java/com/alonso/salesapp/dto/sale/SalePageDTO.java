@@ -0,0 +1,16 @@
+package com.alonso.salesapp.dto.sale;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Página por cursor: para la siguiente se envían nextDateTime y nextId como afterDateTime y afterId.
+// El cursor va en ISO completo (con fracción de segundo) para no saltar ventas del mismo segundo.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SalePageDTO(
+        List<SaleResponseDTO> content,
+        boolean hasNext,
+        LocalDateTime nextDateTime,
+        Integer nextId
+) {}
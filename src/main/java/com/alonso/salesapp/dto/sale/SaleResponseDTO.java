@@ -2,6 +2,7 @@ package com.alonso.salesapp.dto.sale;
 
 import com.alonso.salesapp.dto.client.ClientSummaryDTO;
 import com.alonso.salesapp.dto.user.UserSummaryDTO;
+import com.alonso.salesapp.model.Money;
 import com.fasterxml.jackson.annotation.JsonFormat;
 
 import java.time.LocalDateTime;
@@ -15,11 +16,9 @@ public record SaleResponseDTO(
         @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "America/Lima")
         LocalDateTime dateTime,
 
-        @JsonFormat(shape = JsonFormat.Shape.NUMBER, pattern = "#.00")
-        Double total,
+        Money total,
 
-        @JsonFormat(shape = JsonFormat.Shape.NUMBER, pattern = "#.00")
-        Double tax,
+        Money tax,
 
         List<SaleDetailResponseDTO> details
 ) {}
@@ -1,6 +1,7 @@
 package com.alonso.salesapp.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -54,6 +55,34 @@ public class GlobalErrorHandler {
         );
     }
 
+    // Manejar parámetros incoherentes (400 Bad Request)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseBody
+    public ErrorResponse handleInvalidRequest(InvalidRequestException ex, HttpServletRequest request) {
+        return new ErrorResponse(
+                ex.getMessage(),
+                LocalDateTime.now(),
+                ex.getClass().getSimpleName(),
+                request.getRequestURI(),
+                null
+        );
+    }
+
+    // Manejar una Idempotency-Key reutilizada con otra petición (422 Unprocessable Entity)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    @ResponseBody
+    public ErrorResponse handleIdempotencyKeyReused(IdempotencyKeyReusedException ex, HttpServletRequest request) {
+        return new ErrorResponse(
+                ex.getMessage(),
+                LocalDateTime.now(),
+                ex.getClass().getSimpleName(),
+                request.getRequestURI(),
+                null
+        );
+    }
+
     // Manejar cualquier otro error no previsto (500 Internal Server Error)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler(Exception.class)
@@ -123,6 +152,20 @@ public class GlobalErrorHandler {
         );
     }
 
+    // Manejar conflictos de versión que siguen tras agotar los reintentos (409 Conflict)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseBody
+    public ErrorResponse handleOptimisticLocking(OptimisticLockingFailureException ex, HttpServletRequest request) {
+        return new ErrorResponse(
+                "El recurso fue modificado por otra operación, vuelva a intentarlo",
+                LocalDateTime.now(),
+                ex.getClass().getSimpleName(),
+                request.getRequestURI(),
+                null
+        );
+    }
+
     // Manejar usuario ya existente (409 Conflict)
     @ResponseStatus(HttpStatus.CONFLICT)
     @ExceptionHandler(UserAlreadyExistsException.class)
@@ -0,0 +1,8 @@
+package com.alonso.salesapp.exception;
+
+// Idempotency-Key ya usada con otro cuerpo de petición (422 Unprocessable Entity)
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
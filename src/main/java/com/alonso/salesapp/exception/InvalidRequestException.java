@@ -0,0 +1,8 @@
+package com.alonso.salesapp.exception;
+
+// Petición bien formada pero con parámetros incoherentes entre sí (400 Bad Request)
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
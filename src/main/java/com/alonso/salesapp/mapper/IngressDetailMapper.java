@@ -7,7 +7,7 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 
-@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, uses = {ProductMapper.class})
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, uses = {ProductMapper.class, MoneyMapper.class})
 public interface IngressDetailMapper {
 
     @Mapping(source = "idProduct", target = "product.idProduct")
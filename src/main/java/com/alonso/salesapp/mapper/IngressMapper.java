@@ -3,6 +3,7 @@ package com.alonso.salesapp.mapper;
 import com.alonso.salesapp.dto.ingress.IngressRequestDTO;
 import com.alonso.salesapp.dto.ingress.IngressResponseDTO;
 import com.alonso.salesapp.model.Ingress;
+import com.alonso.salesapp.model.IngressDetail;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
@@ -10,7 +11,7 @@ import org.mapstruct.MappingConstants;
 import java.util.List;
 
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING,
-        uses = {ProviderMapper.class, UserMapper.class, IngressDetailMapper.class})
+        uses = {ProviderMapper.class, UserMapper.class, IngressDetailMapper.class, MoneyMapper.class})
 public interface IngressMapper {
 
     @Mapping(source = "idProvider", target = "provider.idProvider")
@@ -21,4 +22,8 @@ public interface IngressMapper {
     IngressResponseDTO toResponseDTO(Ingress entity);
 
     List<IngressResponseDTO> toResponseDTOList(List<Ingress> entities);
+
+    // Exportación: cabecera + líneas ya leídas (no toca la colección lazy del ingreso)
+    @Mapping(source = "lines", target = "details")
+    IngressResponseDTO toResponseDTO(Ingress entity, List<IngressDetail> lines);
 }
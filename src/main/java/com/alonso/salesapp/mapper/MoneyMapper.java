@@ -0,0 +1,15 @@
+package com.alonso.salesapp.mapper;
+
+import com.alonso.salesapp.model.Money;
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+
+// Importes de entrada (Double en los DTO de request) -> Money en las entidades
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface MoneyMapper {
+
+    // Como con los double primitivos de antes, un importe ausente vale 0
+    default Money toMoney(Double amount) {
+        return amount == null ? Money.ZERO : Money.of(amount);
+    }
+}
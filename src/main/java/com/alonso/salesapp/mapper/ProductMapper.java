@@ -8,12 +8,14 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 
-@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, uses = {MoneyMapper.class})
 public interface ProductMapper {
 
     // Al guardar: DTO (id:5) -> Entity (Category{id:5})
     @Mapping(source = "categoryId", target = "category.idCategory")
     @Mapping(target = "idProduct", ignore = true)
+    @Mapping(target = "averageCost", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Product toEntity(ProductRequestDTO dto);
 
     // Al leer: Entity (Category{id:5}) -> DTO (id:5)
@@ -7,13 +7,14 @@ import org.mapstruct.*;
 
 @Mapper(
         componentModel = MappingConstants.ComponentModel.SPRING,
-        uses = {ProductMapper.class}
+        uses = {ProductMapper.class, MoneyMapper.class}
 )
 public interface SaleDetailMapper {
 
     @Mapping(source = "idProduct", target = "product.idProduct")
     @Mapping(target = "idSaleDetail", ignore = true)
     @Mapping(target = "sale", ignore = true)
+    @Mapping(target = "unitCost", ignore = true)
     SaleDetail toEntity(SaleDetailDTO dto);
 
     SaleDetailResponseDTO toResponseDTO(SaleDetail entity);
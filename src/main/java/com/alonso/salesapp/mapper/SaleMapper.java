@@ -3,12 +3,13 @@ package com.alonso.salesapp.mapper;
 import com.alonso.salesapp.dto.sale.SaleDTO;
 import com.alonso.salesapp.dto.sale.SaleResponseDTO;
 import com.alonso.salesapp.model.Sale;
+import com.alonso.salesapp.model.SaleDetail;
 import org.mapstruct.*;
 
 import java.util.List;
 
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING,
-        uses = {ClientMapper.class, UserMapper.class, SaleDetailMapper.class}
+        uses = {ClientMapper.class, UserMapper.class, SaleDetailMapper.class, MoneyMapper.class}
 )
 public interface SaleMapper {
 
@@ -23,4 +24,8 @@ public interface SaleMapper {
     SaleResponseDTO toResponseDTO(Sale entity);
 
     List<SaleResponseDTO> toResponseDTOList(List<Sale> entities);
+
+    // Exportación: cabecera + líneas ya leídas (no toca la colección lazy de la venta)
+    @Mapping(source = "lines", target = "details")
+    SaleResponseDTO toResponseDTO(Sale entity, List<SaleDetail> lines);
 }
\ No newline at end of file
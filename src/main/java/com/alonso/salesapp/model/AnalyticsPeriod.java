@@ -0,0 +1,12 @@
+package com.alonso.salesapp.model;
+
+// Agrupación temporal de los reportes de analítica (se pasa a date_trunc en PostgreSQL)
+public enum AnalyticsPeriod {
+    DAY,
+    WEEK,
+    MONTH;
+
+    public String sqlUnit() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,36 @@
+package com.alonso.salesapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Resumen de ventas por día, producto y cajero, mantenido de forma incremental por SalesRollup.
+ * La categoría es la del producto en el momento de la venta.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(indexes = @Index(name = "IDX_DailySales_Category", columnList = "saleDate, idCategory"))
+public class DailySalesSummary {
+
+    @EmbeddedId
+    private DailySalesSummaryId id;
+
+    @Column(nullable = false)
+    private Integer idCategory;
+
+    // Unidades vendidas
+    @Column(nullable = false)
+    private long units;
+
+    // Importe de las líneas (cantidad * precio - descuento), sin impuestos
+    @Column(columnDefinition = "decimal(14,2)", nullable = false)
+    private double revenue;
+
+    // Número de líneas de detalle acumuladas
+    @Column(nullable = false)
+    private long lineCount;
+}
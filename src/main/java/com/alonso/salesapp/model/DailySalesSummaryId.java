@@ -0,0 +1,25 @@
+package com.alonso.salesapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Grano del resumen diario: un registro por día, producto y cajero
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class DailySalesSummaryId implements Serializable {
+
+    @Column(nullable = false)
+    private LocalDate saleDate;
+
+    @Column(nullable = false)
+    private Integer idProduct;
+
+    @Column(nullable = false)
+    private Integer idUser;
+}
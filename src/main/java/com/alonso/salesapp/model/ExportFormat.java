@@ -0,0 +1,15 @@
+package com.alonso.salesapp.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Formato de las exportaciones masivas (GET /sales/export y GET /ingress/export)
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),   // Un objeto JSON por línea (una venta o ingreso completo)
+    CSV("text/csv", "csv");                     // Una fila por línea de detalle
+
+    private final String contentType;
+    private final String extension;
+}
@@ -0,0 +1,39 @@
+package com.alonso.salesapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta guardada de una petición con Idempotency-Key (POST /sales, POST /ingress).
+ * La clave primaria (ámbito:usuario:clave) es el índice único que impide procesar dos veces la misma petición.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(indexes = @Index(name = "IDX_Idempotency_Expires", columnList = "expiresAt"))
+public class IdempotencyRecord {
+
+    // Ámbito, usuario y clave del cliente, p. ej. "sale:ana:7f3c..."
+    @Id
+    @Column(length = 255)
+    private String requestKey;
+
+    // SHA-256 (hex) del cuerpo de la petición: la misma clave con otro cuerpo no es un reintento
+    @Column(length = 64, nullable = false)
+    private String requestHash;
+
+    // Respuesta serializada en JSON; se escribe en la misma transacción que crea el recurso
+    @Column(columnDefinition = "text")
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,9 @@
+package com.alonso.salesapp.model;
+
+// Estado de la imagen de un producto: la subida se hace en segundo plano tras guardar el producto
+public enum ImageStatus {
+    NONE,       // Sin imagen
+    PENDING,    // Subida en curso (o reintentando)
+    READY,      // imageUrl / imagePublicId ya apuntan a la imagen subida
+    FAILED      // Se agotaron los reintentos; la imagen anterior (si había) se conserva
+}
@@ -14,7 +14,8 @@ import java.util.List;
 public class Ingress {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingress_seq")
+    @SequenceGenerator(name = "ingress_seq", sequenceName = "ingress_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Integer idIngress;
 
@@ -33,10 +34,10 @@ public class Ingress {
     private String serialNumber; // NRO FACTURA FÍSICA
 
     @Column(columnDefinition = "decimal(6,2)", nullable = false)
-    private double total;
+    private Money total;
 
     @Column(columnDefinition = "decimal(6,2)", nullable = false)
-    private double tax;
+    private Money tax;
 
     @OneToMany(mappedBy = "ingress", cascade = CascadeType.ALL)
     private List<IngressDetail> details;
@@ -12,7 +12,8 @@ import lombok.*;
 public class IngressDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingress_detail_seq")
+    @SequenceGenerator(name = "ingress_detail_seq", sequenceName = "ingress_detail_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Integer idIngressDetail; // ID SIMPLE (Igual que SaleDetail)
 
@@ -29,5 +30,5 @@ public class IngressDetail {
     private short quantity = 0;
 
     @Column(columnDefinition = "decimal(6,2)", nullable = false)
-    private double cost; // OJO: Aquí es COSTO, no precio de venta
+    private Money cost; // OJO: Aquí es COSTO, no precio de venta
 }
\ No newline at end of file
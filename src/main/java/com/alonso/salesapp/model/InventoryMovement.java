@@ -0,0 +1,22 @@
+package com.alonso.salesapp.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+/**
+ * Marca de un movimiento del InventoryLedger confirmado y aún no escrito en product.stock.
+ * Se inserta en la misma transacción que la venta o el ingreso y se borra en la misma que el volcado:
+ * al reaplicar el journal solo cuentan los movimientos cuya marca sigue aquí.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class InventoryMovement {
+
+    // Número de secuencia del movimiento en el journal
+    @Id
+    private Long seq;
+}
@@ -0,0 +1,8 @@
+package com.alonso.salesapp.model;
+
+// Agrupación de la analítica en memoria sobre líneas de venta (SaleLineColumnStore)
+public enum LineGroupBy {
+    PRODUCT,
+    DAY,
+    USER
+}
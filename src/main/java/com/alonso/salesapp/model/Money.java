@@ -0,0 +1,115 @@
+package com.alonso.salesapp.model;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
+import tools.jackson.databind.deser.std.StdDeserializer;
+import tools.jackson.databind.ser.std.StdSerializer;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importe en céntimos (punto fijo, 2 decimales). Las sumas, productos por cantidad e impuestos son
+ * aritmética entera exacta: sin errores de redondeo de double ni BigDecimal intermedios.
+ * <p>
+ * En la base de datos se guarda como decimal (MoneyConverter) y en JSON como número con dos decimales.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+    static final int SCALE = 2;
+    private static final long CENTS = 100;
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    // Redondeo al céntimo más cercano (los importes de entrada ya traen como mucho 2 decimales)
+    public static Money of(double amount) {
+        return ofCents(Math.round(amount * CENTS));
+    }
+
+    public static Money of(BigDecimal amount) {
+        return ofCents(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Importe de una línea (cantidad * precio - descuento) en céntimos, sin crear objetos:
+     * los totales se acumulan como long y se envuelven una sola vez. Sin descuento (null) resta 0.
+     */
+    public static long lineCents(int quantity, Money price, Money discount) {
+        return Math.subtractExact(Math.multiplyExact(quantity, price.cents), discount == null ? 0 : discount.cents);
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(int quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    // Porcentaje redondeado al céntimo (mitad hacia arriba), p. ej. el 18% de impuesto
+    public Money percent(int percent) {
+        return ofCents(Math.floorDiv(Math.multiplyExact(cents, percent) + CENTS / 2, CENTS));
+    }
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    public double toDouble() {
+        return (double) cents / CENTS;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    // "12.50", "-0.05": el mismo texto se usa en JSON y en CSV
+    @Override
+    public String toString() {
+        long abs = Math.abs(cents);
+        long fraction = abs % CENTS;
+        return (cents < 0 ? "-" : "") + abs / CENTS + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    public static final class Serializer extends StdSerializer<Money> {
+
+        public Serializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializationContext context) {
+            gen.writeNumber(value.toString());
+        }
+    }
+
+    public static final class Deserializer extends StdDeserializer<Money> {
+
+        public Deserializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) {
+            return Money.of(context.readValue(parser, BigDecimal.class));
+        }
+    }
+}
@@ -29,19 +29,34 @@ public class Product {
     @Column(length = 150, nullable = false)
     private String description;
 
-    @Column(nullable = false)
-    private double price;
+    @Column(precision = 10, scale = 2, nullable = false)
+    private Money price;
 
     @Column(nullable = false)
     private Integer stock;
 
+    // Coste medio ponderado de las existencias; lo mantiene cada ingreso (ver IngressServiceImpl)
+    @Column(columnDefinition = "decimal(12,4) default 0", nullable = false)
+    @Builder.Default
+    private double averageCost = 0;
+
     @Column
     private String imageUrl;
 
     @Column
     private String imagePublicId;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, nullable = false, columnDefinition = "varchar(10) default 'NONE'")
+    @Builder.Default
+    private ImageStatus imageStatus = ImageStatus.NONE;
+
     @Column(nullable = false)
     @Builder.Default
     private boolean enabled = true;
+
+    // Control optimista: cada UPDATE de la entidad comprueba e incrementa la versión
+    @Version
+    @Column(columnDefinition = "bigint default 0", nullable = false)
+    private long version;
 }
@@ -11,10 +11,16 @@ import java.util.List;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Builder
 @Entity
+// Índice para la paginación por cursor (ORDER BY date_time DESC, id_sale DESC); también sirve
+// a los rangos por date_time de la analítica (es la primera columna)
+@Table(indexes = @Index(name = "IDX_Sale_DateTime_Id", columnList = "dateTime, idSale"))
 public class Sale {
 
+    // Secuencia con reserva de 50 ids (pooled): Hibernate conoce el id antes del INSERT y puede
+    // agrupar cabecera y detalles en lotes JDBC (con IDENTITY cada fila es un round trip)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_seq")
+    @SequenceGenerator(name = "sale_seq", sequenceName = "sale_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Integer idSale;
 
@@ -30,10 +36,10 @@ public class Sale {
     private LocalDateTime dateTime;
 
     @Column(columnDefinition = "decimal(6,2)", nullable = false)
-    private Double total;
+    private Money total;
 
     @Column(columnDefinition = "decimal(6,2)", nullable = false)
-    private Double tax;
+    private Money tax;
 
     // IMPORTANTE: CascadeType.ALL permite guardar la Cabecera y los Detalles de un solo golpe
     @OneToMany(mappedBy = "sale", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -9,10 +9,16 @@ import lombok.*;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Builder
 @Entity
+// FK sin índice propio en PostgreSQL: los JOIN por venta y los GROUP BY por producto de la analítica los usan
+@Table(indexes = {
+        @Index(name = "IDX_SaleDetail_Sale", columnList = "id_sale"),
+        @Index(name = "IDX_SaleDetail_Product", columnList = "id_product")
+})
 public class SaleDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_detail_seq")
+    @SequenceGenerator(name = "sale_detail_seq", sequenceName = "sale_detail_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Integer idSaleDetail;
 
@@ -28,8 +34,13 @@ public class SaleDetail {
     private Short quantity;
 
     @Column(columnDefinition = "decimal(6,2)", nullable = false)
-    private double salePrice;
+    private Money salePrice;
 
     @Column(columnDefinition = "decimal(6,2)", nullable = false)
-    private double discount;
+    @Builder.Default
+    private Money discount = Money.ZERO;
+
+    // Coste medio del producto en el momento de la venta: el margen no depende del histórico de ingresos
+    @Column(columnDefinition = "decimal(12,4) default 0", nullable = false)
+    private double unitCost;
 }
\ No newline at end of file
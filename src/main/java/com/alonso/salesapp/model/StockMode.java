@@ -0,0 +1,9 @@
+package com.alonso.salesapp.model;
+
+// Estrategia para descontar stock en las ventas (propiedad sales.stock.mode)
+public enum StockMode {
+    LOCKING,    // SELECT ... FOR UPDATE y resta en memoria (dirty checking)
+    ATOMIC,     // UPDATE condicional (stock >= cantidad) sin cargar la fila bloqueada
+    LEDGER,     // Reserva en memoria (InventoryLedger) y escritura diferida por lotes a la tabla product
+    OPTIMISTIC  // Lectura sin bloqueo y UPDATE con comprobación de @Version; los conflictos se reintentan
+}
@@ -37,6 +37,11 @@ public class User implements UserDetails {
     @Builder.Default
     private boolean enabled = true;
 
+    // Se incrementa al cambiar rol/datos o deshabilitar: invalida los access tokens ya emitidos
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private int tokenVersion = 0;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_" + role.getName()));
@@ -0,0 +1,109 @@
+package com.alonso.salesapp.repository;
+
+import com.alonso.salesapp.dto.analytics.CashierSalesDTO;
+import com.alonso.salesapp.dto.analytics.ProductMarginDTO;
+import com.alonso.salesapp.dto.analytics.RevenuePeriodDTO;
+import com.alonso.salesapp.dto.analytics.TicketStatsDTO;
+import com.alonso.salesapp.dto.analytics.TopProductDTO;
+import com.alonso.salesapp.model.Sale;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reportes sobre sale / sale_detail resueltos en PostgreSQL (GROUP BY y funciones de ventana).
+ * Solo devuelve proyecciones: ninguna consulta carga entidades Sale. Extiende Repository (no
+ * JpaRepository) para no exponer findAll. Rangos [from, to): se apoyan en IDX_Sale_DateTime_Id
+ * y en IDX_SaleDetail_Sale / IDX_SaleDetail_Product.
+ * <p>
+ * Los alias van entre comillas para conservar las mayúsculas y coincidir con los componentes del
+ * record; los CAST fijan el tipo Java de cada columna.
+ */
+@Repository
+public interface AnalyticsRepo extends org.springframework.data.repository.Repository<Sale, Integer> {
+
+    @Query(value = """
+            SELECT RANK() OVER (ORDER BY SUM(d.quantity) DESC) AS "ranking",
+                   d.id_product AS "idProduct",
+                   p.name AS "name",
+                   CAST(SUM(d.quantity) AS bigint) AS "units",
+                   CAST(SUM(d.quantity * d.sale_price - d.discount) AS double precision) AS "revenue",
+                   CAST(SUM(d.quantity * d.sale_price - d.discount) * 100.0
+                        / NULLIF(SUM(SUM(d.quantity * d.sale_price - d.discount)) OVER (), 0) AS double precision) AS "revenueShare"
+            FROM sale s
+            JOIN sale_detail d ON d.id_sale = s.id_sale
+            JOIN product p ON p.id_product = d.id_product
+            WHERE s.date_time >= :from AND s.date_time < :to
+            GROUP BY d.id_product, p.name
+            ORDER BY "units" DESC, d.id_product
+            LIMIT :limit""", nativeQuery = true)
+    List<TopProductDTO> findTopProducts(@Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("limit") int limit);
+
+    // El periodo se calcula en una subconsulta: así el GROUP BY no repite la expresión con el parámetro
+    @Query(value = """
+            SELECT t.period AS "period",
+                   COUNT(*) AS "sales",
+                   CAST(SUM(t.total) AS double precision) AS "revenue",
+                   CAST(SUM(t.tax) AS double precision) AS "tax",
+                   CAST(AVG(t.total) AS double precision) AS "averageTicket",
+                   CAST(SUM(SUM(t.total)) OVER (ORDER BY t.period) AS double precision) AS "runningRevenue"
+            FROM (SELECT date_trunc(:unit, s.date_time) AS period, s.total, s.tax
+                  FROM sale s
+                  WHERE s.date_time >= :from AND s.date_time < :to) t
+            GROUP BY t.period
+            ORDER BY t.period""", nativeQuery = true)
+    List<RevenuePeriodDTO> findRevenueByPeriod(@Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("unit") String unit);
+
+    @Query(value = """
+            SELECT COUNT(*) AS "sales",
+                   CAST(COALESCE(SUM(s.total), 0) AS double precision) AS "revenue",
+                   CAST(COALESCE(AVG(s.total), 0) AS double precision) AS "averageTicket",
+                   CAST(COALESCE(PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY s.total), 0) AS double precision) AS "medianTicket",
+                   CAST(COALESCE(MAX(s.total), 0) AS double precision) AS "maxTicket"
+            FROM sale s
+            WHERE s.date_time >= :from AND s.date_time < :to""", nativeQuery = true)
+    TicketStatsDTO findTicketStats(@Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    @Query(value = """
+            SELECT RANK() OVER (ORDER BY SUM(s.total) DESC) AS "ranking",
+                   s.id_user AS "idUser",
+                   u.username AS "username",
+                   COUNT(*) AS "sales",
+                   CAST(SUM(s.total) AS double precision) AS "revenue",
+                   CAST(AVG(s.total) AS double precision) AS "averageTicket",
+                   CAST(SUM(s.total) * 100.0 / NULLIF(SUM(SUM(s.total)) OVER (), 0) AS double precision) AS "revenueShare"
+            FROM sale s
+            JOIN user_data u ON u.id_user = s.id_user
+            WHERE s.date_time >= :from AND s.date_time < :to
+            GROUP BY s.id_user, u.username
+            ORDER BY "revenue" DESC, s.id_user""", nativeQuery = true)
+    List<CashierSalesDTO> findSalesByCashier(@Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to);
+
+    // Margen desde el coste guardado en cada línea (unit_cost): no recorre el histórico de ingresos
+    @Query(value = """
+            SELECT d.id_product AS "idProduct",
+                   p.name AS "name",
+                   CAST(SUM(d.quantity) AS bigint) AS "units",
+                   CAST(SUM(d.quantity * d.sale_price - d.discount) AS double precision) AS "revenue",
+                   CAST(SUM(d.quantity * d.unit_cost) AS double precision) AS "cost",
+                   CAST(SUM(d.quantity * d.sale_price - d.discount - d.quantity * d.unit_cost) AS double precision) AS "margin",
+                   CAST(SUM(d.quantity * d.sale_price - d.discount - d.quantity * d.unit_cost) * 100.0
+                        / NULLIF(SUM(d.quantity * d.sale_price - d.discount), 0) AS double precision) AS "marginPercent"
+            FROM sale s
+            JOIN sale_detail d ON d.id_sale = s.id_sale
+            JOIN product p ON p.id_product = d.id_product
+            WHERE s.date_time >= :from AND s.date_time < :to
+            GROUP BY d.id_product, p.name
+            ORDER BY "margin" DESC, d.id_product""", nativeQuery = true)
+    List<ProductMarginDTO> findMarginByProduct(@Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+}
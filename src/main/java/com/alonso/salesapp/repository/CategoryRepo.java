@@ -1,9 +1,21 @@
 package com.alonso.salesapp.repository;
 
+import com.alonso.salesapp.dto.category.CategoryDTO;
 import com.alonso.salesapp.model.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CategoryRepo extends JpaRepository<Category, Integer> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.alonso.salesapp.dto.category.CategoryDTO(c.idCategory, c.name, c.description, c.enabled) " +
+            "FROM Category c ORDER BY c.idCategory")
+    List<CategoryDTO> findAllAsDTO();
 }
@@ -1,9 +1,18 @@
 package com.alonso.salesapp.repository;
 
+import com.alonso.salesapp.dto.client.ClientDTO;
 import com.alonso.salesapp.model.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ClientRepo extends JpaRepository<Client, Integer> {
+
+    // Listados: el DTO sale directo de la consulta, sin entidades gestionadas ni snapshots de dirty checking
+    @Query("SELECT new com.alonso.salesapp.dto.client.ClientDTO(c.idClient, c.firstName, c.lastName, c.cardId, " +
+            "c.phoneNumber, c.email, c.address) FROM Client c ORDER BY c.idClient")
+    List<ClientDTO> findAllAsDTO();
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.alonso.salesapp.repository;
+
+import com.alonso.salesapp.dto.sale.DailySalesDTO;
+import com.alonso.salesapp.model.DailySalesSummary;
+import com.alonso.salesapp.model.DailySalesSummaryId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailySalesSummaryRepo extends JpaRepository<DailySalesSummary, DailySalesSummaryId> {
+
+    // Tabla que tocan las sentencias nativas. Sin declararla, Hibernate no sabe qué cambia un executeUpdate
+    // nativo e invalida toda la caché de segundo nivel y de consultas en cada venta
+    String SUMMARY_TABLE = "daily_sales_summary";
+
+    // Upsert: crea la fila del día o suma sobre la existente en una sola sentencia (sin leerla antes)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SUMMARY_TABLE))
+    @Query(value = """
+            INSERT INTO daily_sales_summary (sale_date, id_product, id_user, id_category, units, revenue, line_count)
+            VALUES (:day, :idProduct, :idUser, :idCategory, :units, :revenue, :lines)
+            ON CONFLICT (sale_date, id_product, id_user) DO UPDATE SET
+                units = daily_sales_summary.units + EXCLUDED.units,
+                revenue = daily_sales_summary.revenue + EXCLUDED.revenue,
+                line_count = daily_sales_summary.line_count + EXCLUDED.line_count""", nativeQuery = true)
+    void accumulate(@Param("day") LocalDate day,
+                    @Param("idProduct") Integer idProduct,
+                    @Param("idUser") Integer idUser,
+                    @Param("idCategory") Integer idCategory,
+                    @Param("units") long units,
+                    @Param("revenue") double revenue,
+                    @Param("lines") long lines);
+
+    // Reconstrucción: bloquea los upserts de ventas nuevas hasta el commit. Espera a las ventas en curso,
+    // así el INSERT ... SELECT posterior ve todas las confirmadas y ninguna se cuenta dos veces.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SUMMARY_TABLE))
+    @Query(value = "LOCK TABLE daily_sales_summary IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query("DELETE FROM DailySalesSummary d WHERE d.id.saleDate >= :from")
+    int deleteFrom(@Param("from") LocalDate from);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SUMMARY_TABLE))
+    @Query(value = """
+            INSERT INTO daily_sales_summary (sale_date, id_product, id_user, id_category, units, revenue, line_count)
+            SELECT CAST(s.date_time AS date), d.id_product, s.id_user, p.id_category,
+                   SUM(d.quantity), SUM(d.quantity * d.sale_price - d.discount), COUNT(*)
+            FROM sale s
+            JOIN sale_detail d ON d.id_sale = s.id_sale
+            JOIN product p ON p.id_product = d.id_product
+            WHERE s.date_time >= :from
+            GROUP BY CAST(s.date_time AS date), d.id_product, s.id_user, p.id_category""", nativeQuery = true)
+    int backfillFrom(@Param("from") LocalDateTime from);
+
+    // Lectura para dashboards: recorre filas del resumen (días x productos x cajeros), no ventas
+    @Query("""
+            SELECT new com.alonso.salesapp.dto.sale.DailySalesDTO(d.id.saleDate, SUM(d.units), SUM(d.revenue), SUM(d.lineCount))
+            FROM DailySalesSummary d
+            WHERE d.id.saleDate >= :from AND d.id.saleDate <= :to
+              AND (:idCategory IS NULL OR d.idCategory = :idCategory)
+              AND (:idUser IS NULL OR d.id.idUser = :idUser)
+            GROUP BY d.id.saleDate
+            ORDER BY d.id.saleDate""")
+    List<DailySalesDTO> findDailyTotals(@Param("from") LocalDate from,
+                                        @Param("to") LocalDate to,
+                                        @Param("idCategory") Integer idCategory,
+                                        @Param("idUser") Integer idUser);
+}
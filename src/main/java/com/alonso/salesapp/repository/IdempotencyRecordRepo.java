@@ -0,0 +1,39 @@
+package com.alonso.salesapp.repository;
+
+import com.alonso.salesapp.model.IdempotencyRecord;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepo extends JpaRepository<IdempotencyRecord, String> {
+
+    // Reserva la clave: 1 si es nueva, 0 si ya existe. Si otra transacción la acaba de insertar sin
+    // confirmar, PostgreSQL espera a que termine (commit: 0; rollback: la reserva pasa a esta).
+    // Solo toca idempotency_record: sin declararlo Hibernate invalidaría toda la caché de segundo nivel
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "idempotency_record"))
+    @Query(value = """
+            INSERT INTO idempotency_record (request_key, request_hash, created_at, expires_at)
+            VALUES (:requestKey, :requestHash, :createdAt, :expiresAt)
+            ON CONFLICT (request_key) DO NOTHING""", nativeQuery = true)
+    int claim(@Param("requestKey") String requestKey,
+              @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.response = :response WHERE r.requestKey = :requestKey")
+    int complete(@Param("requestKey") String requestKey, @Param("response") String response);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
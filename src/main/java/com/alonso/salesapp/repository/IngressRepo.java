@@ -1,12 +1,18 @@
 package com.alonso.salesapp.repository;
 
 import com.alonso.salesapp.model.Ingress;
+import com.alonso.salesapp.model.IngressDetail;
 import jakarta.annotation.Nonnull;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface IngressRepo extends JpaRepository<Ingress, Integer> {
@@ -14,4 +20,21 @@ public interface IngressRepo extends JpaRepository<Ingress, Integer> {
     @EntityGraph(attributePaths = {"details", "provider", "user", "details.product"})
     @Nonnull
     List<Ingress> findAll();
+
+    // Exportación: todas las líneas de detalle con su cabecera, ordenadas por ingreso (forward-only, por lotes).
+    // Solo relaciones a uno en los JOIN FETCH: cada fila del cursor es una línea, sin producto cartesiano.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT d FROM IngressDetail d
+            JOIN FETCH d.ingress i
+            JOIN FETCH i.provider
+            JOIN FETCH i.user u
+            JOIN FETCH u.role
+            JOIN FETCH d.product p
+            JOIN FETCH p.category
+            ORDER BY i.idIngress, d.idIngressDetail""")
+    Stream<IngressDetail> streamAllDetails();
 }
@@ -0,0 +1,30 @@
+package com.alonso.salesapp.repository;
+
+import com.alonso.salesapp.model.InventoryMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepo extends JpaRepository<InventoryMovement, Long> {
+
+    // INSERT de HQL: con id asignado, save() haría antes un SELECT para decidir entre persist y merge
+    @Modifying
+    @Query("INSERT INTO InventoryMovement (seq) VALUES (:seq)")
+    void insert(@Param("seq") long seq);
+
+    @Query("SELECT m.seq FROM InventoryMovement m WHERE m.seq IN :seqs")
+    List<Long> findExisting(@Param("seqs") Collection<Long> seqs);
+
+    @Modifying
+    @Query("DELETE FROM InventoryMovement m WHERE m.seq IN :seqs")
+    int deleteBySeqIn(@Param("seqs") Collection<Long> seqs);
+
+    @Query("SELECT COALESCE(MAX(m.seq), 0) FROM InventoryMovement m")
+    long maxSeq();
+}
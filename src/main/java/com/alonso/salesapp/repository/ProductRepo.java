@@ -1,20 +1,83 @@
 package com.alonso.salesapp.repository;
 
+import com.alonso.salesapp.model.ImageStatus;
 import com.alonso.salesapp.model.Product;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepo extends JpaRepository<Product, Integer> {
 
+    // Debe coincidir con la expresión del índice GIN IDX_Product_Search (db/schema-postgresql.sql) para que PostgreSQL lo use
+    String SEARCH_VECTOR = "to_tsvector('spanish', p.name || ' ' || p.description)";
+    String SEARCH_MATCH = "p.enabled AND " + SEARCH_VECTOR + " @@ websearch_to_tsquery('spanish', :q)";
+
+    // Una palabra suelta ("laptop") puede coincidir con buena parte del catálogo: solo se ordenan y cuentan
+    // las primeras SEARCH_LIMIT coincidencias, así el coste no crece con el número de resultados
+    int SEARCH_LIMIT = 1000;
+    String SEARCH_CANDIDATES = "(SELECT * FROM product p WHERE " + SEARCH_MATCH + " LIMIT " + SEARCH_LIMIT + ") p";
+
+    // Búsqueda full-text (solo PostgreSQL): productos habilitados ordenados por relevancia
+    @Query(value = "SELECT p.* FROM " + SEARCH_CANDIDATES +
+            " ORDER BY ts_rank(" + SEARCH_VECTOR + ", websearch_to_tsquery('spanish', :q)) DESC, p.id_product",
+            countQuery = "SELECT count(*) FROM " + SEARCH_CANDIDATES,
+            nativeQuery = true)
+    Page<Product> search(@Param("q") String query, Pageable pageable);
+
+    // Imagen actual, para borrarla del almacenamiento cuando la reemplaza una nueva
+    @Query("SELECT p.imagePublicId FROM Product p WHERE p.idProduct = :id")
+    Optional<String> findImagePublicId(@Param("id") Integer id);
+
+    // Solo toca las columnas de imagen: no pisa cambios de stock/precio hechos mientras se subía.
+    // Sube la versión como cualquier escritura de product: una edición leída antes falla con conflicto
+    // (modo OPTIMISTIC) en lugar de devolver el estado de imagen anterior al guardar
+    @Modifying
+    @Query("UPDATE Product p SET p.imageUrl = :url, p.imagePublicId = :publicId, p.imageStatus = :status, " +
+            "p.version = p.version + 1 WHERE p.idProduct = :id")
+    int updateImage(@Param("id") Integer id, @Param("url") String url, @Param("publicId") String publicId,
+                    @Param("status") ImageStatus status);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.imageStatus = :status, p.version = p.version + 1 WHERE p.idProduct = :id")
+    int updateImageStatus(@Param("id") Integer id, @Param("status") ImageStatus status);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.imageStatus = :to, p.version = p.version + 1 WHERE p.imageStatus = :from")
+    int replaceImageStatus(@Param("from") ImageStatus from, @Param("to") ImageStatus to);
+
     // Bloquea la fila para escritura. Nadie más puede leerla ni escribirla hasta que termine la transacción.
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT p FROM Product p WHERE p.idProduct = :id")
     Optional<Product> findByIdLocked(@Param("id") Integer id);
+
+    // Bloquea todas las filas en un solo SELECT ... FOR UPDATE y siempre en el mismo orden (por id),
+    // así dos transacciones con productos en común no se bloquean mutuamente (deadlock).
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.idProduct IN :ids ORDER BY p.idProduct")
+    List<Product> findAllByIdLocked(@Param("ids") Collection<Integer> ids);
+
+    // Resta atómica: solo actualiza si hay stock suficiente. Devuelve 0 si no existe o no alcanza.
+    // Los UPDATE masivos no pasan por @Version: se incrementa a mano para que las lecturas optimistas
+    // detecten el cambio. Tampoco actualizan las entidades ya cargadas: quien la llame debe leer el
+    // producto después del UPDATE, no antes.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity, p.version = p.version + 1 " +
+            "WHERE p.idProduct = :id AND p.stock >= :quantity")
+    int decrementStockIfAvailable(@Param("id") Integer id, @Param("quantity") int quantity);
+
+    // Suma (o resta, si es negativo) un delta de stock sin leer la fila. Lo usa el ledger al volcar lotes.
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :delta, p.version = p.version + 1 WHERE p.idProduct = :id")
+    int adjustStock(@Param("id") Integer id, @Param("delta") int delta);
 }
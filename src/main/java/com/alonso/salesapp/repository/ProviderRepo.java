@@ -1,9 +1,21 @@
 package com.alonso.salesapp.repository;
 
+import com.alonso.salesapp.dto.provider.ProviderDTO;
 import com.alonso.salesapp.model.Provider;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ProviderRepo extends JpaRepository<Provider, Integer> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.alonso.salesapp.dto.provider.ProviderDTO(p.idProvider, p.name, p.address, p.enabled) " +
+            "FROM Provider p ORDER BY p.idProvider")
+    List<ProviderDTO> findAllAsDTO();
 }
@@ -1,9 +1,20 @@
 package com.alonso.salesapp.repository;
 
+import com.alonso.salesapp.dto.role.RoleDTO;
 import com.alonso.salesapp.model.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface RoleRepo extends JpaRepository<Role, Integer> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.alonso.salesapp.dto.role.RoleDTO(r.idRole, r.name, r.enabled) FROM Role r ORDER BY r.idRole")
+    List<RoleDTO> findAllAsDTO();
 }
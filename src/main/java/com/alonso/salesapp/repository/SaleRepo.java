@@ -1,17 +1,76 @@
 package com.alonso.salesapp.repository;
 
+import com.alonso.salesapp.dto.analytics.SaleLineRow;
 import com.alonso.salesapp.model.Sale;
-import jakarta.annotation.Nonnull;
+import com.alonso.salesapp.model.SaleDetail;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SaleRepo extends JpaRepository<Sale, Integer> {
 
+    // Fase 1 de la paginación: solo ids, de la más reciente a la más antigua.
+    // Keyset (seek): se continúa después de (afterDateTime, afterId) en lugar de usar OFFSET.
+    @Query("""
+            SELECT s.idSale FROM Sale s
+            WHERE (:from IS NULL OR s.dateTime >= :from)
+              AND (:to IS NULL OR s.dateTime < :to)
+              AND (:idClient IS NULL OR s.client.idClient = :idClient)
+              AND (:idUser IS NULL OR s.user.idUser = :idUser)
+              AND (:afterDateTime IS NULL OR s.dateTime < :afterDateTime
+                   OR (s.dateTime = :afterDateTime AND s.idSale < :afterId))
+            ORDER BY s.dateTime DESC, s.idSale DESC""")
+    List<Integer> findPageIds(@Param("from") LocalDateTime from,
+                              @Param("to") LocalDateTime to,
+                              @Param("idClient") Integer idClient,
+                              @Param("idUser") Integer idUser,
+                              @Param("afterDateTime") LocalDateTime afterDateTime,
+                              @Param("afterId") Integer afterId,
+                              Limit limit);
+
+    // Fase 2: el grafo completo solo para los ids de la página
     @EntityGraph(attributePaths = {"details", "client", "user", "details.product"})
-    @Nonnull
-    List<Sale> findAll();
+    @Query("SELECT s FROM Sale s WHERE s.idSale IN :ids ORDER BY s.dateTime DESC, s.idSale DESC")
+    List<Sale> findAllWithDetailsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Exportación: todas las líneas de detalle con su cabecera, ordenadas por venta (forward-only, por lotes).
+    // Solo relaciones a uno en los JOIN FETCH: cada fila del cursor es una línea, sin producto cartesiano.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT d FROM SaleDetail d
+            JOIN FETCH d.sale s
+            JOIN FETCH s.client
+            JOIN FETCH s.user u
+            JOIN FETCH u.role
+            JOIN FETCH d.product p
+            JOIN FETCH p.category
+            ORDER BY s.idSale, d.idSaleDetail""")
+    Stream<SaleDetail> streamAllDetails();
+
+    // Carga de la analítica en memoria: solo las columnas que usa, sin entidades ni JOIN a product/user
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new com.alonso.salesapp.dto.analytics.SaleLineRow(s.dateTime, d.product.idProduct, s.user.idUser,
+                   d.quantity, d.salePrice, d.discount)
+            FROM SaleDetail d
+            JOIN d.sale s""")
+    Stream<SaleLineRow> streamAllLines();
 }
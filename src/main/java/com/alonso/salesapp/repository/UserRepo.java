@@ -1,12 +1,41 @@
 package com.alonso.salesapp.repository;
 
+import com.alonso.salesapp.dto.user.UserDTO;
 import com.alonso.salesapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepo extends JpaRepository<User, Integer> {
     Optional<User> findByUsername(String username);
+
+    // u.role.idRole se resuelve con la FK de user_data, sin JOIN ni cargar el rol
+    @Query("SELECT new com.alonso.salesapp.dto.user.UserDTO(u.idUser, u.role.idRole, u.username, u.password, u.enabled) " +
+            "FROM User u ORDER BY u.idUser")
+    List<UserDTO> findAllAsDTO();
+
+    // Versión de token de todos los usuarios, sin cargar entidades (ver TokenVersionRegistry)
+    @Query("SELECT u.idUser AS idUser, u.tokenVersion AS tokenVersion, u.enabled AS enabled FROM User u")
+    List<TokenVersionView> findAllTokenVersions();
+
+    // Revoca los access tokens de todos los usuarios de un rol (cambio de nombre o baja del rol)
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.role.idRole = :idRole")
+    int bumpTokenVersionByRole(@Param("idRole") Integer idRole);
+
+    interface TokenVersionView {
+        Integer getIdUser();
+
+        int getTokenVersion();
+
+        boolean isEnabled();
+    }
 }
@@ -10,14 +10,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -25,7 +25,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersions;
 
     @Override
     protected void doFilterInternal(
@@ -36,7 +36,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
+        final VerifiedToken token;
 
         // Si no hay header o no empieza con Bearer, continuar con el filtro
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -45,24 +45,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            // Extraer el token
+            // Extraer el token y verificarlo una sola vez (firma + expiración)
             jwt = authHeader.substring(7);
-            username = jwtService.extractUsername(jwt);
+            token = jwtService.verify(jwt);
 
             // Si hay username y no hay autenticación previa en el contexto
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (token.subject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UsernamePasswordAuthenticationToken authToken = fromClaims(token);
 
-                // Validar el token
-                if (jwtService.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
+                if (authToken != null) {
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    log.debug("User '{}' authenticated successfully", username);
+                    log.debug("User '{}' authenticated successfully", token.subject());
                 }
             }
         } catch (InvalidTokenException e) {
@@ -75,5 +69,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Autorización sin BD: el rol viene firmado en el token; solo se comprueba que su versión siga vigente.
+    // Un token sin esos claims (el refresh token) no sirve como credencial: solo se canjea en /auth/refresh.
+    private UsernamePasswordAuthenticationToken fromClaims(VerifiedToken token) {
+        if (!token.hasAuthorizationClaims()) {
+            log.debug("Token without authorization claims rejected for user '{}'", token.subject());
+            return null;
+        }
+        if (!tokenVersions.isCurrent(token.idUser(), token.version())) {
+            log.debug("Revoked token version {} for user '{}'", token.version(), token.subject());
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(
+                token.subject(),
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + token.role()))
+        );
+    }
 }
 
@@ -0,0 +1,60 @@
+package com.alonso.salesapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Caché de usuarios autenticados (username → UserDetails) delante de CustomUserDetailsService.
+ * <p>
+ * Acotada por tamaño y con expiración por escritura. UserServiceImpl y RoleServiceImpl la invalidan
+ * al modificar usuarios o roles, así que el TTL solo cubre cambios hechos por fuera de la aplicación.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, UserDetails> cache;
+
+    public PrincipalCache(@Value("${security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${security.principal-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // Si el loader lanza excepción (usuario no encontrado) no se guarda nada
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return cache.get(username, loader);
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Scheduled(fixedDelayString = "${security.principal-cache.stats-interval-ms:300000}")
+    public void logStats() {
+        CacheStats stats = stats();
+        log.info("Principal cache: size={}, hits={}, misses={}, hitRate={}, evictions={}",
+                cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                "%.2f".formatted(stats.hitRate()), stats.evictionCount());
+    }
+}
@@ -0,0 +1,72 @@
+package com.alonso.salesapp.security;
+
+import com.alonso.salesapp.model.User;
+import com.alonso.salesapp.repository.UserRepo;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versión de token vigente por usuario, en memoria. Un access token solo es válido si su claim "ver"
+ * coincide con la versión actual; los usuarios deshabilitados no tienen ninguna versión válida.
+ * <p>
+ * UserServiceImpl la actualiza al momento; el refresco periódico desde user_data recoge cambios
+ * hechos por otras instancias o directamente en la BD. Las versiones solo avanzan: tanto el refresco
+ * como las actualizaciones se combinan quedándose con la más reciente, así una lectura de user_data
+ * anterior a una revocación no la deshace.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenVersionRegistry {
+
+    private static final State MISSING = new State(-1, false);
+
+    private final UserRepo userRepo;
+
+    private final Map<Integer, State> versions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${security.token-version.refresh-ms:30000}",
+            initialDelayString = "${security.token-version.refresh-ms:30000}")
+    public void refresh() {
+        userRepo.findAllTokenVersions().forEach(view -> versions.merge(view.getIdUser(),
+                new State(view.getTokenVersion(), view.isEnabled()), State::newest));
+        log.debug("Token versions refreshed for {} user(s)", versions.size());
+    }
+
+    public boolean isCurrent(Integer idUser, Integer version) {
+        State current = versions.get(idUser);
+        if (current == null) {
+            // Usuario aún no conocido (creado en otra instancia): se consulta una vez (fuera del mapa)
+            // y queda en memoria
+            State loaded = userRepo.findById(idUser).map(State::of).orElse(MISSING);
+            current = versions.merge(idUser, loaded, State::newest);
+        }
+        return current.enabled() && current.version() == version;
+    }
+
+    public void update(User user) {
+        versions.merge(user.getIdUser(), State.of(user), State::newest);
+    }
+
+    private record State(int version, boolean enabled) {
+
+        static State of(User user) {
+            return new State(user.getTokenVersion(), user.isEnabled());
+        }
+
+        // Gana la versión más alta; con la misma versión, deshabilitado (ante la duda, se revoca)
+        State newest(State other) {
+            if (version != other.version) {
+                return version > other.version ? this : other;
+            }
+            return enabled ? other : this;
+        }
+    }
+}
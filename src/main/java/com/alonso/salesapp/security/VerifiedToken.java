@@ -0,0 +1,18 @@
+package com.alonso.salesapp.security;
+
+import java.time.Instant;
+
+// Resultado inmutable de verificar un JWT una sola vez (firma + expiración)
+public record VerifiedToken(
+        String subject,
+        Instant expiresAt,
+        String role,        // null en tokens emitidos sin claims (refresh o anteriores)
+        Integer idUser,
+        Integer version
+) {
+
+    // Access token con todo lo necesario para autorizar sin consultar la BD
+    public boolean hasAuthorizationClaims() {
+        return role != null && idUser != null && version != null;
+    }
+}
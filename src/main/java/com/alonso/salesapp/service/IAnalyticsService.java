@@ -0,0 +1,29 @@
+package com.alonso.salesapp.service;
+
+import com.alonso.salesapp.dto.analytics.CashierSalesDTO;
+import com.alonso.salesapp.dto.analytics.LineGroupDTO;
+import com.alonso.salesapp.dto.analytics.ProductMarginDTO;
+import com.alonso.salesapp.dto.analytics.RevenuePeriodDTO;
+import com.alonso.salesapp.dto.analytics.TicketStatsDTO;
+import com.alonso.salesapp.dto.analytics.TopProductDTO;
+import com.alonso.salesapp.model.AnalyticsPeriod;
+import com.alonso.salesapp.model.LineGroupBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface IAnalyticsService {
+
+    List<TopProductDTO> topProducts(LocalDateTime from, LocalDateTime to, int limit);
+
+    List<RevenuePeriodDTO> revenueByPeriod(LocalDateTime from, LocalDateTime to, AnalyticsPeriod period);
+
+    TicketStatsDTO ticketStats(LocalDateTime from, LocalDateTime to);
+
+    List<CashierSalesDTO> salesByCashier(LocalDateTime from, LocalDateTime to);
+
+    List<ProductMarginDTO> marginByProduct(LocalDateTime from, LocalDateTime to);
+
+    List<LineGroupDTO> lineTotals(LocalDate from, LocalDate to, Integer idProduct, Integer idUser, LineGroupBy groupBy);
+}
@@ -1,10 +1,9 @@
 package com.alonso.salesapp.service;
 
-import org.springframework.web.multipart.MultipartFile;
-
+import java.nio.file.Path;
 import java.util.Map;
 
 public interface ICloudinaryService {
-    Map upload(MultipartFile multipartFile);
+    Map upload(Path file);
     Map delete(String id);
 }
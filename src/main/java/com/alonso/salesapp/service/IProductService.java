@@ -11,6 +11,7 @@ public interface IProductService {
     ProductResponseDTO create(ProductRequestDTO dto, MultipartFile file);
     ProductResponseDTO update(Integer id, ProductRequestDTO dto, MultipartFile file);
     Page<ProductResponseDTO> readAllWithPagination(int page, int size);
+    Page<ProductResponseDTO> search(String query, int page, int size);
     ProductResponseDTO readById(Integer id);
     void delete(Integer id);
 }
@@ -1,15 +1,28 @@
 package com.alonso.salesapp.service;
 
+import com.alonso.salesapp.dto.sale.DailySalesDTO;
+import com.alonso.salesapp.dto.sale.SaleBatchResponseDTO;
 import com.alonso.salesapp.dto.sale.SaleDTO;
+import com.alonso.salesapp.dto.sale.SaleFilterDTO;
+import com.alonso.salesapp.dto.sale.SalePageDTO;
 import com.alonso.salesapp.dto.sale.SaleResponseDTO;
+import com.alonso.salesapp.model.ExportFormat;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 public interface ISaleService {
 
     SaleResponseDTO create(SaleDTO dto);
 
+    SaleBatchResponseDTO createBatch(List<SaleDTO> dtos);
+
     SaleResponseDTO readById(Integer idSale);
 
-    List<SaleResponseDTO> readAll();
+    SalePageDTO readPage(SaleFilterDTO filter, int size);
+
+    void export(ExportFormat format, OutputStream out);
+
+    List<DailySalesDTO> readDailySummary(LocalDate from, LocalDate to, Integer idCategory, Integer idUser);
 }
\ No newline at end of file
@@ -2,7 +2,9 @@ package com.alonso.salesapp.service;
 
 import com.alonso.salesapp.dto.ingress.IngressRequestDTO;
 import com.alonso.salesapp.dto.ingress.IngressResponseDTO;
+import com.alonso.salesapp.model.ExportFormat;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface IngressService {
@@ -12,4 +14,6 @@ public interface IngressService {
     IngressResponseDTO readById(Integer idIngress);
 
     IngressResponseDTO create(IngressRequestDTO dto);
+
+    void export(ExportFormat format, OutputStream out);
 }
@@ -0,0 +1,78 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.dto.analytics.CashierSalesDTO;
+import com.alonso.salesapp.dto.analytics.LineGroupDTO;
+import com.alonso.salesapp.dto.analytics.ProductMarginDTO;
+import com.alonso.salesapp.dto.analytics.RevenuePeriodDTO;
+import com.alonso.salesapp.dto.analytics.TicketStatsDTO;
+import com.alonso.salesapp.dto.analytics.TopProductDTO;
+import com.alonso.salesapp.exception.InvalidRequestException;
+import com.alonso.salesapp.model.AnalyticsPeriod;
+import com.alonso.salesapp.model.LineGroupBy;
+import com.alonso.salesapp.repository.AnalyticsRepo;
+import com.alonso.salesapp.service.IAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AnalyticsServiceImpl implements IAnalyticsService {
+
+    private static final int MAX_TOP_PRODUCTS = 100;
+
+    private final AnalyticsRepo repo;
+    private final SaleLineColumnStore columnStore;
+
+    @Override
+    public List<TopProductDTO> topProducts(LocalDateTime from, LocalDateTime to, int limit) {
+        checkRange(from, to);
+        return repo.findTopProducts(from, to, Math.clamp(limit, 1, MAX_TOP_PRODUCTS));
+    }
+
+    @Override
+    public List<RevenuePeriodDTO> revenueByPeriod(LocalDateTime from, LocalDateTime to, AnalyticsPeriod period) {
+        checkRange(from, to);
+        return repo.findRevenueByPeriod(from, to, period.sqlUnit());
+    }
+
+    @Override
+    public TicketStatsDTO ticketStats(LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        return repo.findTicketStats(from, to);
+    }
+
+    @Override
+    public List<CashierSalesDTO> salesByCashier(LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        return repo.findSalesByCashier(from, to);
+    }
+
+    @Override
+    public List<ProductMarginDTO> marginByProduct(LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        return repo.findMarginByProduct(from, to);
+    }
+
+    @Override
+    public List<LineGroupDTO> lineTotals(LocalDate from, LocalDate to, Integer idProduct, Integer idUser,
+                                         LineGroupBy groupBy) {
+        if (!columnStore.isEnabled()) {
+            throw new InvalidRequestException("La analítica en memoria no está habilitada (analytics.columnar.enabled)");
+        }
+        checkRange(from.atStartOfDay(), to.atStartOfDay());
+        return columnStore.aggregate(from, to, idProduct, idUser, groupBy);
+    }
+
+    // Rango [from, to): to es exclusivo
+    private void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("Rango de fechas no válido: from debe ser anterior a to");
+        }
+    }
+}
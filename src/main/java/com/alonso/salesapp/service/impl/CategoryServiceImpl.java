@@ -35,10 +35,7 @@ public class CategoryServiceImpl implements ICategoryService {
 
     @Override
     public List<CategoryDTO> readAll() {
-        return repo.findAll()
-                .stream()
-                .map(mapper::toDTO)
-                .toList();
+        return repo.findAllAsDTO();
     }
 
     @Override
@@ -33,7 +33,7 @@ public class ClientServiceImpl implements IClientService {
 
     @Override
     public List<ClientDTO> readAll() {
-        return repo.findAll().stream().map(mapper::toDTO).toList();
+        return repo.findAllAsDTO();
     }
 
     @Override
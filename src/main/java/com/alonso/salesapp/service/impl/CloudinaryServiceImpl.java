@@ -5,16 +5,15 @@ import com.alonso.salesapp.service.ICloudinaryService;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 
 @Service
+@ConditionalOnProperty(name = "image.storage", havingValue = "cloudinary", matchIfMissing = true)
 public class CloudinaryServiceImpl implements ICloudinaryService {
 
     private final Cloudinary cloudinary;
@@ -24,19 +23,11 @@ public class CloudinaryServiceImpl implements ICloudinaryService {
     }
 
     @Override
-    public Map upload(MultipartFile multipartFile) {
-        File file = null;
+    public Map upload(Path file) {
         try {
-            file = convert(multipartFile);
-            return cloudinary.uploader().upload(file, ObjectUtils.emptyMap());
+            return cloudinary.uploader().upload(file.toFile(), ObjectUtils.emptyMap());
         } catch (IOException e) {
             throw new CloudinaryException("Error al subir imagen a Cloudinary", e);
-        } finally {
-            if (file != null) {
-                try {
-                    Files.deleteIfExists(file.toPath());
-                } catch (IOException ignored) {}
-            }
         }
     }
 
@@ -48,12 +39,4 @@ public class CloudinaryServiceImpl implements ICloudinaryService {
             throw new CloudinaryException("Error al eliminar imagen de Cloudinary", e);
         }
     }
-
-    private File convert(MultipartFile multipartFile) throws IOException {
-        File file = Files.createTempFile("upload_", "_" + multipartFile.getOriginalFilename()).toFile();
-        try (FileOutputStream fos = new FileOutputStream(file)) {
-            fos.write(multipartFile.getBytes());
-        }
-        return file;
-    }
 }
@@ -1,6 +1,7 @@
 package com.alonso.salesapp.service.impl;
 
 import com.alonso.salesapp.repository.UserRepo;
+import com.alonso.salesapp.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -12,11 +13,13 @@ import org.springframework.stereotype.Service;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepo userRepo;
+    private final PrincipalCache principalCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepo.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        // Solo va a la BD la primera vez (o tras invalidar / expirar)
+        return principalCache.get(username, key -> userRepo.findByUsername(key)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + key)));
     }
 }
 
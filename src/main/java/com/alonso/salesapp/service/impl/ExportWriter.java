@@ -0,0 +1,69 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.model.ExportFormat;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+// Escribe las filas de una exportación directamente en la respuesta, sin acumularlas en memoria
+class ExportWriter {
+
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+    private final ExportFormat format;
+
+    ExportWriter(OutputStream out, ObjectMapper objectMapper, ExportFormat format) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+        this.format = format;
+    }
+
+    boolean isCsv() {
+        return format == ExportFormat.CSV;
+    }
+
+    void json(Object value) {
+        line(objectMapper.writeValueAsString(value));
+    }
+
+    void csv(Object... values) {
+        line(Arrays.stream(values).map(ExportWriter::csvValue).collect(Collectors.joining(",")));
+    }
+
+    void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write export", e);
+        }
+    }
+
+    private void line(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write export", e);
+        }
+    }
+
+    // Comillas solo cuando hacen falta (comas, comillas o saltos de línea en el texto)
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,145 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.exception.IdempotencyKeyReusedException;
+import com.alonso.salesapp.exception.InvalidRequestException;
+import com.alonso.salesapp.exception.ModelNotFoundException;
+import com.alonso.salesapp.model.IdempotencyRecord;
+import com.alonso.salesapp.repository.IdempotencyRecordRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicación de POST reintentados por los clientes (cabecera Idempotency-Key).
+ * <p>
+ * La primera petición reserva la clave con un INSERT sobre la clave primaria y guarda la respuesta en
+ * la misma transacción que crea la venta o el ingreso: si esta hace rollback, la clave queda libre.
+ * Los reintentos devuelven la respuesta guardada sin volver a ejecutar la operación (ni bloquear stock).
+ * Delante de la tabla hay una caché LRU con las respuestas recientes; las claves caducan tras el TTL.
+ * <p>
+ * Las claves son propias de cada usuario autenticado, y cada una recuerda el hash del cuerpo con el que
+ * se usó: repetirla con otro cuerpo es un error del cliente (422), no un reintento.
+ */
+@Slf4j
+@Service
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepo repo;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Cache<String, Stored> recent;
+
+    public IdempotencyStore(IdempotencyRecordRepo repo,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${idempotency.ttl:24h}") Duration ttl,
+                            @Value("${idempotency.cache.max-size:10000}") long maxSize) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por usuario, clave y ámbito ("sale", "ingress"). Sin clave se
+     * ejecuta siempre. La operación se une a la transacción abierta aquí (@Transactional de los servicios).
+     * {@code request} es el cuerpo recibido: se compara con el de la primera petición con esa clave.
+     */
+    public <T> T execute(String scope, String key, Object request, Class<T> type, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException(HEADER + " no válida: máximo " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        String requestKey = scope + ":" + currentUser() + ":" + key;
+        String requestHash = fingerprint(request);
+        Stored cached = recent.getIfPresent(requestKey);
+        if (cached != null) {
+            checkSameRequest(key, cached.requestHash(), requestHash);
+            return type.cast(cached.response());
+        }
+
+        T created = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (repo.claim(requestKey, requestHash, now, now.plus(ttl)) == 0) {
+                return null;
+            }
+            T result = action.get();
+            repo.complete(requestKey, objectMapper.writeValueAsString(result));
+            return result;
+        });
+
+        T response = created != null ? created : replay(key, requestKey, requestHash, type);
+        recent.put(requestKey, new Stored(requestHash, response));
+        return response;
+    }
+
+    // La clave ya estaba confirmada: se devuelve la respuesta de la primera petición si el cuerpo es el mismo
+    private <T> T replay(String key, String requestKey, String requestHash, Class<T> type) {
+        IdempotencyRecord record = repo.findById(requestKey)
+                .orElseThrow(() -> new ModelNotFoundException("Idempotency record not found: " + requestKey));
+        checkSameRequest(key, record.getRequestHash(), requestHash);
+        log.info("Replaying stored response for {}", requestKey);
+        return objectMapper.readValue(record.getResponse(), type);
+    }
+
+    private static void checkSameRequest(String key, String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(HEADER + " " + key + " ya se usó con otra petición");
+        }
+    }
+
+    String fingerprint(Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    // Codificado: un ':' en el nombre de usuario no puede hacer coincidir claves de usuarios distintos
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String user = authentication != null && authentication.isAuthenticated() ? authentication.getName() : "";
+        return URLEncoder.encode(user, StandardCharsets.UTF_8);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status -> repo.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("Idempotency keys purged: {}", deleted);
+        }
+    }
+
+    private record Stored(String requestHash, Object response) {
+    }
+}
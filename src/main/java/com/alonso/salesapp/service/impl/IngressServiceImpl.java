@@ -7,13 +7,25 @@ import com.alonso.salesapp.mapper.IngressMapper;
 import com.alonso.salesapp.model.*;
 import com.alonso.salesapp.repository.*;
 import com.alonso.salesapp.service.IngressService;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -21,11 +33,16 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class IngressServiceImpl implements IngressService {
 
+    private static final int EXPORT_CLEAR_EVERY = 500;
+
     private final IngressRepo repo;
     private final IngressMapper mapper;
     private final ProviderRepo providerRepo;
     private final UserRepo userRepo;
     private final ProductRepo productRepo;
+    private final InventoryLedger ledger;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     @Override
     public List<IngressResponseDTO> readAll() {
@@ -33,6 +50,40 @@ public class IngressServiceImpl implements IngressService {
         return mapper.toResponseDTOList(ingresses);
     }
 
+    @Override
+    public void export(ExportFormat format, OutputStream out) {
+        ExportWriter writer = new ExportWriter(out, objectMapper, format);
+        if (writer.isCsv()) {
+            writer.csv("idIngress", "dateTime", "serialNumber", "idProvider", "provider", "user", "idProduct",
+                    "product", "quantity", "cost", "tax", "total");
+        }
+
+        List<IngressDetail> lines = new ArrayList<>();
+        int rows = 0;
+        try (Stream<IngressDetail> stream = repo.streamAllDetails()) {
+            for (IngressDetail line : (Iterable<IngressDetail>) stream::iterator) {
+                // Las líneas llegan ordenadas por ingreso: al cambiar de ingreso se escribe el anterior
+                if (!lines.isEmpty()
+                        && !lines.getFirst().getIngress().getIdIngress().equals(line.getIngress().getIdIngress())) {
+                    writeIngress(writer, lines);
+                    lines = new ArrayList<>();
+                }
+                lines.add(line);
+
+                // Lo ya leído no se vuelve a consultar: se suelta del contexto de persistencia
+                if (++rows % EXPORT_CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        if (!lines.isEmpty()) {
+            writeIngress(writer, lines);
+        }
+        writer.flush();
+
+        log.info("Ingress export finished: {} line(s) as {}", rows, format);
+    }
+
     @Override
     public IngressResponseDTO readById(Integer idIngress) {
         Ingress ingress = repo.findById(idIngress)
@@ -69,16 +120,16 @@ public class IngressServiceImpl implements IngressService {
         }
 
         // Calcular tax si no viene (18%) y Calcular total
-        double calculatedSubTotal = ingress.getDetails().stream()
-                .mapToDouble(detail -> detail.getQuantity() * detail.getCost())
-                .sum();
+        Money calculatedSubTotal = Money.ofCents(ingress.getDetails().stream()
+                .mapToLong(detail -> Money.lineCents(detail.getQuantity(), detail.getCost(), Money.ZERO))
+                .sum());
 
-        double tax = dto.tax() != null && dto.tax() > 0
-                ? dto.tax()
-                : calculatedSubTotal * 0.18;
+        Money tax = dto.tax() != null && dto.tax() > 0
+                ? Money.of(dto.tax())
+                : calculatedSubTotal.percent(18);
 
         ingress.setTax(tax);
-        ingress.setTotal(calculatedSubTotal + tax); // Total sin tax
+        ingress.setTotal(calculatedSubTotal.plus(tax)); // Total sin tax
 
         //Cargar productos completos para cada detalle
         loadProductsForDetails(ingress);
@@ -90,18 +141,74 @@ public class IngressServiceImpl implements IngressService {
         return mapper.toResponseDTO(ingressSaved);
     }
 
+    private void writeIngress(ExportWriter writer, List<IngressDetail> lines) {
+        Ingress ingress = lines.getFirst().getIngress();
+        if (!writer.isCsv()) {
+            writer.json(mapper.toResponseDTO(ingress, lines));
+            return;
+        }
+
+        Provider provider = ingress.getProvider();
+        lines.forEach(line -> writer.csv(ingress.getIdIngress(), ingress.getDateTime(), ingress.getSerialNumber(),
+                provider.getIdProvider(), provider.getName(), ingress.getUser().getUsername(),
+                line.getProduct().getIdProduct(), line.getProduct().getName(), line.getQuantity(),
+                line.getCost(), ingress.getTax(), ingress.getTotal()));
+    }
+
     private void loadProductsForDetails(Ingress ingress) {
-        ingress.getDetails().forEach(detail -> {
-            Product product = productRepo.findByIdLocked(detail.getProduct().getIdProduct())
-                    .orElseThrow(() -> new ModelNotFoundException(
-                            "Product not found with id: " + detail.getProduct().getIdProduct()));
+        // Un solo SELECT ... FOR UPDATE con ids ordenados y sin repetir (mismo orden que las ventas).
+        // También con el ledger activo: el coste medio se calcula sobre la fila y no puede perder
+        // actualizaciones (el stock, en ese modo, se suma en memoria al confirmar).
+        Set<Integer> ids = ingress.getDetails().stream()
+                .map(detail -> detail.getProduct().getIdProduct())
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        Map<Integer, Product> products = productRepo.findAllByIdLocked(ids).stream()
+                .collect(Collectors.toMap(Product::getIdProduct, Function.identity()));
+        Map<Integer, Integer> restock = new TreeMap<>();
+        // Existencias de cada producto a medida que se aplican las líneas (un producto puede repetirse)
+        Map<Integer, Integer> onHand = new HashMap<>();
 
-            // SUMA: Actualizamos el stock en memoria
-            int newStock = product.getStock() + detail.getQuantity();
-            product.setStock(newStock);
+        ingress.getDetails().forEach(detail -> {
+            Product product = products.get(detail.getProduct().getIdProduct());
+            if (product == null) {
+                throw new ModelNotFoundException(
+                        "Product not found with id: " + detail.getProduct().getIdProduct());
+            }
+
+            int stockBefore = onHand.computeIfAbsent(product.getIdProduct(), id -> currentStock(product));
+            product.setAverageCost(movingAverageCost(product.getAverageCost(), stockBefore,
+                    detail.getQuantity(), detail.getCost().toDouble()));
+            onHand.put(product.getIdProduct(), stockBefore + detail.getQuantity());
+
+            if (ledger.isEnabled()) {
+                restock.merge(product.getIdProduct(), (int) detail.getQuantity(), Integer::sum);
+            } else {
+                // SUMA: Actualizamos el stock en memoria
+                int newStock = product.getStock() + detail.getQuantity();
+                product.setStock(newStock);
+            }
 
             detail.setProduct(product);
             detail.setIngress(ingress);
         });
+
+        if (!restock.isEmpty()) {
+            ledger.restockAfterCommit(restock);
+        }
+    }
+
+    private int currentStock(Product product) {
+        Integer available = ledger.isEnabled() ? ledger.availableStock(product.getIdProduct()) : null;
+        return available != null ? available : product.getStock();
+    }
+
+    // Coste medio ponderado: (existencias * coste medio + cantidad * coste) / (existencias + cantidad).
+    // Sin existencias el coste anterior ya no pesa y vale el de la compra.
+    static double movingAverageCost(double averageCost, int stock, int quantity, double cost) {
+        if (stock <= 0) {
+            return cost;
+        }
+        return (stock * averageCost + quantity * cost) / (stock + quantity);
     }
 }
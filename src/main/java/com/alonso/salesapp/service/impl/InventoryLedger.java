@@ -0,0 +1,419 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.model.Product;
+import com.alonso.salesapp.model.StockMode;
+import com.alonso.salesapp.repository.InventoryMovementRepo;
+import com.alonso.salesapp.repository.ProductRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ledger de inventario en memoria (sales.stock.mode=LEDGER).
+ * <p>
+ * Las reservas se conceden con CAS sobre un contador por producto, sin tocar la fila de product.
+ * Cada movimiento se anota en un journal (archivo) con su número de secuencia dentro de la transacción
+ * de la venta o el ingreso, que además inserta una marca (InventoryMovement) con ese número. Los deltas
+ * netos se escriben en la tabla product por lotes periódicos y las marcas del lote se borran en la misma
+ * transacción. Al arrancar se reaplica del journal solo lo que tiene marca: lo confirmado y no volcado.
+ * Una venta que no llegó a confirmarse o un lote ya volcado no se aplican dos veces. La línea del journal
+ * se fuerza a disco antes de insertar la marca: una marca confirmada siempre tiene su movimiento.
+ * <p>
+ * Solo es válido con una única instancia de la aplicación escribiendo stock.
+ */
+@Slf4j
+@Service
+public class InventoryLedger {
+
+    private static final int IN_CHUNK = 1000;
+
+    private final ProductRepo productRepo;
+    private final InventoryMovementRepo movementRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path journalPath;
+    private final Path flushingPath;
+
+    // Stock disponible por producto: fuente de verdad mientras el ledger está activo
+    private final ConcurrentMap<Integer, AtomicInteger> available = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Movimientos confirmados aún no escritos en la tabla product (protegido por journalLock)
+    private Batch pending = new Batch();
+    // Movimientos anotados cuya transacción aún no terminó: se copian al journal nuevo al rotar
+    private final Map<Long, Map<Integer, Integer>> inFlight = new HashMap<>();
+    // ReentrantLock y no synchronized: con virtual threads, esperar o escribir el journal no fija el carrier
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private FileChannel journal;
+
+    // Lote ya rotado cuyo UPDATE falló: se reintenta antes de rotar otro
+    private Batch failedBatch;
+
+    public InventoryLedger(ProductRepo productRepo,
+                           InventoryMovementRepo movementRepo,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${sales.stock.mode:LOCKING}") StockMode stockMode,
+                           @Value("${inventory.ledger.journal:data/inventory-ledger.journal}") String journal) {
+        this.productRepo = productRepo;
+        this.movementRepo = movementRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = stockMode == StockMode.LEDGER;
+        this.journalPath = Path.of(journal);
+        this.flushingPath = Path.of(journal + ".flushing");
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (journalPath.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(journalPath.toAbsolutePath().getParent());
+        }
+        recover();
+        journal = openJournal();
+        log.info("Inventory ledger enabled, journal: {}", journalPath.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        journalLock.lock();
+        try {
+            journal.close();
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Stock según el ledger, o null si el producto aún no se ha cargado (la BD está al día)
+    public Integer availableStock(Integer idProduct) {
+        AtomicInteger counter = available.get(idProduct);
+        return counter == null ? null : counter.get();
+    }
+
+    /**
+     * Reserva todas las cantidades o ninguna. Si la transacción actual hace rollback,
+     * la reserva se devuelve automáticamente.
+     *
+     * @return el id del primer producto sin stock suficiente, o vacío si se reservó todo
+     */
+    public Optional<Integer> reserve(Map<Integer, Integer> quantities) {
+        Map<Integer, Integer> granted = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            if (!tryDecrement(entry.getKey(), entry.getValue())) {
+                credit(granted);
+                return Optional.of(entry.getKey());
+            }
+            granted.put(entry.getKey(), entry.getValue());
+        }
+
+        // Se anota dentro de la transacción: tras una caída solo se aplica si la venta llegó a confirmarse
+        journal(negate(quantities), () -> {}, () -> credit(quantities));
+        return Optional.empty();
+    }
+
+    // Suma stock (ingresos): se anota dentro de la transacción y se suma al ledger cuando confirma
+    public void restockAfterCommit(Map<Integer, Integer> quantities) {
+        // El stock inicial se carga antes de anotar: si el contador se creara en credit(), un volcado entre
+        // el commit y credit() ya habría sumado el ingreso a product.stock y se contaría dos veces
+        quantities.keySet().forEach(this::counter);
+        journal(new TreeMap<>(quantities), () -> credit(quantities), () -> {});
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushPending() {
+        Batch batch;
+        journalLock.lock();
+        try {
+            if (failedBatch != null) {
+                batch = failedBatch;
+            } else {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                rotateJournal();
+                pending = new Batch();
+            }
+        } finally {
+            journalLock.unlock();
+        }
+
+        try {
+            apply(batch);
+            // Si el proceso cae antes de borrarlo, sus movimientos ya no tienen marca y no se reaplican
+            Files.deleteIfExists(flushingPath);
+            failedBatch = null;
+            log.debug("Inventory ledger flushed {} movement(s) over {} product(s)",
+                    batch.movements().size(), batch.deltas().size());
+        } catch (RuntimeException | IOException e) {
+            log.error("Inventory ledger flush failed, will retry: {}", e.getMessage());
+            failedBatch = batch;
+        }
+    }
+
+    private boolean tryDecrement(Integer idProduct, int quantity) {
+        AtomicInteger counter = counter(idProduct);
+        int current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    // Suma al stock del ledger: reserva devuelta o ingreso confirmado
+    private void credit(Map<Integer, Integer> quantities) {
+        quantities.forEach((id, quantity) -> counter(id).addAndGet(quantity));
+    }
+
+    // El stock inicial se lee fuera de computeIfAbsent: una consulta dentro bloquearía esa parte del mapa
+    private AtomicInteger counter(Integer idProduct) {
+        AtomicInteger counter = available.get(idProduct);
+        if (counter != null) {
+            return counter;
+        }
+        int stock = productRepo.findById(idProduct).map(Product::getStock).orElse(0);
+        return available.computeIfAbsent(idProduct, id -> new AtomicInteger(stock));
+    }
+
+    /**
+     * Anota el movimiento en el journal y su marca en la transacción actual. Al terminar la transacción
+     * pasa a pendiente de volcar (commit) o se descarta (rollback); en ambos casos el journal ya no lo
+     * necesita, porque la marca decide si se aplica.
+     */
+    private void journal(Map<Integer, Integer> deltas, Runnable onCommit, Runnable onRollback) {
+        long seq = sequence.incrementAndGet();
+        journalLock.lock();
+        try {
+            writeMovement(seq, deltas);
+            // fsync antes de la marca: sin él, la marca podría confirmar con la línea aún en la caché del SO
+            journal.force(false);
+            inFlight.put(seq, deltas);
+        } catch (IOException e) {
+            onRollback.run();
+            throw new UncheckedIOException("Cannot write inventory journal", e);
+        } finally {
+            journalLock.unlock();
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> movementRepo.insert(seq));
+            } catch (RuntimeException e) {
+                complete(seq, false);
+                onRollback.run();
+                throw e;
+            }
+            complete(seq, true);
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                complete(seq, committed);
+                (committed ? onCommit : onRollback).run();
+            }
+        });
+        // Misma transacción que la venta o el ingreso: la marca existe solo si confirman
+        movementRepo.insert(seq);
+    }
+
+    private void complete(long seq, boolean committed) {
+        journalLock.lock();
+        try {
+            Map<Integer, Integer> deltas = inFlight.remove(seq);
+            if (committed && deltas != null) {
+                pending.add(seq, deltas);
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void writeMovement(long seq, Map<Integer, Integer> deltas) throws IOException {
+        StringBuilder line = new StringBuilder().append(seq).append(';');
+        deltas.forEach((id, delta) -> line.append(id).append('=').append(delta).append(','));
+        line.setCharAt(line.length() - 1, '\n');
+        ByteBuffer buffer = ByteBuffer.wrap(line.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+    }
+
+    // Deltas y borrado de marcas en una sola transacción: el lote se aplica entero o nada
+    private void apply(Batch batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            batch.deltas().forEach((id, delta) -> {
+                if (delta != 0) {
+                    productRepo.adjustStock(id, delta);
+                }
+            });
+            chunks(batch.movements()).forEach(movementRepo::deleteBySeqIn);
+        });
+    }
+
+    // Solo se aplican los movimientos del journal que conservan su marca (confirmados y no volcados)
+    private void recover() throws IOException {
+        TreeMap<Long, Map<Integer, Integer>> movements = new TreeMap<>();
+        readJournal(flushingPath, movements);
+        readJournal(journalPath, movements);
+
+        Long last = transactionTemplate.execute(status -> {
+            Batch batch = new Batch();
+            chunks(movements.keySet()).stream()
+                    .flatMap(seqs -> movementRepo.findExisting(seqs).stream())
+                    .sorted()
+                    .forEach(seq -> batch.add(seq, movements.get(seq)));
+            if (!batch.isEmpty()) {
+                log.warn("Replaying inventory journal: {} committed movement(s) over {} product(s), {} discarded",
+                        batch.movements().size(), batch.deltas().size(), movements.size() - batch.movements().size());
+            }
+            batch.deltas().forEach((id, delta) -> {
+                if (delta != 0) {
+                    productRepo.adjustStock(id, delta);
+                }
+            });
+            chunks(batch.movements()).forEach(movementRepo::deleteBySeqIn);
+
+            // Marcas sin línea en el journal: no se pueden reconstruir sus deltas
+            long max = movementRepo.maxSeq();
+            long orphans = movementRepo.count();
+            if (orphans > 0) {
+                log.error("Inventory ledger found {} committed movement(s) missing from the journal", orphans);
+                movementRepo.deleteAllInBatch();
+            }
+            return Math.max(max, movements.isEmpty() ? 0 : movements.lastKey());
+        });
+        sequence.set(last == null ? 0 : last);
+
+        Files.deleteIfExists(flushingPath);
+        Files.deleteIfExists(journalPath);
+    }
+
+    private void readJournal(Path path, Map<Long, Map<Integer, Integer>> movements) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            try {
+                String[] parts = line.split(";");
+                Map<Integer, Integer> deltas = new TreeMap<>();
+                for (String entry : parts[1].split(",")) {
+                    String[] delta = entry.split("=");
+                    deltas.put(Integer.valueOf(delta[0]), Integer.valueOf(delta[1]));
+                }
+                movements.putIfAbsent(Long.valueOf(parts[0]), deltas);
+            } catch (RuntimeException e) {
+                // Línea incompleta por una caída a mitad de escritura: su transacción no llegó a confirmar
+            }
+        }
+    }
+
+    // El journal nuevo empieza con los movimientos aún en curso: el rotado se borra tras el volcado
+    private void rotateJournal() {
+        try {
+            journal.close();
+            Files.move(journalPath, flushingPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal = openJournal();
+            for (Map.Entry<Long, Map<Integer, Integer>> movement : inFlight.entrySet()) {
+                writeMovement(movement.getKey(), movement.getValue());
+            }
+            journal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rotate inventory journal", e);
+        }
+    }
+
+    private FileChannel openJournal() throws IOException {
+        return FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private static List<List<Long>> chunks(Collection<Long> seqs) {
+        List<Long> all = new ArrayList<>(seqs);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IN_CHUNK) {
+            chunks.add(all.subList(from, Math.min(all.size(), from + IN_CHUNK)));
+        }
+        return chunks;
+    }
+
+    private static Map<Integer, Integer> negate(Map<Integer, Integer> quantities) {
+        Map<Integer, Integer> deltas = new TreeMap<>();
+        quantities.forEach((id, quantity) -> deltas.put(id, -quantity));
+        return deltas;
+    }
+
+    // Lote a volcar: delta neto por producto y los movimientos que lo forman
+    private record Batch(Map<Integer, Integer> deltas, List<Long> movements) {
+
+        Batch() {
+            this(new TreeMap<>(), new ArrayList<>());
+        }
+
+        boolean isEmpty() {
+            return movements.isEmpty();
+        }
+
+        void add(long seq, Map<Integer, Integer> movement) {
+            movements.add(seq);
+            movement.forEach((id, delta) -> deltas.merge(id, delta, Integer::sum));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.exception.CloudinaryException;
+import com.alonso.salesapp.service.ICloudinaryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+
+// Sustituto de Cloudinary sobre el sistema de archivos local (image.storage=local), para desarrollo y pruebas.
+// Devuelve las mismas claves que Cloudinary (secure_url, public_id) para que el resto del código no cambie.
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "image.storage", havingValue = "local")
+public class LocalImageServiceImpl implements ICloudinaryService {
+
+    private final Path directory;
+    private final String baseUrl;
+
+    public LocalImageServiceImpl(@Value("${image.local.dir:data/images}") String directory,
+                                 @Value("${image.local.base-url:}") String baseUrl) {
+        this.directory = Path.of(directory).toAbsolutePath();
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public Map upload(Path file) {
+        try {
+            Path target = newTarget(file.getFileName().toString());
+            Files.copy(file, target);
+            return result(target);
+        } catch (IOException e) {
+            throw new CloudinaryException("Error al guardar imagen en disco", e);
+        }
+    }
+
+    @Override
+    public Map delete(String publicId) {
+        try {
+            boolean deleted = Files.deleteIfExists(directory.resolve(publicId).normalize());
+            return Map.of("result", deleted ? "ok" : "not found");
+        } catch (IOException e) {
+            throw new CloudinaryException("Error al eliminar imagen de disco", e);
+        }
+    }
+
+    private Path newTarget(String originalName) throws IOException {
+        Files.createDirectories(directory);
+        String extension = originalName != null && originalName.contains(".")
+                ? originalName.substring(originalName.lastIndexOf('.'))
+                : "";
+        return directory.resolve(UUID.randomUUID() + extension);
+    }
+
+    private Map<String, Object> result(Path target) {
+        String publicId = target.getFileName().toString();
+        String url = baseUrl.isBlank() ? target.toUri().toString() : baseUrl + "/" + publicId;
+        log.debug("Image stored locally at {}", target);
+        return Map.of("secure_url", url, "public_id", publicId);
+    }
+}
@@ -0,0 +1,92 @@
+package com.alonso.salesapp.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Repite una operación transaccional cuando falla por conflicto de versión (modo OPTIMISTIC).
+ * <p>
+ * Cada intento es una transacción nueva que vuelve a leer los productos. Entre intentos espera un
+ * tiempo exponencial con jitter, para que las ventas que chocaron no vuelvan a coincidir, y se rinde
+ * tras sales.optimistic.max-attempts intentos. Conflictos, reintentos y agotados se cuentan y se
+ * registran periódicamente en el log.
+ */
+@Slf4j
+@Service
+public class OptimisticRetry {
+
+    // Tope del exponente: con 5 ms de base la espera máxima ronda los 5 s
+    private static final int MAX_SHIFT = 10;
+
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public OptimisticRetry(@Value("${sales.optimistic.max-attempts:5}") int maxAttempts,
+                           @Value("${sales.optimistic.backoff-ms:5}") long backoffMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = Math.max(1, backoffMs);
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        // Dentro de una transacción ya abierta no se puede repetir: el conflicto llega a su commit
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.warn("Optimistic conflict not resolved after {} attempt(s): {}", attempt, e.getMessage());
+                    throw e;
+                }
+                retries.increment();
+                try {
+                    Thread.sleep(backoff(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Mitad fija y mitad aleatoria de base * 2^(intento - 1)
+    long backoff(int attempt) {
+        long ceiling = backoffMs << Math.min(attempt - 1, MAX_SHIFT);
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+
+    public long conflictCount() {
+        return conflicts.sum();
+    }
+
+    public long retryCount() {
+        return retries.sum();
+    }
+
+    public long exhaustedCount() {
+        return exhausted.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${sales.optimistic.stats-interval-ms:300000}")
+    public void logStats() {
+        log.info("Optimistic checkout: conflicts={}, retries={}, exhausted={}",
+                conflictCount(), retryCount(), exhaustedCount());
+    }
+}
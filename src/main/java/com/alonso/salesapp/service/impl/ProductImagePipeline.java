@@ -0,0 +1,272 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.exception.CloudinaryException;
+import com.alonso.salesapp.model.ImageStatus;
+import com.alonso.salesapp.repository.ProductRepo;
+import com.alonso.salesapp.service.ICloudinaryService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sube las imágenes de producto fuera de la transacción que guarda el producto.
+ * <p>
+ * En la request solo se copia el archivo a un directorio propio (el temporal del multipart se borra
+ * al terminar la request). Tras el commit, un pool acotado lo sube al almacenamiento configurado
+ * (Cloudinary o disco local), reintentando con backoff exponencial, y al terminar rellena
+ * imageUrl / imagePublicId y pasa el producto a READY (o FAILED si se agotan los reintentos).
+ * <p>
+ * Si llegan dos imágenes para el mismo producto, solo la última se aplica; la otra se descarta.
+ */
+@Slf4j
+@Component
+public class ProductImagePipeline {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ICloudinaryService imageStorage;
+    private final ProductRepo productRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService executor;
+    private final Path stagingDir;
+    private final int maxAttempts;
+    private final long backoffMs;
+
+    // Última subida pedida por producto: una subida que termina tarde no pisa a una más nueva
+    private final Map<Integer, Long> latest = new ConcurrentHashMap<>();
+    private final AtomicLong tickets = new AtomicLong();
+    // Lock por franja de productos, no del bean: las subidas de productos distintos no se esperan entre sí.
+    // ReentrantLock y no synchronized: con virtual threads, esperar no fija el carrier
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public ProductImagePipeline(ICloudinaryService imageStorage,
+                                ProductRepo productRepo,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${image.upload.threads:4}") int threads,
+                                @Value("${image.upload.max-attempts:5}") int maxAttempts,
+                                @Value("${image.upload.backoff-ms:500}") long backoffMs,
+                                @Value("${image.upload.staging-dir:data/image-staging}") String stagingDir) {
+        this.imageStorage = imageStorage;
+        this.productRepo = productRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = Executors.newScheduledThreadPool(threads,
+                Thread.ofPlatform().name("image-upload-", 0).daemon().factory());
+        // Absoluto: MultipartFile.transferTo resuelve una ruta relativa contra el directorio temporal del
+        // multipart (Part.write de Tomcat), no contra el directorio de trabajo
+        this.stagingDir = Path.of(stagingDir).toAbsolutePath();
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Lo que quedó PENDING al caer el proceso ya no tiene subida en curso
+    @PostConstruct
+    public void start() {
+        Integer abandoned = transactionTemplate.execute(status ->
+                productRepo.replaceImageStatus(ImageStatus.PENDING, ImageStatus.FAILED));
+        if (abandoned != null && abandoned > 0) {
+            log.warn("{} product image upload(s) interrupted by the last shutdown marked as FAILED", abandoned);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Image uploads still running at shutdown were abandoned");
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Copia la imagen al directorio de staging y programa su subida para cuando la transacción
+     * actual haga commit. El producto debe quedar guardado con estado PENDING en esa transacción.
+     */
+    public void submit(Integer idProduct, MultipartFile image) {
+        Path staged = stage(image);
+        long ticket = tickets.incrementAndGet();
+        afterCompletion(() -> {
+            latest.put(idProduct, ticket);
+            executor.execute(() -> attempt(new Upload(idProduct, ticket, staged), 1));
+        }, () -> deleteStaged(staged));
+    }
+
+    // Borra una imagen del almacenamiento cuando (y solo si) la transacción actual hace commit
+    public void deleteAfterCommit(String publicId) {
+        afterCompletion(() -> executor.execute(() -> deleteRemote(publicId)), () -> {});
+    }
+
+    private void attempt(Upload upload, int attempt) {
+        if (isStale(upload)) {
+            deleteStaged(upload.file());
+            return;
+        }
+        Map result;
+        try {
+            result = imageStorage.upload(upload.file());
+        } catch (RuntimeException e) {
+            if (attempt >= maxAttempts) {
+                log.error("Image upload for product {} failed after {} attempt(s): {}",
+                        upload.idProduct(), attempt, e.getMessage());
+                fail(upload);
+                deleteStaged(upload.file());
+                return;
+            }
+            retry(upload, attempt, e, () -> attempt(upload, attempt + 1));
+            return;
+        }
+        deleteStaged(upload.file());
+        completeAttempt(upload, (String) result.get("secure_url"), (String) result.get("public_id"), 1);
+    }
+
+    // La imagen ya está subida: si falla la escritura en BD se reintenta solo esta con el mismo publicId,
+    // sin volver a subirla (cada subida repetida dejaría otra imagen huérfana en el almacenamiento)
+    private void completeAttempt(Upload upload, String url, String publicId, int attempt) {
+        try {
+            complete(upload, url, publicId);
+        } catch (RuntimeException e) {
+            if (attempt >= maxAttempts) {
+                log.error("Saving image {} for product {} failed after {} attempt(s): {}",
+                        publicId, upload.idProduct(), attempt, e.getMessage());
+                // Ningún producto la referencia: se borra antes de marcar FAILED
+                deleteRemote(publicId);
+                fail(upload);
+                return;
+            }
+            retry(upload, attempt, e, () -> completeAttempt(upload, url, publicId, attempt + 1));
+        }
+    }
+
+    private void retry(Upload upload, int attempt, RuntimeException e, Runnable next) {
+        long delay = backoffMs << (attempt - 1);
+        log.warn("Image upload for product {} failed (attempt {}/{}), retrying in {} ms: {}",
+                upload.idProduct(), attempt, maxAttempts, delay, e.getMessage());
+        executor.schedule(next, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // Con el lock del producto: la comprobación de "sigue siendo la última" y la escritura van juntas.
+    // El borrado remoto (la imagen descartada o la anterior) se hace ya sin el lock.
+    private void complete(Upload upload, String url, String publicId) {
+        String obsolete;
+        ReentrantLock lock = lockFor(upload.idProduct());
+        lock.lock();
+        try {
+            if (isStale(upload)) {
+                obsolete = publicId;
+            } else {
+                String previous = transactionTemplate.execute(status -> {
+                    String current = productRepo.findImagePublicId(upload.idProduct()).orElse(null);
+                    productRepo.updateImage(upload.idProduct(), url, publicId, ImageStatus.READY);
+                    return current;
+                });
+                latest.remove(upload.idProduct(), upload.ticket());
+                obsolete = previous != null && !previous.equals(publicId) ? previous : null;
+                log.debug("Image for product {} uploaded: {}", upload.idProduct(), publicId);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (obsolete != null) {
+            deleteRemote(obsolete);
+        }
+    }
+
+    private void fail(Upload upload) {
+        ReentrantLock lock = lockFor(upload.idProduct());
+        lock.lock();
+        try {
+            if (isStale(upload)) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    productRepo.updateImageStatus(upload.idProduct(), ImageStatus.FAILED));
+            latest.remove(upload.idProduct(), upload.ticket());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(Integer idProduct) {
+        return locks[Math.floorMod(idProduct.hashCode(), LOCK_STRIPES)];
+    }
+
+    private boolean isStale(Upload upload) {
+        return !Long.valueOf(upload.ticket()).equals(latest.get(upload.idProduct()));
+    }
+
+    Path stage(MultipartFile image) {
+        try {
+            Files.createDirectories(stagingDir);
+            Path staged = Files.createTempFile(stagingDir, "upload_", extension(image.getOriginalFilename()));
+            image.transferTo(staged.toFile()); // mueve el temporal del multipart, sin copiarlo al heap
+            return staged;
+        } catch (IOException e) {
+            throw new CloudinaryException("Error al preparar la imagen para subirla", e);
+        }
+    }
+
+    // Del nombre que manda el cliente solo se conserva una extensión simple: puede traer "/" o venir null
+    static String extension(String originalFilename) {
+        if (originalFilename == null) {
+            return "";
+        }
+        String extension = originalFilename.substring(Math.max(0, originalFilename.lastIndexOf('.')));
+        return extension.matches("\\.[A-Za-z0-9]{1,10}") ? extension : "";
+    }
+
+    private void deleteRemote(String publicId) {
+        try {
+            imageStorage.delete(publicId);
+        } catch (RuntimeException e) {
+            log.warn("Cannot delete image {}: {}", publicId, e.getMessage());
+        }
+    }
+
+    private void deleteStaged(Path staged) {
+        try {
+            Files.deleteIfExists(staged);
+        } catch (IOException e) {
+            log.warn("Cannot delete staged image {}: {}", staged, e.getMessage());
+        }
+    }
+
+    private void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    private record Upload(Integer idProduct, long ticket, Path file) {}
+}
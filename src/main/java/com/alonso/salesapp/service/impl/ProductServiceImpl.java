@@ -4,21 +4,22 @@ import com.alonso.salesapp.dto.product.ProductRequestDTO;
 import com.alonso.salesapp.dto.product.ProductResponseDTO;
 import com.alonso.salesapp.exception.ModelNotFoundException;
 import com.alonso.salesapp.mapper.ProductMapper;
-import com.alonso.salesapp.model.Category;
+import com.alonso.salesapp.model.ImageStatus;
+import com.alonso.salesapp.model.Money;
 import com.alonso.salesapp.model.Product;
 import com.alonso.salesapp.repository.CategoryRepo;
 import com.alonso.salesapp.repository.ProductRepo;
-import com.alonso.salesapp.service.ICloudinaryService;
 import com.alonso.salesapp.service.IProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -27,33 +28,35 @@ import java.util.Optional;
 @Slf4j
 public class ProductServiceImpl implements IProductService {
 
+    private static final String CATEGORY_FK = "FK_Product_Category";
+
     private final ProductRepo repo;
-    private final CategoryRepo categoryRepo; // Inyectamos esto para validar
+    private final CategoryRepo categoryRepo; // Referencias a la categoría sin SELECT
     private final ProductMapper mapper;
-    private final ICloudinaryService cloudinaryService;
+    private final ProductImagePipeline imagePipeline;
+    private final InventoryLedger ledger;
 
     @Transactional
     @Override
     public ProductResponseDTO create(ProductRequestDTO dto, MultipartFile image) {
-        // Validamos que la categoría exista. Si no, error 404.
-        Category category = categoryRepo.findById(dto.categoryId())
-                .orElseThrow(() -> new ModelNotFoundException("Categoría no encontrada ID: " + dto.categoryId()));
-
         // Convertimos
         Product entity = mapper.toEntity(dto);
 
-        // Asignamos la categoría real encontrada en BD (buena práctica)
-        entity.setCategory(category);
+        // Solo hace falta la FK: referencia sin SELECT (la respuesta solo usa el id de la categoría)
+        entity.setCategory(categoryRepo.getReferenceById(dto.categoryId()));
         entity.setStock(0); // Inicializamos stock en 0
 
-        if (image != null && !image.isEmpty()) {
-            Map result = cloudinaryService.upload(image);
-            entity.setImageUrl((String) result.get("secure_url"));
-            entity.setImagePublicId((String) result.get("public_id"));
+        boolean withImage = image != null && !image.isEmpty();
+        if (withImage) {
+            entity.setImageStatus(ImageStatus.PENDING);
         }
 
-        // Guardamos
-        return mapper.toDTO(repo.save(entity));
+        // Guardamos (el INSERT es inmediato por el id IDENTITY); la imagen se sube en segundo plano después del commit
+        Product saved = saveWithCategory(entity, dto.categoryId(), false);
+        if (withImage) {
+            imagePipeline.submit(saved.getIdProduct(), image);
+        }
+        return toDTO(saved);
     }
 
     @Transactional
@@ -64,39 +67,45 @@ public class ProductServiceImpl implements IProductService {
                 .orElseThrow(() -> new ModelNotFoundException("Producto no encontrado ID: " + id));
 
         // Actualizar solo lo que viene
-        if (dto.categoryId() != null && !dto.categoryId().equals(existing.getCategory().getIdCategory())) {
-            Category category = categoryRepo.findById(dto.categoryId())
-                    .orElseThrow(() -> new ModelNotFoundException("Categoría no encontrada ID: " + dto.categoryId()));
-            existing.setCategory(category);
+        boolean categoryChanged = dto.categoryId() != null
+                && !dto.categoryId().equals(existing.getCategory().getIdCategory());
+        if (categoryChanged) {
+            existing.setCategory(categoryRepo.getReferenceById(dto.categoryId()));
         }
 
         Optional.ofNullable(dto.name()).ifPresent(existing::setName);
         Optional.ofNullable(dto.description()).ifPresent(existing::setDescription);
-        Optional.ofNullable(dto.price()).filter(price -> price > 0).ifPresent(existing::setPrice);
+        Optional.ofNullable(dto.price()).map(Money::of).filter(Money::isPositive).ifPresent(existing::setPrice);
         Optional.ofNullable(dto.enabled()).ifPresent(existing::setEnabled);
 
         if (image != null && !image.isEmpty()) {
-            // Eliminar imagen anterior si existe
-            if (existing.getImagePublicId() != null) {
-                cloudinaryService.delete(existing.getImagePublicId());
-            }
-            Map result = cloudinaryService.upload(image);
-            existing.setImageUrl((String) result.get("secure_url"));
-            existing.setImagePublicId((String) result.get("public_id"));
+            // Se sube tras el commit; la imagen anterior se elimina cuando la nueva ya está lista
+            existing.setImageStatus(ImageStatus.PENDING);
+            imagePipeline.submit(id, image);
         }
 
-        return mapper.toDTO(repo.save(existing));
+        // Con otra categoría se vuelca ya el UPDATE para que una FK inválida se informe como 404
+        return toDTO(categoryChanged ? saveWithCategory(existing, dto.categoryId(), true) : repo.save(existing));
     }
 
     @Override
     public Page<ProductResponseDTO> readAllWithPagination(int page, int size) {
         Pageable pageable = Pageable.ofSize(size).withPage(page);
-        return repo.findAll(pageable).map(mapper::toDTO);
+        return repo.findAll(pageable).map(this::toDTO);
+    }
+
+    @Override
+    public Page<ProductResponseDTO> search(String query, int page, int size) {
+        Pageable pageable = Pageable.ofSize(size).withPage(page);
+        if (query == null || query.isBlank()) {
+            return Page.empty(pageable);
+        }
+        return repo.search(query.strip(), pageable).map(this::toDTO);
     }
 
     @Override
     public ProductResponseDTO readById(Integer id) {
-        return repo.findById(id).map(mapper::toDTO)
+        return repo.findById(id).map(this::toDTO)
                 .orElseThrow(() -> new ModelNotFoundException("Producto no encontrado ID: " + id));
     }
 
@@ -106,11 +115,42 @@ public class ProductServiceImpl implements IProductService {
         Product product = repo.findById(id).orElseThrow(() -> new ModelNotFoundException("Producto no encontrado ID: " + id));
         product.setEnabled(false);
 
-        // Eliminar imagen de Cloudinary
+        // Eliminar imagen del almacenamiento (tras el commit)
         if (product.getImagePublicId() != null) {
-            cloudinaryService.delete(product.getImagePublicId());
+            imagePipeline.deleteAfterCommit(product.getImagePublicId());
         }
 
         repo.save(product);
     }
-}
\ No newline at end of file
+
+    // La categoría se enlaza por referencia: si no existe, es la FK de product la que rechaza la escritura.
+    // Solo esa violación es un 404; cualquier otra (también de lo que vuelque el flush) se propaga tal cual
+    private Product saveWithCategory(Product product, Integer categoryId, boolean flush) {
+        try {
+            return flush ? repo.saveAndFlush(product) : repo.save(product);
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, CATEGORY_FK)) {
+                throw e;
+            }
+            throw new ModelNotFoundException("Categoría no encontrada ID: " + categoryId);
+        }
+    }
+
+    // El nombre que informa el driver varía en mayúsculas (PostgreSQL lo guarda en minúsculas)
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase().contains(constraint.toLowerCase());
+    }
+
+    // Con el ledger activo, la columna stock puede ir por detrás: se informa el stock del ledger
+    private ProductResponseDTO toDTO(Product product) {
+        ProductResponseDTO dto = mapper.toDTO(product);
+        Integer stock = ledger.availableStock(product.getIdProduct());
+        if (stock == null) {
+            return dto;
+        }
+        return new ProductResponseDTO(dto.idProduct(), dto.categoryId(), dto.name(), dto.description(),
+                dto.price(), stock, dto.imageUrl(), dto.imagePublicId(), dto.enabled(), dto.imageStatus());
+    }
+}
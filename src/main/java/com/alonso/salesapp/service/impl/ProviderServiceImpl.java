@@ -34,7 +34,7 @@ public class ProviderServiceImpl implements IProviderService {
 
     @Override
     public List<ProviderDTO> readAll() {
-        return repo.findAll().stream().map(mapper::toDTO).toList();
+        return repo.findAllAsDTO();
     }
 
     @Override
@@ -5,6 +5,9 @@ import com.alonso.salesapp.exception.ModelNotFoundException;
 import com.alonso.salesapp.mapper.RoleMapper;
 import com.alonso.salesapp.model.Role;
 import com.alonso.salesapp.repository.RoleRepo;
+import com.alonso.salesapp.repository.UserRepo;
+import com.alonso.salesapp.security.PrincipalCache;
+import com.alonso.salesapp.security.TokenVersionRegistry;
 import com.alonso.salesapp.service.IRoleService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -17,6 +20,9 @@ public class RoleServiceImpl implements IRoleService {
 
     private final RoleRepo repo;
     private final RoleMapper mapper;
+    private final PrincipalCache principalCache;
+    private final UserRepo userRepo;
+    private final TokenVersionRegistry tokenVersions;
 
     @Override
     public RoleDTO create(RoleDTO dto) {
@@ -31,14 +37,17 @@ public class RoleServiceImpl implements IRoleService {
                 .orElseThrow(() -> new ModelNotFoundException("Role not found with id: " + id));
         Role role = mapper.toEntity(dto);
         role.setIdRole(id);
-        return mapper.toDTO(repo.save(role));
+        RoleDTO updated = mapper.toDTO(repo.save(role));
+
+        // Los usuarios en caché y los access tokens llevan el rol (y sus authorities) embebido
+        principalCache.invalidateAll();
+        revokeTokens(id);
+        return updated;
     }
 
     @Override
     public List<RoleDTO> readAll() {
-        return repo.findAll().stream()
-                .map(mapper::toDTO)
-                .toList();
+        return repo.findAllAsDTO();
     }
 
     @Override
@@ -54,5 +63,12 @@ public class RoleServiceImpl implements IRoleService {
                 .orElseThrow(() -> new ModelNotFoundException("Role not found with id: " + id));
         role.setEnabled(false);
         repo.save(role);
+        principalCache.invalidateAll();
+        revokeTokens(id);
+    }
+
+    private void revokeTokens(Integer idRole) {
+        userRepo.bumpTokenVersionByRole(idRole);
+        tokenVersions.refresh();
     }
 }
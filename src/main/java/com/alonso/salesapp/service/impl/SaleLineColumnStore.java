@@ -0,0 +1,314 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.dto.analytics.LineGroupDTO;
+import com.alonso.salesapp.dto.analytics.SaleLineRow;
+import com.alonso.salesapp.model.LineGroupBy;
+import com.alonso.salesapp.model.Sale;
+import com.alonso.salesapp.repository.SaleRepo;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Analítica en memoria sobre las líneas de venta (analytics.columnar.enabled=true).
+ * <p>
+ * Cada línea ocupa una posición en arrays primitivos por columna: día (epoch day), producto, cajero,
+ * cantidad, y precio y descuento en céntimos. Son unos 30 bytes por línea, sin cabeceras de objeto.
+ * Las consultas filtran, agrupan y suman recorriendo los arrays en paralelo (fork-join), cada tarea
+ * con sus acumuladores densos por grupo: sin índices y sin crear objetos por fila.
+ * <p>
+ * Se carga al arrancar desde sale_detail y cada venta se añade tras su commit. Las ventas hechas por
+ * otras instancias de la aplicación no aparecen hasta el siguiente arranque.
+ */
+@Slf4j
+@Service
+public class SaleLineColumnStore {
+
+    // Importes en punto fijo (céntimos, como Money): las sumas son exactas y en long
+    static final long SCALE = 100;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    // Filas mínimas por tarea: por debajo, repartir cuesta más que recorrer
+    private static final int MIN_SPLIT = 1 << 16;
+
+    private final SaleRepo saleRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    // Los escritores se serializan con appendLock; los lectores solo leen el snapshot publicado.
+    // ReentrantLock: un virtual thread que espera el lock tras el commit no fija su carrier
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private Columns columns = new Columns(0);
+    private int size;
+    private int maxProduct;
+    private int maxUser;
+    private int minDay = Integer.MAX_VALUE;
+    private int maxDay = Integer.MIN_VALUE;
+    private volatile Snapshot snapshot = new Snapshot(columns, 0, 0, 0, minDay, maxDay);
+
+    public SaleLineColumnStore(SaleRepo saleRepo,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${analytics.columnar.enabled:false}") boolean enabled) {
+        this.saleRepo = saleRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<SaleLineRow> rows = saleRepo.streamAllLines()) {
+                load(rows);
+            }
+        });
+        log.info("Columnar sale analytics loaded: {} line(s) in {} ms",
+                snapshot.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Añade las líneas de una venta cuando (y solo si) la transacción actual hace commit.
+     * Los valores se copian ahora: lo que cambie después en las entidades no afecta.
+     */
+    public void append(Sale sale) {
+        if (!enabled) {
+            return;
+        }
+        List<SaleLineRow> rows = sale.getDetails().stream()
+                .map(detail -> new SaleLineRow(sale.getDateTime(), detail.getProduct().getIdProduct(),
+                        sale.getUser().getIdUser(), detail.getQuantity(), detail.getSalePrice(), detail.getDiscount()))
+                .toList();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            load(rows.stream());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                load(rows.stream());
+            }
+        });
+    }
+
+    /**
+     * Filtra por rango de días [from, to) y, opcionalmente, por producto y cajero; agrupa y suma
+     * unidades, importe (cantidad * precio - descuento) y número de líneas.
+     */
+    public List<LineGroupDTO> aggregate(LocalDate from, LocalDate to, Integer idProduct, Integer idUser,
+                                        LineGroupBy groupBy) {
+        Snapshot current = snapshot;
+        int fromDay = (int) Math.max(from.toEpochDay(), current.minDay());
+        int toDay = (int) Math.min(to.toEpochDay() - 1, current.maxDay());
+        if (current.size() == 0 || fromDay > toDay) {
+            return List.of();
+        }
+
+        Columns data = current.columns();
+        Scan scan = switch (groupBy) {
+            case PRODUCT -> new Scan(data.product, 0, current.maxProduct() + 1);
+            case USER -> new Scan(data.user, 0, current.maxUser() + 1);
+            case DAY -> new Scan(data.day, fromDay, toDay - fromDay + 1);
+        };
+        Filter filter = new Filter(fromDay, toDay, idProduct == null ? -1 : idProduct, idUser == null ? -1 : idUser);
+        int split = Math.max(MIN_SPLIT, current.size() / (pool.getParallelism() * 4));
+
+        Partial totals = pool.invoke(new ScanTask(data, filter, scan, 0, current.size(), split));
+
+        List<LineGroupDTO> groups = new ArrayList<>();
+        for (int key = 0; key < scan.keys(); key++) {
+            if (totals.lines[key] == 0) {
+                continue;
+            }
+            String group = groupBy == LineGroupBy.DAY
+                    ? LocalDate.ofEpochDay(key + (long) fromDay).toString()
+                    : String.valueOf(key);
+            groups.add(new LineGroupDTO(group, totals.units[key], (double) totals.revenue[key] / SCALE,
+                    totals.lines[key]));
+        }
+        return groups;
+    }
+
+    // Añade filas y publica un único snapshot al final (la carga inicial no crea uno por fila)
+    void load(Stream<SaleLineRow> rows) {
+        appendLock.lock();
+        try {
+            rows.forEach(this::add);
+            snapshot = new Snapshot(columns, size, maxProduct, maxUser, minDay, maxDay);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void add(SaleLineRow row) {
+        if (size == columns.capacity()) {
+            // Los lectores con el snapshot anterior siguen leyendo los arrays viejos, que no se tocan
+            columns = columns.grow();
+        }
+        int day = (int) row.dateTime().toLocalDate().toEpochDay();
+        columns.day[size] = day;
+        columns.product[size] = row.idProduct();
+        columns.user[size] = row.idUser();
+        columns.quantity[size] = row.quantity();
+        columns.price[size] = row.salePrice().cents();
+        columns.discount[size] = row.discount().cents();
+        size++;
+
+        maxProduct = Math.max(maxProduct, row.idProduct());
+        maxUser = Math.max(maxUser, row.idUser());
+        minDay = Math.min(minDay, day);
+        maxDay = Math.max(maxDay, day);
+    }
+
+    private static final class Columns {
+        final int[] day;
+        final int[] product;
+        final int[] user;
+        final short[] quantity;
+        final long[] price;
+        final long[] discount;
+
+        Columns(int capacity) {
+            this(new int[capacity], new int[capacity], new int[capacity], new short[capacity],
+                    new long[capacity], new long[capacity]);
+        }
+
+        private Columns(int[] day, int[] product, int[] user, short[] quantity, long[] price, long[] discount) {
+            this.day = day;
+            this.product = product;
+            this.user = user;
+            this.quantity = quantity;
+            this.price = price;
+            this.discount = discount;
+        }
+
+        int capacity() {
+            return day.length;
+        }
+
+        Columns grow() {
+            int capacity = Math.max(INITIAL_CAPACITY, day.length * 2);
+            return new Columns(Arrays.copyOf(day, capacity), Arrays.copyOf(product, capacity),
+                    Arrays.copyOf(user, capacity), Arrays.copyOf(quantity, capacity),
+                    Arrays.copyOf(price, capacity), Arrays.copyOf(discount, capacity));
+        }
+    }
+
+    // Vista inmutable para los lectores: solo las primeras size filas de columns son válidas
+    private record Snapshot(Columns columns, int size, int maxProduct, int maxUser, int minDay, int maxDay) {}
+
+    private record Filter(int fromDay, int toDay, int idProduct, int idUser) {}
+
+    // Columna de agrupación: la clave del grupo es keyColumn[i] - keyOffset, en [0, keys)
+    private record Scan(int[] keyColumn, int keyOffset, int keys) {}
+
+    private static final class Partial {
+        final long[] units;
+        final long[] revenue;
+        final long[] lines;
+
+        Partial(int keys) {
+            units = new long[keys];
+            revenue = new long[keys];
+            lines = new long[keys];
+        }
+
+        Partial merge(Partial other) {
+            for (int key = 0; key < lines.length; key++) {
+                units[key] += other.units[key];
+                revenue[key] += other.revenue[key];
+                lines[key] += other.lines[key];
+            }
+            return this;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<Partial> {
+
+        private final Columns data;
+        private final Filter filter;
+        private final Scan scan;
+        private final int from;
+        private final int to;
+        private final int split;
+
+        ScanTask(Columns data, Filter filter, Scan scan, int from, int to, int split) {
+            this.data = data;
+            this.filter = filter;
+            this.scan = scan;
+            this.from = from;
+            this.to = to;
+            this.split = split;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= split) {
+                return scan();
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(data, filter, scan, from, middle, split);
+            left.fork();
+            Partial right = new ScanTask(data, filter, scan, middle, to, split).compute();
+            return left.join().merge(right);
+        }
+
+        private Partial scan() {
+            Partial partial = new Partial(scan.keys());
+            // Copias locales: el JIT las mantiene en registros dentro del bucle
+            int[] days = data.day;
+            int[] products = data.product;
+            int[] users = data.user;
+            short[] quantities = data.quantity;
+            long[] prices = data.price;
+            long[] discounts = data.discount;
+            int[] keyColumn = scan.keyColumn();
+            int keyOffset = scan.keyOffset();
+            int fromDay = filter.fromDay();
+            int toDay = filter.toDay();
+            int idProduct = filter.idProduct();
+            int idUser = filter.idUser();
+
+            for (int i = from; i < to; i++) {
+                int day = days[i];
+                if (day < fromDay || day > toDay
+                        || (idProduct >= 0 && products[i] != idProduct)
+                        || (idUser >= 0 && users[i] != idUser)) {
+                    continue;
+                }
+                int key = keyColumn[i] - keyOffset;
+                long quantity = quantities[i];
+                partial.units[key] += quantity;
+                partial.revenue[key] += quantity * prices[i] - discounts[i];
+                partial.lines[key]++;
+            }
+            return partial;
+        }
+    }
+}
@@ -1,20 +1,42 @@
-
 package com.alonso.salesapp.service.impl;
 
+import com.alonso.salesapp.dto.sale.DailySalesDTO;
+import com.alonso.salesapp.dto.sale.SaleBatchItemDTO;
+import com.alonso.salesapp.dto.sale.SaleBatchResponseDTO;
 import com.alonso.salesapp.dto.sale.SaleDTO;
+import com.alonso.salesapp.dto.sale.SaleDetailDTO;
+import com.alonso.salesapp.dto.sale.SaleFilterDTO;
+import com.alonso.salesapp.dto.sale.SalePageDTO;
 import com.alonso.salesapp.dto.sale.SaleResponseDTO;
+import com.alonso.salesapp.exception.InvalidRequestException;
 import com.alonso.salesapp.exception.ModelNotFoundException;
 import com.alonso.salesapp.mapper.SaleMapper;
 import com.alonso.salesapp.model.*;
 import com.alonso.salesapp.repository.*;
 import com.alonso.salesapp.service.ISaleService;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -22,17 +44,89 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class SaleServiceImpl implements ISaleService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int EXPORT_CLEAR_EVERY = 500;
+
     private final SaleRepo repo;
     private final SaleMapper mapper;
     private final ClientRepo clientRepo;
     private final UserRepo userRepo;
     private final ProductRepo productRepo;
+    private final InventoryLedger ledger;
+    private final SalesRollup rollup;
+    private final SaleLineColumnStore columnStore;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final Validator validator;
+
+    @Value("${sales.stock.mode:LOCKING}")
+    private StockMode stockMode = StockMode.LOCKING;
+
+    @Override
+    public SalePageDTO readPage(SaleFilterDTO filter, int size) {
+        // Un cursor a medias compararía con NULL y saltaría en silencio las ventas de ese instante
+        if ((filter.afterDateTime() == null) != (filter.afterId() == null)) {
+            throw new InvalidRequestException("El cursor requiere afterDateTime y afterId juntos");
+        }
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+
+        // 1. Solo los ids de la página (uno de más para saber si hay siguiente)
+        List<Integer> ids = repo.findPageIds(filter.from(), filter.to(), filter.idClient(), filter.idUser(),
+                filter.afterDateTime(), filter.afterId(), Limit.of(pageSize + 1));
+
+        boolean hasNext = ids.size() > pageSize;
+        if (hasNext) {
+            ids = ids.subList(0, pageSize);
+        }
+        if (ids.isEmpty()) {
+            return new SalePageDTO(List.of(), false, null, null);
+        }
+
+        // 2. Detalles, cliente, usuario y productos solo de esas ventas
+        List<Sale> sales = repo.findAllWithDetailsByIdIn(ids);
+        Sale last = sales.getLast();
+
+        return hasNext
+                ? new SalePageDTO(mapper.toResponseDTOList(sales), true, last.getDateTime(), last.getIdSale())
+                : new SalePageDTO(mapper.toResponseDTOList(sales), false, null, null);
+    }
+
+    @Override
+    public void export(ExportFormat format, OutputStream out) {
+        ExportWriter writer = new ExportWriter(out, objectMapper, format);
+        if (writer.isCsv()) {
+            writer.csv("idSale", "dateTime", "idClient", "client", "user", "idProduct", "product",
+                    "quantity", "salePrice", "discount", "tax", "total");
+        }
+
+        List<SaleDetail> lines = new ArrayList<>();
+        int rows = 0;
+        try (Stream<SaleDetail> stream = repo.streamAllDetails()) {
+            for (SaleDetail line : (Iterable<SaleDetail>) stream::iterator) {
+                // Las líneas llegan ordenadas por venta: al cambiar de venta se escribe la anterior
+                if (!lines.isEmpty() && !lines.getFirst().getSale().getIdSale().equals(line.getSale().getIdSale())) {
+                    writeSale(writer, lines);
+                    lines = new ArrayList<>();
+                }
+                lines.add(line);
+
+                // Lo ya leído no se vuelve a consultar: se suelta del contexto de persistencia
+                if (++rows % EXPORT_CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        if (!lines.isEmpty()) {
+            writeSale(writer, lines);
+        }
+        writer.flush();
+
+        log.info("Sales export finished: {} line(s) as {}", rows, format);
+    }
 
     @Override
-    public List<SaleResponseDTO> readAll() {
-        List<Sale> sales = repo.findAll();
-        log.info("sales: {}", sales);
-        return mapper.toResponseDTOList(sales);
+    public List<DailySalesDTO> readDailySummary(LocalDate from, LocalDate to, Integer idCategory, Integer idUser) {
+        return rollup.readDaily(from, to, idCategory, idUser);
     }
 
     @Override
@@ -66,50 +160,305 @@ public class SaleServiceImpl implements ISaleService {
                 .orElseThrow(() -> new ModelNotFoundException("User not found with id: " + saleDTO.idUser()));
         sale.setUser(user);
 
-        // 4. Cargar productos completos para cada detalle
-        sale.getDetails().forEach(detail -> {
-            Product product = productRepo.findByIdLocked(detail.getProduct().getIdProduct())
-                    .orElseThrow(() -> new ModelNotFoundException(
-                            "Product not found with id: " + detail.getProduct().getIdProduct()));
+        // 4. Reservar stock según el modo configurado y completar cada detalle
+        Map<Integer, Product> products = switch (stockMode) {
+            case ATOMIC -> reserveWithConditionalUpdate(sale.getDetails());
+            case LEDGER -> reserveWithLedger(sale.getDetails());
+            case LOCKING -> reserveWithLocks(sale.getDetails());
+            case OPTIMISTIC -> reserveWithVersions(sale.getDetails());
+        };
 
-            // 2. VALIDACIÓN: ¿Hay suficiente stock?
-            if (product.getStock() < detail.getQuantity()) {
-                throw new ModelNotFoundException("Stock insuficiente para el producto: " + product.getName()
-                        + ". Stock actual: " + product.getStock());
+        // 5. a 7. Precios, fecha, tax y total
+        completeSale(sale, saleDTO, products);
+
+        // 8. Guardar venta con detalles (CascadeType.ALL)
+        Sale savedSale = repo.save(sale);
+
+        // 9. Acumular en el resumen diario (misma transacción: se guardan juntos o ninguno)
+        //    y en la analítica en memoria (tras el commit, si está habilitada)
+        rollup.record(savedSale);
+        columnStore.append(savedSale);
+
+        log.info("Sale created successfully with id: {}", savedSale.getIdSale());
+
+        // 10. Retornar DTO con objetos completos
+        return mapper.toResponseDTO(savedSale);
+    }
+
+    @Override
+    @Transactional
+    public SaleBatchResponseDTO createBatch(List<SaleDTO> saleDTOs) {
+        log.info("Creating sale batch: {} sale(s)", saleDTOs.size());
+
+        // 0. El controlador solo valida el lote (tamaño): cada venta se valida aquí y, si no es válida,
+        //    se rechaza en su propio resultado sin tumbar el lote entero
+        SaleBatchItemDTO[] results = new SaleBatchItemDTO[saleDTOs.size()];
+        List<SaleDTO> valid = new ArrayList<>();
+        for (int i = 0; i < saleDTOs.size(); i++) {
+            String error = validationError(saleDTOs.get(i));
+            if (error != null) {
+                results[i] = new SaleBatchItemDTO(i, null, error);
+            } else {
+                valid.add(saleDTOs.get(i));
             }
+        }
 
-            // 3. RESTA: Actualizamos el stock en memoria
-            int newStock = product.getStock() - detail.getQuantity();
-            product.setStock(newStock);
+        // 1. Clientes, usuarios y productos de todo el lote: una consulta por tabla, no una por venta
+        Map<Integer, Client> clients = clientRepo.findAllById(distinctIds(valid.stream().map(SaleDTO::idClient)))
+                .stream().collect(Collectors.toMap(Client::getIdClient, Function.identity()));
+        Map<Integer, User> users = userRepo.findAllById(distinctIds(valid.stream().map(SaleDTO::idUser)))
+                .stream().collect(Collectors.toMap(User::getIdUser, Function.identity()));
+        Set<Integer> productIds = distinctIds(valid.stream()
+                .flatMap(dto -> dto.details().stream())
+                .map(SaleDetailDTO::idProduct));
+
+        // 2. Un solo SELECT ... FOR UPDATE en orden de id para todo el lote (también en modo ATOMIC:
+        //    un bloqueo por producto en lugar de un UPDATE por línea; y en OPTIMISTIC, donde un lote
+        //    grande casi siempre chocaría con alguna venta). En LEDGER no se bloquea la fila.
+        Map<Integer, Product> products = (stockMode == StockMode.LEDGER
+                ? productRepo.findAllById(productIds)
+                : productRepo.findAllByIdLocked(productIds))
+                .stream().collect(Collectors.toMap(Product::getIdProduct, Function.identity()));
+
+        // 3. Cada venta se comprueba y reserva por separado: una rechazada no afecta a las demás
+        List<Sale> accepted = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < saleDTOs.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            SaleDTO saleDTO = saleDTOs.get(i);
+            try {
+                Sale sale = prepareBatchSale(saleDTO, clients, users, products);
+                accepted.add(sale);
+                positions.add(i);
+            } catch (ModelNotFoundException e) {
+                results[i] = new SaleBatchItemDTO(i, null, e.getMessage());
+            }
+        }
+
+        // 4. Las ventas aceptadas se guardan juntas (lotes JDBC) y se acumulan en los resúmenes
+        List<Sale> saved = repo.saveAll(accepted);
+        for (int i = 0; i < saved.size(); i++) {
+            Sale sale = saved.get(i);
+            rollup.record(sale);
+            columnStore.append(sale);
+            results[positions.get(i)] = new SaleBatchItemDTO(positions.get(i), mapper.toResponseDTO(sale), null);
+        }
+
+        log.info("Sale batch finished: {} created, {} rejected", saved.size(), saleDTOs.size() - saved.size());
+        return new SaleBatchResponseDTO(saved.size(), saleDTOs.size() - saved.size(), List.of(results));
+    }
+
+    // Mismas reglas que @Valid en POST /sales, como mensaje "campo: error" para el resultado de la venta
+    private String validationError(SaleDTO saleDTO) {
+        if (saleDTO == null) {
+            return "La venta no puede ser nula";
+        }
+        Set<ConstraintViolation<SaleDTO>> violations = validator.validate(saleDTO);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Sale prepareBatchSale(SaleDTO saleDTO, Map<Integer, Client> clients, Map<Integer, User> users,
+                                  Map<Integer, Product> products) {
+        Sale sale = mapper.toEntity(saleDTO);
+        if (sale.getDetails() == null || sale.getDetails().isEmpty()) {
+            throw new ModelNotFoundException("No se puede registrar una venta sin detalles");
+        }
 
+        Client client = clients.get(saleDTO.idClient());
+        if (client == null) {
+            throw new ModelNotFoundException("Client not found with id: " + saleDTO.idClient());
+        }
+        User user = users.get(saleDTO.idUser());
+        if (user == null) {
+            throw new ModelNotFoundException("User not found with id: " + saleDTO.idUser());
+        }
+        sale.setClient(client);
+        sale.setUser(user);
+
+        Map<Integer, Integer> quantities = quantitiesByProduct(sale.getDetails());
+        quantities.keySet().stream()
+                .filter(id -> !products.containsKey(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new ModelNotFoundException("Product not found with id: " + id);
+                });
+
+        if (stockMode == StockMode.LEDGER) {
+            ledger.reserve(quantities).ifPresent(id -> {
+                throw new ModelNotFoundException("Stock insuficiente para el producto: "
+                        + products.get(id).getName() + ". Stock actual: " + ledger.availableStock(id));
+            });
+        } else {
+            // Todo o nada: primero se comprueba cada producto y solo después se descuenta
+            quantities.forEach((id, quantity) -> {
+                if (products.get(id).getStock() < quantity) {
+                    throw insufficientStock(products.get(id));
+                }
+            });
+            quantities.forEach((id, quantity) -> {
+                Product product = products.get(id);
+                product.setStock(product.getStock() - quantity);
+            });
+        }
+
+        completeSale(sale, saleDTO, products);
+        return sale;
+    }
+
+    private void completeSale(Sale sale, SaleDTO saleDTO, Map<Integer, Product> products) {
+        sale.getDetails().forEach(detail -> {
+            Product product = products.get(detail.getProduct().getIdProduct());
             detail.setProduct(product);
             detail.setSalePrice(product.getPrice());
+            detail.setUnitCost(product.getAverageCost());
             detail.setSale(sale);
         });
 
-        // 5. Asignar fecha si no viene
+        // Asignar fecha si no viene
         if (saleDTO.dateTime() == null) {
             sale.setDateTime(LocalDateTime.now());
         }
 
-        // 6. y 7. Calcular tax si no viene (18%) y Calcular total
-        double calculatedSubTotal = sale.getDetails().stream()
-                .mapToDouble(detail -> (detail.getQuantity() * detail.getSalePrice()) - detail.getDiscount())
-                .sum();
+        // Calcular tax si no viene (18%) y Calcular total
+        Money calculatedSubTotal = Money.ofCents(sale.getDetails().stream()
+                .mapToLong(detail -> Money.lineCents(detail.getQuantity(), detail.getSalePrice(), detail.getDiscount()))
+                .sum());
 
-        double tax = saleDTO.tax() != null && saleDTO.tax() > 0
-                ? saleDTO.tax()
-                : calculatedSubTotal * 0.18;
+        Money tax = saleDTO.tax() != null && saleDTO.tax() > 0
+                ? Money.of(saleDTO.tax())
+                : calculatedSubTotal.percent(18);
 
         sale.setTax(tax);
-        sale.setTotal(calculatedSubTotal + tax); // Total sin tax
+        sale.setTotal(calculatedSubTotal.plus(tax)); // Total sin tax
+    }
 
-        // 8. Guardar venta con detalles (CascadeType.ALL)
-        Sale savedSale = repo.save(sale);
+    private Set<Integer> distinctIds(Stream<Integer> ids) {
+        return ids.collect(Collectors.toCollection(TreeSet::new));
+    }
 
-        log.info("Sale created successfully with id: {}", savedSale.getIdSale());
+    private Map<Integer, Product> reserveWithLocks(List<SaleDetail> details) {
+        // Bloquear todos los productos de una sola vez (ordenados y sin duplicados)
+        Map<Integer, Product> products = toProductMap(sortedProductIds(details), productRepo::findAllByIdLocked);
 
-        // 9. Retornar DTO con objetos completos
-        return mapper.toResponseDTO(savedSale);
+        details.forEach(detail -> {
+            Product product = products.get(detail.getProduct().getIdProduct());
+
+            // VALIDACIÓN: ¿Hay suficiente stock?
+            if (product.getStock() < detail.getQuantity()) {
+                throw insufficientStock(product);
+            }
+
+            // RESTA: Actualizamos el stock en memoria
+            int newStock = product.getStock() - detail.getQuantity();
+            product.setStock(newStock);
+        });
+
+        return products;
+    }
+
+    private Map<Integer, Product> reserveWithConditionalUpdate(List<SaleDetail> details) {
+        // Cantidad total por producto (TreeMap: mismo orden de actualización en todas las ventas)
+        Map<Integer, Integer> quantities = quantitiesByProduct(details);
+
+        // Primero los UPDATE y después la lectura (sin bloqueo): los productos se cargan con el stock ya
+        // descontado y no queda en el contexto de persistencia una copia anterior que el dirty checking
+        // pudiera volver a escribir.
+        quantities.forEach((id, quantity) -> {
+            if (productRepo.decrementStockIfAvailable(id, quantity) == 0) {
+                // 0 filas: no existe o no alcanza. El stock del mensaje es el de después del UPDATE
+                Product product = productRepo.findById(id)
+                        .orElseThrow(() -> new ModelNotFoundException("Product not found with id: " + id));
+                throw insufficientStock(product);
+            }
+        });
+
+        return toProductMap(quantities.keySet(), productRepo::findAllById);
+    }
+
+    private Map<Integer, Product> reserveWithVersions(List<SaleDetail> details) {
+        Map<Integer, Integer> quantities = quantitiesByProduct(details);
+
+        // Lectura sin bloqueo. El UPDATE del flush lleva "WHERE version = ?": si otra transacción cambió
+        // la fila entretanto, falla con OptimisticLockingFailureException y OptimisticRetry repite la venta.
+        Map<Integer, Product> products = toProductMap(quantities.keySet(), productRepo::findAllById);
+
+        quantities.forEach((id, quantity) -> {
+            Product product = products.get(id);
+            if (product.getStock() < quantity) {
+                throw insufficientStock(product);
+            }
+            product.setStock(product.getStock() - quantity);
+        });
+
+        return products;
+    }
+
+    private Map<Integer, Product> reserveWithLedger(List<SaleDetail> details) {
+        Map<Integer, Integer> quantities = quantitiesByProduct(details);
+
+        // La fila de product no se toca aquí: el ledger reserva en memoria y vuelca el delta más tarde
+        Map<Integer, Product> products = toProductMap(quantities.keySet(), productRepo::findAllById);
+
+        ledger.reserve(quantities).ifPresent(id -> {
+            Product product = products.get(id);
+            throw new ModelNotFoundException("Stock insuficiente para el producto: " + product.getName()
+                    + ". Stock actual: " + ledger.availableStock(id));
+        });
+
+        return products;
+    }
+
+    private Map<Integer, Integer> quantitiesByProduct(List<SaleDetail> details) {
+        return details.stream()
+                .collect(Collectors.groupingBy(detail -> detail.getProduct().getIdProduct(), TreeMap::new,
+                        Collectors.summingInt(SaleDetail::getQuantity)));
+    }
+
+    private void writeSale(ExportWriter writer, List<SaleDetail> lines) {
+        Sale sale = lines.getFirst().getSale();
+        if (!writer.isCsv()) {
+            writer.json(mapper.toResponseDTO(sale, lines));
+            return;
+        }
+
+        Client client = sale.getClient();
+        lines.forEach(line -> writer.csv(sale.getIdSale(), sale.getDateTime(), client.getIdClient(),
+                client.getFirstName() + " " + client.getLastName(), sale.getUser().getUsername(),
+                line.getProduct().getIdProduct(), line.getProduct().getName(), line.getQuantity(),
+                line.getSalePrice(), line.getDiscount(), sale.getTax(), sale.getTotal()));
+    }
+
+    private Set<Integer> sortedProductIds(List<SaleDetail> details) {
+        // TreeSet: ids ordenados y sin repetir, así el orden de bloqueo es siempre el mismo
+        return details.stream()
+                .map(detail -> detail.getProduct().getIdProduct())
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private Map<Integer, Product> toProductMap(Set<Integer> ids, Function<Set<Integer>, List<Product>> loader) {
+        Map<Integer, Product> products = loader.apply(ids).stream()
+                .collect(Collectors.toMap(Product::getIdProduct, Function.identity()));
+
+        ids.stream()
+                .filter(id -> !products.containsKey(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new ModelNotFoundException("Product not found with id: " + id);
+                });
+
+        return products;
+    }
+
+    private ModelNotFoundException insufficientStock(Product product) {
+        return new ModelNotFoundException("Stock insuficiente para el producto: " + product.getName()
+                + ". Stock actual: " + product.getStock());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.dto.sale.DailySalesDTO;
+import com.alonso.salesapp.model.Money;
+import com.alonso.salesapp.model.Product;
+import com.alonso.salesapp.model.Sale;
+import com.alonso.salesapp.model.SaleDetail;
+import com.alonso.salesapp.repository.DailySalesSummaryRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Mantiene la tabla daily_sales_summary (día x producto x cajero).
+ * <p>
+ * Cada venta suma sus líneas con un upsert dentro de la misma transacción que la guarda, así el
+ * resumen nunca queda desfasado de sale / sale_detail. Para cargar el histórico (o corregirlo) se
+ * arranca la aplicación con --rebuild-sales-rollup[=yyyy-MM-dd], que recalcula desde esa fecha.
+ */
+@Slf4j
+@Service
+public class SalesRollup implements ApplicationRunner {
+
+    static final String REBUILD_OPTION = "rebuild-sales-rollup";
+
+    private final DailySalesSummaryRepo summaryRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    public SalesRollup(DailySalesSummaryRepo summaryRepo, PlatformTransactionManager transactionManager) {
+        this.summaryRepo = summaryRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Acumula una venta recién guardada. Debe llamarse dentro de la transacción de la venta:
+     * si esta hace rollback, el resumen también.
+     */
+    public void record(Sale sale) {
+        LocalDate day = sale.getDateTime().toLocalDate();
+        Integer idUser = sale.getUser().getIdUser();
+
+        // Una fila por producto aunque se repita en la venta; TreeMap: mismo orden de bloqueo en todas
+        Map<Integer, List<SaleDetail>> linesByProduct = sale.getDetails().stream()
+                .collect(Collectors.groupingBy(detail -> detail.getProduct().getIdProduct(), TreeMap::new,
+                        Collectors.toList()));
+
+        linesByProduct.forEach((idProduct, lines) -> {
+            Product product = lines.getFirst().getProduct();
+            long units = lines.stream().mapToLong(SaleDetail::getQuantity).sum();
+            double revenue = Money.ofCents(lines.stream()
+                    .mapToLong(line -> Money.lineCents(line.getQuantity(), line.getSalePrice(), line.getDiscount()))
+                    .sum()).toDouble();
+            summaryRepo.accumulate(day, idProduct, idUser, product.getCategory().getIdCategory(),
+                    units, revenue, lines.size());
+        });
+    }
+
+    // Recalcula el resumen desde el día indicado (incluido) a partir de sale / sale_detail
+    public int rebuild(LocalDate from) {
+        Integer rows = transactionTemplate.execute(status -> {
+            summaryRepo.lockForRebuild();
+            summaryRepo.deleteFrom(from);
+            return summaryRepo.backfillFrom(from.atStartOfDay());
+        });
+        log.info("Daily sales summary rebuilt from {}: {} row(s)", from, rows);
+        return rows == null ? 0 : rows;
+    }
+
+    public List<DailySalesDTO> readDaily(LocalDate from, LocalDate to, Integer idCategory, Integer idUser) {
+        return summaryRepo.findDailyTotals(from, to, idCategory, idUser);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(REBUILD_OPTION)) {
+            return;
+        }
+        List<String> values = args.getOptionValues(REBUILD_OPTION);
+        LocalDate from = values.isEmpty() || values.getFirst().isBlank()
+                ? LocalDate.EPOCH
+                : LocalDate.parse(values.getFirst());
+        rebuild(from);
+    }
+}
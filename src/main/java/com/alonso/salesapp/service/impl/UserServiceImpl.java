@@ -7,6 +7,8 @@ import com.alonso.salesapp.model.Role;
 import com.alonso.salesapp.model.User;
 import com.alonso.salesapp.repository.RoleRepo;
 import com.alonso.salesapp.repository.UserRepo;
+import com.alonso.salesapp.security.PrincipalCache;
+import com.alonso.salesapp.security.TokenVersionRegistry;
 import com.alonso.salesapp.service.IUserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -20,10 +22,12 @@ public class UserServiceImpl implements IUserService {
     private final UserRepo repo;
     private final RoleRepo roleRepo;
     private final UserMapper mapper;
+    private final PrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersions;
 
     @Override
     public List<UserDTO> getAllUsers() {
-        return repo.findAll().stream().map(mapper::toDTO).toList();
+        return repo.findAllAsDTO();
     }
 
     @Override
@@ -43,21 +47,32 @@ public class UserServiceImpl implements IUserService {
 
     @Override
     public UserDTO updateUser(Integer idUser, UserDTO userDTO) {
-        findUserByIdOrThrow(idUser);
+        User existing = findUserByIdOrThrow(idUser);
         Role role = roleRepo.findById(userDTO.idRole())
                 .orElseThrow(() -> new ModelNotFoundException("Role not found ID: " + userDTO.idRole()));
 
         User user = mapper.toEntity(userDTO);
         user.setIdUser(idUser);
         user.setRole(role);
-        return mapper.toDTO(repo.save(user));
+        // Rol/username pueden haber cambiado: los access tokens emitidos dejan de valer
+        user.setTokenVersion(existing.getTokenVersion() + 1);
+        UserDTO updated = mapper.toDTO(repo.save(user));
+
+        // El username pudo cambiar: se descartan el anterior y el nuevo
+        principalCache.invalidate(existing.getUsername());
+        principalCache.invalidate(user.getUsername());
+        tokenVersions.update(user);
+        return updated;
     }
 
     @Override
     public void deleteUser(Integer idUser) {
         User user = findUserByIdOrThrow(idUser);
         user.setEnabled(false);
+        user.setTokenVersion(user.getTokenVersion() + 1);
         repo.save(user);
+        principalCache.invalidate(user.getUsername());
+        tokenVersions.update(user);
     }
 
     private User findUserByIdOrThrow(Integer idUser) {
@@ -0,0 +1,5 @@
+-- Se ejecuta en cada arranque, tras crear Hibernate las tablas (spring.sql.init, solo PostgreSQL).
+
+-- BÚSQUEDA FULL-TEXT (ver ProductRepo.search): índice GIN por expresión sobre nombre + descripción.
+-- PostgreSQL lo mantiene al día en cada INSERT/UPDATE de product.
+CREATE INDEX IF NOT EXISTS IDX_Product_Search ON product USING GIN (to_tsvector('spanish', name || ' ' || description));
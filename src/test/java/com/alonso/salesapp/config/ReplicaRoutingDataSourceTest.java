@@ -0,0 +1,127 @@
+package com.alonso.salesapp.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Primario y réplicas son bases H2 en memoria distintas; cada una responde con su propio nombre
+@DisplayName("Replica Routing DataSource Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica1;
+    private DataSource replica2;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        replica1 = h2("replica1");
+        replica2 = h2("replica2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        List.of(primary, replica1, replica2).forEach(dataSource -> new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS"));
+    }
+
+    @Test
+    @DisplayName("Debería enviar las lecturas a las réplicas por turnos y las escrituras al primario")
+    void shouldRouteReadsToReplicas_AndWritesToPrimary() {
+        Routing routing = routing(List.of(replica1, replica2), Duration.ZERO);
+
+        assertThat(routing.read()).isEqualTo("replica1");
+        assertThat(routing.read()).isEqualTo("replica2");
+        assertThat(routing.read()).isEqualTo("replica1");
+        assertThat(routing.write()).isEqualTo("primary");
+        // Fuera de transacción no hay marca readOnly: primario
+        assertThat(routing.jdbc.queryForObject("SELECT name FROM node", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Debería saltar las réplicas caídas y volver al primario si no queda ninguna")
+    void shouldSkipUnhealthyReplicas() {
+        JdbcDataSource missing = new JdbcDataSource();
+        missing.setURL("jdbc:h2:mem:missing;IFEXISTS=TRUE");
+        Routing routing = routing(List.of(missing, replica2), Duration.ZERO);
+
+        routing.dataSource.checkReplicas();
+        assertThat(routing.read()).isEqualTo("replica2");
+        assertThat(routing.read()).isEqualTo("replica2");
+
+        Routing allDown = routing(List.of(missing), Duration.ZERO);
+        allDown.dataSource.checkReplicas();
+        assertThat(allDown.read()).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Debería leer del primario dentro de la ventana read-your-writes de quien escribió")
+    void shouldReadYourWrites_WithinWindow() {
+        Routing routing = routing(List.of(replica1), Duration.ofMinutes(1));
+
+        login("ana");
+        routing.write();
+        assertThat(routing.read()).isEqualTo("primary");
+
+        login("luis");
+        assertThat(routing.read()).isEqualTo("replica1");
+    }
+
+    private Routing routing(List<DataSource> replicas, Duration readYourWrites) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas, readYourWrites);
+        routing.afterPropertiesSet();
+        return new Routing(routing, new LazyConnectionDataSourceProxy(routing));
+    }
+
+    private static void login(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name varchar(20))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static final class Routing {
+        final ReplicaRoutingDataSource dataSource;
+        final JdbcTemplate jdbc;
+        final TransactionTemplate readOnly;
+        final TransactionTemplate readWrite;
+
+        Routing(ReplicaRoutingDataSource dataSource, DataSource lazy) {
+            this.dataSource = dataSource;
+            this.jdbc = new JdbcTemplate(lazy);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(lazy);
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.readWrite = new TransactionTemplate(transactionManager);
+        }
+
+        String read() {
+            return readOnly.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+        }
+
+        String write() {
+            return readWrite.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.alonso.salesapp.config;
+
+import com.alonso.salesapp.SalesAppApplication;
+import com.alonso.salesapp.service.impl.JwtService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latencia con el pool de threads de Tomcat (200 threads) frente a virtual threads, con 2.000 conexiones
+ * concurrentes contra un endpoint que espera a una llamada remota lenta (como una subida a Cloudinary).
+ * Arranca la aplicación completa una vez por modo. No corre con el build normal:
+ * mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class ThreadModeLoadBenchmarkTest {
+
+    private static final int CONNECTIONS = 2_000;
+    private static final int REQUESTS_PER_CONNECTION = 5;
+    private static final int WARMUP_REQUESTS = 500;
+    private static final long REMOTE_CALL_MS = 50;
+
+    @Container
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Test
+    void compareThreadModes() throws Exception {
+        for (boolean virtual : List.of(false, true)) {
+            try (ConfigurableApplicationContext context = start(virtual)) {
+                run(context, virtual);
+            }
+        }
+    }
+
+    private void run(ConfigurableApplicationContext context, boolean virtual) throws Exception {
+        URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + "/benchmark/remote-call");
+        String token = token(context);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .executor(clients)
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build()) {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofMinutes(2))
+                    .build();
+
+            // El handler corre en el tipo de thread del modo configurado
+            String body = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            assertThat(Boolean.parseBoolean(body)).isEqualTo(virtual);
+
+            load(clients, http, request, WARMUP_REQUESTS, 1);
+            long started = System.nanoTime();
+            long[] latencies = load(clients, http, request, CONNECTIONS, REQUESTS_PER_CONNECTION);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            Arrays.sort(latencies);
+            System.out.printf("%-15s %,d connections: %,8.0f req/s, p50=%,d ms, p99=%,d ms, max=%,d ms%n",
+                    virtual ? "virtual threads" : "thread pool", CONNECTIONS, latencies.length / seconds,
+                    percentile(latencies, 50), percentile(latencies, 99), latencies[latencies.length - 1]);
+        }
+    }
+
+    // Cada conexión lanza sus peticiones en serie; devuelve la latencia de cada una en ms
+    private static long[] load(ExecutorService clients, HttpClient http, HttpRequest request,
+                               int connections, int requestsPerConnection) throws Exception {
+        List<Future<long[]>> futures = new ArrayList<>(connections);
+        for (int c = 0; c < connections; c++) {
+            futures.add(clients.submit(() -> {
+                long[] latencies = new long[requestsPerConnection];
+                for (int r = 0; r < requestsPerConnection; r++) {
+                    long started = System.nanoTime();
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    assertThat(response.statusCode()).isEqualTo(200);
+                    latencies[r] = (System.nanoTime() - started) / 1_000_000;
+                }
+                return latencies;
+            }));
+        }
+
+        long[] all = new long[connections * requestsPerConnection];
+        for (int c = 0; c < connections; c++) {
+            System.arraycopy(futures.get(c).get(), 0, all, c * requestsPerConnection, requestsPerConnection);
+        }
+        return all;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1)];
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtual) {
+        return new SpringApplicationBuilder(SalesAppApplication.class, RemoteCallController.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.datasource.driver-class-name=org.postgresql.Driver",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                        "analytics.columnar.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    // ddl-auto=create-drop: el esquema se recrea en cada arranque, así que el usuario también
+    private static String token(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO role (id_role, name, enabled) VALUES (1, 'ROLE_ADMIN', true)");
+        jdbcTemplate.update("INSERT INTO user_data (id_role, username, password, enabled, token_version) "
+                + "VALUES (1, 'cashier', 'x', true, 0)");
+        return context.getBean(JwtService.class).generateAccessToken(
+                context.getBean(UserDetailsService.class).loadUserByUsername("cashier"));
+    }
+
+    @RestController
+    static class RemoteCallController {
+
+        @GetMapping("/benchmark/remote-call")
+        String remoteCall() throws InterruptedException {
+            Thread.sleep(REMOTE_CALL_MS);
+            return String.valueOf(Thread.currentThread().isVirtual());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.alonso.salesapp.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("Virtual Thread Pinning Monitor Tests")
+class VirtualThreadPinningMonitorTest {
+
+    private final Object monitor = new Object();
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @AfterEach
+    void tearDown() {
+        if (pinningMonitor != null) {
+            pinningMonitor.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería detectar un virtual thread bloqueado dentro de synchronized")
+    void shouldReportPinnedVirtualThread() throws InterruptedException {
+        // Desde Java 24 synchronized ya no fija el carrier
+        assumeTrue(Runtime.version().feature() < 24);
+        pinningMonitor = new VirtualThreadPinningMonitor(10);
+        pinningMonitor.start();
+
+        Thread.ofVirtual().start(() -> {
+            synchronized (monitor) {
+                sleep(100);
+            }
+        }).join();
+
+        // Los eventos JFR llegan al stream de forma asíncrona
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (pinningMonitor.pinnedCount() == 0 && System.currentTimeMillis() < deadline) {
+            sleep(100);
+        }
+        assertThat(pinningMonitor.pinnedCount()).isPositive();
+    }
+
+    @Test
+    @DisplayName("No debería reportar nada cuando el virtual thread se bloquea fuera de synchronized")
+    void shouldIgnoreUnpinnedBlocking() throws InterruptedException {
+        pinningMonitor = new VirtualThreadPinningMonitor(10);
+        pinningMonitor.start();
+
+        Thread.ofVirtual().start(() -> sleep(100)).join();
+        sleep(1_500);
+
+        assertThat(pinningMonitor.pinnedCount()).isZero();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.alonso.salesapp.controller;
+
+import com.alonso.salesapp.dto.analytics.CashierSalesDTO;
+import com.alonso.salesapp.dto.analytics.LineGroupDTO;
+import com.alonso.salesapp.dto.analytics.ProductMarginDTO;
+import com.alonso.salesapp.dto.analytics.RevenuePeriodDTO;
+import com.alonso.salesapp.dto.analytics.TicketStatsDTO;
+import com.alonso.salesapp.dto.analytics.TopProductDTO;
+import com.alonso.salesapp.model.AnalyticsPeriod;
+import com.alonso.salesapp.model.LineGroupBy;
+import com.alonso.salesapp.service.IAnalyticsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AnalyticsController.class)
+class AnalyticsControllerTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2026, 4, 1, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private IAnalyticsService analyticsService;
+
+    @Test
+    @DisplayName("Debería retornar los productos más vendidos cuando se llama a GET /analytics/top-products")
+    void shouldReturnTopProducts_whenTopProductsIsCalled() throws Exception {
+        when(analyticsService.topProducts(FROM, TO, 5)).thenReturn(List.of(
+                new TopProductDTO(1L, 2, "Mouse", 9L, 180.0, 26.5)));
+
+        mockMvc.perform(get("/analytics/top-products")
+                        .param("from", "2026-03-01T00:00:00")
+                        .param("to", "2026-04-01T00:00:00")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].ranking").value(1))
+                .andExpect(jsonPath("$[0].name").value("Mouse"))
+                .andExpect(jsonPath("$[0].units").value(9));
+    }
+
+    @Test
+    @DisplayName("Debería agrupar la facturación por el periodo indicado")
+    void shouldReturnRevenueByPeriod_whenRevenueIsCalled() throws Exception {
+        when(analyticsService.revenueByPeriod(FROM, TO, AnalyticsPeriod.WEEK)).thenReturn(List.of(
+                new RevenuePeriodDTO(FROM, 3L, 680.0, 0.0, 226.67, 680.0)));
+
+        mockMvc.perform(get("/analytics/revenue")
+                        .param("from", "2026-03-01T00:00:00")
+                        .param("to", "2026-04-01T00:00:00")
+                        .param("period", "WEEK"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sales").value(3))
+                .andExpect(jsonPath("$[0].runningRevenue").value(680.0));
+
+        verify(analyticsService).revenueByPeriod(FROM, TO, AnalyticsPeriod.WEEK);
+    }
+
+    @Test
+    @DisplayName("Debería retornar el ticket medio cuando se llama a GET /analytics/ticket")
+    void shouldReturnTicketStats_whenTicketIsCalled() throws Exception {
+        when(analyticsService.ticketStats(FROM, TO)).thenReturn(new TicketStatsDTO(3L, 680.0, 226.67, 100.0, 520.0));
+
+        mockMvc.perform(get("/analytics/ticket")
+                        .param("from", "2026-03-01T00:00:00")
+                        .param("to", "2026-04-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.averageTicket").value(226.67))
+                .andExpect(jsonPath("$.medianTicket").value(100.0));
+    }
+
+    @Test
+    @DisplayName("Debería retornar las ventas por cajero cuando se llama a GET /analytics/cashiers")
+    void shouldReturnSalesByCashier_whenCashiersIsCalled() throws Exception {
+        when(analyticsService.salesByCashier(FROM, TO)).thenReturn(List.of(
+                new CashierSalesDTO(1L, 1, "ana", 2L, 580.0, 290.0, 85.29)));
+
+        mockMvc.perform(get("/analytics/cashiers")
+                        .param("from", "2026-03-01T00:00:00")
+                        .param("to", "2026-04-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].username").value("ana"))
+                .andExpect(jsonPath("$[0].sales").value(2));
+    }
+
+    @Test
+    @DisplayName("Debería retornar el margen por producto cuando se llama a GET /analytics/margin")
+    void shouldReturnMarginByProduct_whenMarginIsCalled() throws Exception {
+        when(analyticsService.marginByProduct(FROM, TO)).thenReturn(List.of(
+                new ProductMarginDTO(1, "Laptop", 3L, 2950.0, 2100.0, 850.0, 28.81)));
+
+        mockMvc.perform(get("/analytics/margin")
+                        .param("from", "2026-03-01T00:00:00")
+                        .param("to", "2026-04-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Laptop"))
+                .andExpect(jsonPath("$[0].margin").value(850.0))
+                .andExpect(jsonPath("$[0].marginPercent").value(28.81));
+    }
+
+    @Test
+    @DisplayName("Debería agrupar las líneas de venta cuando se llama a GET /analytics/lines")
+    void shouldReturnLineTotals_whenLinesIsCalled() throws Exception {
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 8);
+        when(analyticsService.lineTotals(from, to, 2, null, LineGroupBy.DAY)).thenReturn(List.of(
+                new LineGroupDTO("2026-03-01", 4L, 80.0, 2L)));
+
+        mockMvc.perform(get("/analytics/lines")
+                        .param("from", "2026-03-01")
+                        .param("to", "2026-03-08")
+                        .param("idProduct", "2")
+                        .param("groupBy", "DAY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].group").value("2026-03-01"))
+                .andExpect(jsonPath("$[0].units").value(4))
+                .andExpect(jsonPath("$[0].revenue").value(80.0));
+    }
+}
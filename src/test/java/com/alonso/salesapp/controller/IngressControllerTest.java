@@ -8,7 +8,9 @@ import com.alonso.salesapp.dto.product.ProductSummaryDTO;
 import com.alonso.salesapp.dto.provider.ProviderSummaryDTO;
 import com.alonso.salesapp.dto.user.UserSummaryDTO;
 import com.alonso.salesapp.exception.ModelNotFoundException;
+import com.alonso.salesapp.model.Money;
 import com.alonso.salesapp.service.IngressService;
+import com.alonso.salesapp.service.impl.IdempotencyStore;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,8 +22,11 @@ import tools.jackson.databind.ObjectMapper;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,18 +43,21 @@ class IngressControllerTest {
     @MockitoBean
     private IngressService ingressService;
 
+    @MockitoBean
+    private IdempotencyStore idempotencyStore;
+
     @Test
     @DisplayName("Debería retornar todos los ingresos cuando se llama a GET /ingress")
     void shouldReturnAllIngresses_whenGetAllIngressesIsCalled() throws Exception {
         ProviderSummaryDTO provider = new ProviderSummaryDTO(1, "Tech Supplier", "123 Tech St");
         UserSummaryDTO user = new UserSummaryDTO(1, "admin");
-        ProductSummaryDTO product = new ProductSummaryDTO(1, "Laptop", 0.00);
-        IngressDetailResponseDTO detail = new IngressDetailResponseDTO(1, product, (short) 10, 1500.00);
+        ProductSummaryDTO product = new ProductSummaryDTO(1, "Laptop", Money.of(0.00));
+        IngressDetailResponseDTO detail = new IngressDetailResponseDTO(1, product, (short) 10, Money.of(1500.00));
 
         IngressResponseDTO ingress1 = new IngressResponseDTO(1, provider, user, "INV-001",
-            LocalDateTime.now(), 15000.00, 2700.00, List.of(detail));
+            LocalDateTime.now(), Money.of(15000.00), Money.of(2700.00), List.of(detail));
         IngressResponseDTO ingress2 = new IngressResponseDTO(2, provider, user, "INV-002",
-            LocalDateTime.now(), 8000.00, 1440.00, List.of(detail));
+            LocalDateTime.now(), Money.of(8000.00), Money.of(1440.00), List.of(detail));
 
         List<IngressResponseDTO> ingresses = List.of(ingress1, ingress2);
 
@@ -71,11 +79,11 @@ class IngressControllerTest {
     void shouldReturnIngress_whenValidIdIsProvided() throws Exception {
         ProviderSummaryDTO provider = new ProviderSummaryDTO(1, "Tech Supplier", "123 Tech St");
         UserSummaryDTO user = new UserSummaryDTO(1, "admin");
-        ProductSummaryDTO product = new ProductSummaryDTO(1, "Laptop", 0.00);
-        IngressDetailResponseDTO detail = new IngressDetailResponseDTO(1, product, (short) 10, 1500.00);
+        ProductSummaryDTO product = new ProductSummaryDTO(1, "Laptop", Money.of(0.00));
+        IngressDetailResponseDTO detail = new IngressDetailResponseDTO(1, product, (short) 10, Money.of(1500.00));
 
         IngressResponseDTO ingress = new IngressResponseDTO(1, provider, user, "INV-001",
-            LocalDateTime.now(), 15000.00, 2700.00, List.of(detail));
+            LocalDateTime.now(), Money.of(15000.00), Money.of(2700.00), List.of(detail));
 
         when(ingressService.readById(1)).thenReturn(ingress);
 
@@ -98,12 +106,14 @@ class IngressControllerTest {
 
         ProviderSummaryDTO provider = new ProviderSummaryDTO(1, "Tech Supplier", "123 Tech St");
         UserSummaryDTO user = new UserSummaryDTO(1, "admin");
-        ProductSummaryDTO product = new ProductSummaryDTO(1, "Laptop", 0.00);
-        IngressDetailResponseDTO responseDetail = new IngressDetailResponseDTO(1, product, (short) 10, 1500.00);
+        ProductSummaryDTO product = new ProductSummaryDTO(1, "Laptop", Money.of(0.00));
+        IngressDetailResponseDTO responseDetail = new IngressDetailResponseDTO(1, product, (short) 10, Money.of(1500.00));
         IngressResponseDTO responseDTO = new IngressResponseDTO(1, provider, user, "INV-001",
-            LocalDateTime.now(), 15000.00, 2700.00, List.of(responseDetail));
+            LocalDateTime.now(), Money.of(15000.00), Money.of(2700.00), List.of(responseDetail));
 
         when(ingressService.create(any(IngressRequestDTO.class))).thenReturn(responseDTO);
+        when(idempotencyStore.execute(eq("ingress"), isNull(), any(IngressRequestDTO.class), eq(IngressResponseDTO.class),
+                any())).thenAnswer(invocation -> invocation.<Supplier<IngressResponseDTO>>getArgument(4).get());
 
         mockMvc.perform(post("/ingress")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -3,6 +3,8 @@ package com.alonso.salesapp.controller;
 import com.alonso.salesapp.dto.product.ProductRequestDTO;
 import com.alonso.salesapp.dto.product.ProductResponseDTO;
 import com.alonso.salesapp.exception.ModelNotFoundException;
+import com.alonso.salesapp.model.ImageStatus;
+import com.alonso.salesapp.model.Money;
 import com.alonso.salesapp.service.IProductService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -45,9 +47,9 @@ class ProductControllerTest {
     @DisplayName("Debería retornar todos los productos cuando se llama a GET /products")
     void shouldReturnAllProducts_whenGetAllProductsIsCalled() throws Exception {
         ProductResponseDTO product1 = new ProductResponseDTO(1, 1, "High performance laptop", "Description 1",
-                2000.00, 15, null, null, true);
+                Money.of(2000.00), 15, null, null, true, ImageStatus.NONE);
         ProductResponseDTO product2 = new ProductResponseDTO(2, 2, "Latest model smartphone", "Description 2",
-                1500.00, 20, null, null, true);
+                Money.of(1500.00), 20, null, null, true, ImageStatus.NONE);
 
         Page<ProductResponseDTO> productsPage = new PageImpl<>(List.of(product1, product2));
 
@@ -62,12 +64,25 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.content[0].name").value("High performance laptop"));
     }
 
+    @Test
+    @DisplayName("Debería buscar productos por texto cuando se llama a GET /products/search")
+    void shouldSearchProducts_whenSearchIsCalled() throws Exception {
+        ProductResponseDTO product = new ProductResponseDTO(1, 1, "Laptop HP 15", "Laptop HP 15 pulgadas",
+                Money.of(899.99), 15, null, null, true, ImageStatus.NONE);
+        when(productService.search("laptop", 0, 10)).thenReturn(new PageImpl<>(List.of(product)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/products/search").param("q", "laptop"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Laptop HP 15"));
+    }
+
     @Test
     @DisplayName("Debería crear un producto cuando se proporcionan datos válidos")
     void shouldCreateProduct_whenValidDataIsProvided() throws Exception {
         ProductRequestDTO inputDTO = new ProductRequestDTO(1, "Product 1", "High performance laptop", 2000.00, true);
         ProductResponseDTO responseDTO = new ProductResponseDTO(1, 1, "Product 1", "High performance laptop",
-                2000.00, 0, "https://cloudinary.com/image.jpg", "img_123", true);
+                Money.of(2000.00), 0, "https://cloudinary.com/image.jpg", "img_123", true, ImageStatus.READY);
 
         MockMultipartFile file = new MockMultipartFile(
                 "image",
@@ -103,7 +118,7 @@ class ProductControllerTest {
     @DisplayName("Debería retornar un producto cuando se proporciona un ID válido")
     void shouldReturnProduct_whenValidIdIsProvided() throws Exception {
         ProductResponseDTO responseDTO = new ProductResponseDTO(1, 1, "Product 1", "High performance laptop",
-                2000.00, 0, "https://cloudinary.com/image.jpg", "img_123", true);
+                Money.of(2000.00), 0, "https://cloudinary.com/image.jpg", "img_123", true, ImageStatus.READY);
 
         when(productService.readById(1)).thenReturn(responseDTO);
 
@@ -124,7 +139,7 @@ class ProductControllerTest {
     void shouldUpdateProduct_whenValidDataIsProvided() throws Exception {
         ProductRequestDTO inputDTO = new ProductRequestDTO(1, "Updated Product", "Updated description", 2500.00, true);
         ProductResponseDTO responseDTO = new ProductResponseDTO(1, 1, "Updated Product", "Updated description",
-                2500.00, 0, "https://cloudinary.com/updated_image.jpg", "img_456", true);
+                Money.of(2500.00), 0, "https://cloudinary.com/updated_image.jpg", "img_456", true, ImageStatus.READY);
 
         MockMultipartFile file = new MockMultipartFile(
                 "image",
@@ -2,13 +2,26 @@ package com.alonso.salesapp.controller;
 
 import com.alonso.salesapp.dto.client.ClientSummaryDTO;
 import com.alonso.salesapp.dto.product.ProductSummaryDTO;
+import com.alonso.salesapp.dto.sale.DailySalesDTO;
+import com.alonso.salesapp.dto.sale.SaleBatchDTO;
+import com.alonso.salesapp.dto.sale.SaleBatchItemDTO;
+import com.alonso.salesapp.dto.sale.SaleBatchResponseDTO;
 import com.alonso.salesapp.dto.sale.SaleDTO;
 import com.alonso.salesapp.dto.sale.SaleDetailDTO;
 import com.alonso.salesapp.dto.sale.SaleDetailResponseDTO;
+import com.alonso.salesapp.dto.sale.SaleFilterDTO;
+import com.alonso.salesapp.dto.sale.SalePageDTO;
 import com.alonso.salesapp.dto.sale.SaleResponseDTO;
 import com.alonso.salesapp.dto.user.UserSummaryDTO;
+import com.alonso.salesapp.exception.IdempotencyKeyReusedException;
+import com.alonso.salesapp.exception.InvalidRequestException;
 import com.alonso.salesapp.exception.ModelNotFoundException;
+import com.alonso.salesapp.model.ExportFormat;
+import com.alonso.salesapp.model.Money;
 import com.alonso.salesapp.service.ISaleService;
+import com.alonso.salesapp.service.impl.IdempotencyStore;
+import com.alonso.salesapp.service.impl.OptimisticRetry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,12 +29,24 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import tools.jackson.databind.ObjectMapper;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,32 +63,86 @@ class SaleControllerTest {
     @MockitoBean
     private ISaleService saleService;
 
+    @MockitoBean
+    private IdempotencyStore idempotencyStore;
+
+    @MockitoBean
+    private OptimisticRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        when(retry.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
     @Test
     @DisplayName("Debería retornar todas las ventas cuando se llama a GET /sales")
     void shouldReturnAllSales_whenGetAllSalesIsCalled() throws Exception {
         ClientSummaryDTO client = new ClientSummaryDTO(1, "John", "Doe");
         UserSummaryDTO user = new UserSummaryDTO(1, "admin");
-        ProductSummaryDTO product = new ProductSummaryDTO(1, "Laptop", 1500.00);
-        SaleDetailResponseDTO detail = new SaleDetailResponseDTO(product, (short) 2, 1500.00, 0.0);
+        ProductSummaryDTO product = new ProductSummaryDTO(1, "Laptop", Money.of(1500.00));
+        SaleDetailResponseDTO detail = new SaleDetailResponseDTO(product, (short) 2, Money.of(1500.00), Money.of(0.0));
 
         SaleResponseDTO sale1 = new SaleResponseDTO(1, client, user, LocalDateTime.now(),
-            3000.00, 540.00, List.of(detail));
+            Money.of(3000.00), Money.of(540.00), List.of(detail));
         SaleResponseDTO sale2 = new SaleResponseDTO(2, client, user, LocalDateTime.now(),
-            1500.00, 270.00, List.of(detail));
+            Money.of(1500.00), Money.of(270.00), List.of(detail));
 
-        List<SaleResponseDTO> sales = List.of(sale1, sale2);
+        SalePageDTO page = new SalePageDTO(List.of(sale1, sale2), false, null, null);
 
-        when(saleService.readAll()).thenReturn(sales);
+        when(saleService.readPage(any(SaleFilterDTO.class), eq(20))).thenReturn(page);
 
         mockMvc.perform(get("/sales")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].idSale").value(1))
+                .andExpect(jsonPath("$.content[0].total").value(3000.00))
+                .andExpect(jsonPath("$.content[1].idSale").value(2))
+                .andExpect(jsonPath("$.content[1].total").value(1500.00))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    @DisplayName("Debería retornar los totales diarios cuando se llama a GET /sales/summary/daily")
+    void shouldReturnDailySummary_whenSummaryIsCalled() throws Exception {
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 2);
+        when(saleService.readDailySummary(from, to, 2, null)).thenReturn(List.of(
+                new DailySalesDTO(from, 4L, 120.0, 3L),
+                new DailySalesDTO(to, 1L, 30.0, 1L)));
+
+        mockMvc.perform(get("/sales/summary/daily")
+                        .param("from", "2026-03-01")
+                        .param("to", "2026-03-02")
+                        .param("idCategory", "2"))
+                .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].idSale").value(1))
-                .andExpect(jsonPath("$[0].total").value(3000.00))
-                .andExpect(jsonPath("$[1].idSale").value(2))
-                .andExpect(jsonPath("$[1].total").value(1500.00));
+                .andExpect(jsonPath("$[0].day").value("2026-03-01"))
+                .andExpect(jsonPath("$[0].units").value(4))
+                .andExpect(jsonPath("$[1].revenue").value(30.0));
+
+        verify(saleService).readDailySummary(from, to, 2, null);
+    }
+
+    @Test
+    @DisplayName("Debería exportar las ventas en streaming cuando se llama a GET /sales/export")
+    void shouldStreamExport_whenExportIsCalled() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("idSale\n1\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(saleService).export(eq(ExportFormat.CSV), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/sales/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"sales.csv\""))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("idSale\n1\n"));
     }
 
     @Test
@@ -71,11 +150,11 @@ class SaleControllerTest {
     void shouldReturnSale_whenValidIdIsProvided() throws Exception {
         ClientSummaryDTO client = new ClientSummaryDTO(1, "John", "Doe");
         UserSummaryDTO user = new UserSummaryDTO(1, "admin");
-        ProductSummaryDTO product = new ProductSummaryDTO(1, "Laptop", 1500.00);
-        SaleDetailResponseDTO detail = new SaleDetailResponseDTO(product, (short) 2, 1500.00, 0.0);
+        ProductSummaryDTO product = new ProductSummaryDTO(1, "Laptop", Money.of(1500.00));
+        SaleDetailResponseDTO detail = new SaleDetailResponseDTO(product, (short) 2, Money.of(1500.00), Money.of(0.0));
 
         SaleResponseDTO sale = new SaleResponseDTO(1, client, user, LocalDateTime.now(),
-            3000.00, 540.00, List.of(detail));
+            Money.of(3000.00), Money.of(540.00), List.of(detail));
 
         when(saleService.readById(1)).thenReturn(sale);
 
@@ -97,12 +176,14 @@ class SaleControllerTest {
 
         ClientSummaryDTO client = new ClientSummaryDTO(1, "John", "Doe");
         UserSummaryDTO user = new UserSummaryDTO(1, "admin");
-        ProductSummaryDTO product = new ProductSummaryDTO(1, "Laptop", 1500.00);
-        SaleDetailResponseDTO responseDetail = new SaleDetailResponseDTO(product, (short) 2, 1500.00, 0.0);
+        ProductSummaryDTO product = new ProductSummaryDTO(1, "Laptop", Money.of(1500.00));
+        SaleDetailResponseDTO responseDetail = new SaleDetailResponseDTO(product, (short) 2, Money.of(1500.00), Money.of(0.0));
         SaleResponseDTO responseDTO = new SaleResponseDTO(1, client, user, LocalDateTime.now(),
-            3000.00, 540.00, List.of(responseDetail));
+            Money.of(3000.00), Money.of(540.00), List.of(responseDetail));
 
         when(saleService.create(any(SaleDTO.class))).thenReturn(responseDTO);
+        when(idempotencyStore.execute(eq("sale"), isNull(), any(SaleDTO.class), eq(SaleResponseDTO.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<SaleResponseDTO>>getArgument(4).get());
 
         mockMvc.perform(post("/sales")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -113,6 +194,105 @@ class SaleControllerTest {
                 .andExpect(jsonPath("$.total").value(3000.00));
     }
 
+    @Test
+    @DisplayName("Debería devolver la venta guardada cuando se repite la Idempotency-Key")
+    void shouldReplayStoredSale_whenIdempotencyKeyIsRepeated() throws Exception {
+        SaleDetailDTO detail = new SaleDetailDTO(null, 1, (short) 2, 1500.00, 0.0);
+        SaleDTO inputDTO = new SaleDTO(null, 1, 1, LocalDateTime.now(), 540.00, List.of(detail));
+        SaleResponseDTO stored = new SaleResponseDTO(7, new ClientSummaryDTO(1, "John", "Doe"),
+                new UserSummaryDTO(1, "admin"), LocalDateTime.now(), Money.of(3000.00), Money.of(540.00), List.of());
+
+        when(idempotencyStore.execute(eq("sale"), eq("pos-1-000042"), eq(inputDTO), eq(SaleResponseDTO.class), any()))
+                .thenReturn(stored);
+
+        mockMvc.perform(post("/sales")
+                        .header(IdempotencyStore.HEADER, "pos-1-000042")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inputDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.idSale").value(7));
+
+        verify(saleService, never()).create(any(SaleDTO.class));
+    }
+
+    @Test
+    @DisplayName("Debería retornar 422 cuando la Idempotency-Key ya se usó con otra venta")
+    void shouldReturnUnprocessable_whenIdempotencyKeyIsReusedWithOtherBody() throws Exception {
+        SaleDetailDTO detail = new SaleDetailDTO(null, 1, (short) 2, 1500.00, 0.0);
+        SaleDTO inputDTO = new SaleDTO(null, 1, 1, LocalDateTime.now(), 540.00, List.of(detail));
+
+        when(idempotencyStore.execute(eq("sale"), eq("pos-1-000042"), any(SaleDTO.class), eq(SaleResponseDTO.class),
+                any())).thenThrow(new IdempotencyKeyReusedException("Idempotency-Key ya usada"));
+
+        mockMvc.perform(post("/sales")
+                        .header(IdempotencyStore.HEADER, "pos-1-000042")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inputDTO)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.exception").value("IdempotencyKeyReusedException"));
+
+        verify(saleService, never()).create(any(SaleDTO.class));
+    }
+
+    @Test
+    @DisplayName("Debería retornar un resultado por venta cuando se llama a POST /sales/batch")
+    void shouldReturnPerSaleResults_whenBatchIsPosted() throws Exception {
+        SaleDetailDTO detail = new SaleDetailDTO(null, 1, (short) 2, 1500.00, 0.0);
+        SaleDTO first = new SaleDTO(null, 1, 1, LocalDateTime.now(), null, List.of(detail));
+        SaleDTO second = new SaleDTO(null, 99, 1, LocalDateTime.now(), null, List.of(detail));
+        SaleResponseDTO created = new SaleResponseDTO(1, new ClientSummaryDTO(1, "John", "Doe"),
+                new UserSummaryDTO(1, "admin"), LocalDateTime.now(), Money.of(3540.00), Money.of(540.00), List.of());
+        SaleBatchResponseDTO response = new SaleBatchResponseDTO(1, 1, List.of(
+                new SaleBatchItemDTO(0, created, null),
+                new SaleBatchItemDTO(1, null, "Client not found with id: 99")));
+
+        when(saleService.createBatch(anyList())).thenReturn(response);
+        when(idempotencyStore.execute(eq("sale-batch"), isNull(), any(SaleBatchDTO.class), eq(SaleBatchResponseDTO.class),
+                any())).thenAnswer(invocation -> invocation.<Supplier<SaleBatchResponseDTO>>getArgument(4).get());
+
+        mockMvc.perform(post("/sales/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SaleBatchDTO(List.of(first, second)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].sale.idSale").value(1))
+                .andExpect(jsonPath("$.results[1].error").value("Client not found with id: 99"));
+    }
+
+    @Test
+    @DisplayName("Debería pasar al servicio un lote con ventas inválidas para rechazarlas una a una")
+    void shouldNotRejectWholeBatch_whenOneSaleIsInvalid() throws Exception {
+        SaleDetailDTO detail = new SaleDetailDTO(null, 1, (short) 2, 1500.00, 0.0);
+        SaleDTO valid = new SaleDTO(null, 1, 1, LocalDateTime.now(), null, List.of(detail));
+        SaleDTO invalid = new SaleDTO(null, null, 1, LocalDateTime.now(), null, List.of(detail));
+        SaleBatchResponseDTO response = new SaleBatchResponseDTO(1, 1, List.of(
+                new SaleBatchItemDTO(0, null, "idClient: Client ID is required"),
+                new SaleBatchItemDTO(1, null, null)));
+
+        when(saleService.createBatch(anyList())).thenReturn(response);
+        when(idempotencyStore.execute(eq("sale-batch"), isNull(), any(SaleBatchDTO.class), eq(SaleBatchResponseDTO.class),
+                any())).thenAnswer(invocation -> invocation.<Supplier<SaleBatchResponseDTO>>getArgument(4).get());
+
+        mockMvc.perform(post("/sales/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SaleBatchDTO(List.of(invalid, valid)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].error").value("idClient: Client ID is required"));
+
+        verify(saleService).createBatch(argThat(sales -> sales.size() == 2 && sales.getFirst().idClient() == null));
+    }
+
+    @Test
+    @DisplayName("Debería retornar Bad Request cuando el lote está vacío")
+    void shouldReturnBadRequest_whenBatchIsEmpty() throws Exception {
+        mockMvc.perform(post("/sales/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SaleBatchDTO(List.of()))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.sales").exists());
+    }
+
     @Test
     @DisplayName("Debería retornar Bad Request cuando el client ID es null")
     void shouldReturnBadRequest_whenClientIdIsNull() throws Exception {
@@ -189,13 +369,45 @@ class SaleControllerTest {
     @Test
     @DisplayName("Debería retornar lista vacía cuando no hay ventas")
     void shouldReturnEmptyList_whenNoSalesExist() throws Exception {
-        when(saleService.readAll()).thenReturn(List.of());
+        when(saleService.readPage(any(SaleFilterDTO.class), eq(20)))
+                .thenReturn(new SalePageDTO(List.of(), false, null, null));
 
         mockMvc.perform(get("/sales")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.length()").value(0));
+                .andExpect(jsonPath("$.content.length()").value(0));
+    }
+
+    @Test
+    @DisplayName("Debería pasar filtros y cursor al servicio cuando se llama a GET /sales con parámetros")
+    void shouldPassFiltersAndCursor_whenQueryParamsAreProvided() throws Exception {
+        LocalDateTime cursor = LocalDateTime.of(2026, 1, 15, 10, 30, 0, 123456000);
+        SaleFilterDTO expected = new SaleFilterDTO(LocalDateTime.of(2026, 1, 1, 0, 0), null, 3, null, cursor, 42);
+
+        when(saleService.readPage(expected, 50)).thenReturn(new SalePageDTO(List.of(), false, null, null));
+
+        mockMvc.perform(get("/sales")
+                        .param("from", "2026-01-01T00:00:00")
+                        .param("idClient", "3")
+                        .param("afterDateTime", "2026-01-15T10:30:00.123456")
+                        .param("afterId", "42")
+                        .param("size", "50"))
+                .andExpect(status().isOk());
+
+        verify(saleService).readPage(expected, 50);
+    }
+
+    @Test
+    @DisplayName("Debería retornar Bad Request cuando el cursor viene incompleto")
+    void shouldReturnBadRequest_whenCursorIsPartial() throws Exception {
+        when(saleService.readPage(any(SaleFilterDTO.class), eq(20)))
+                .thenThrow(new InvalidRequestException("El cursor requiere afterDateTime y afterId juntos"));
+
+        mockMvc.perform(get("/sales")
+                        .param("afterDateTime", "2026-01-15T10:30:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("El cursor requiere afterDateTime y afterId juntos"));
     }
 
     @Test
@@ -0,0 +1,50 @@
+package com.alonso.salesapp.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Money Tests")
+class MoneyTest {
+
+    @Test
+    @DisplayName("Debe redondear los double al céntimo más cercano")
+    void of_RoundsToCents() {
+        assertEquals(1010, Money.of(10.1).cents());
+        assertEquals(30, Money.of(0.1 + 0.2).cents());
+        assertEquals(1250, Money.of(new BigDecimal("12.499")).cents());
+    }
+
+    @Test
+    @DisplayName("Debe calcular las líneas y el impuesto sin errores de redondeo")
+    void lineAndPercent_ExactArithmetic() {
+        Money price = Money.of(19.99);
+
+        assertEquals(5947, Money.lineCents(3, price, Money.of(0.5)));
+        assertEquals(5997, Money.lineCents(3, price, null));
+        // 18% de 59.47 = 10.7046 -> 10.70; 18% de 0.25 = 0.045 -> 0.05 (mitad hacia arriba)
+        assertEquals(Money.ofCents(1070), Money.ofCents(5947).percent(18));
+        assertEquals(Money.ofCents(5), Money.of(0.25).percent(18));
+    }
+
+    @Test
+    @DisplayName("Debe mostrar siempre dos decimales")
+    void toString_TwoDecimals() {
+        assertEquals("12.50", Money.of(12.5).toString());
+        assertEquals("0.05", Money.ofCents(5).toString());
+        assertEquals("-3.07", Money.ofCents(-307).toString());
+    }
+
+    @Test
+    @DisplayName("Debe serializar y deserializar como número JSON")
+    void json_RoundTrip() {
+        JsonMapper mapper = JsonMapper.builder().build();
+
+        assertEquals("12.50", mapper.writeValueAsString(Money.of(12.5)));
+        assertEquals(Money.ofCents(1999), mapper.readValue("19.99", Money.class));
+    }
+}
@@ -0,0 +1,130 @@
+package com.alonso.salesapp.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reportes de analítica sobre un año de ventas (500k ventas, 1,5M líneas) en PostgreSQL real.
+ * No corre con el build normal: mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AnalyticsBenchmarkTest {
+
+    private static final int SALES = 500_000;
+    private static final int LINES_PER_SALE = 3;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int WARMUP = 20;
+    private static final int MEASURED = 100;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private AnalyticsRepo analyticsRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void loadSales() {
+        // El import.sql vacío de los tests tapa los datos de ejemplo: clientes 1-8, cajeros 1-5 y productos 1-14
+        // se crean aquí (contenedor nuevo, los ids IDENTITY empiezan en 1)
+        jdbcTemplate.update("INSERT INTO role (id_role, name, enabled) VALUES (1, 'ROLE_ADMIN', true)");
+        jdbcTemplate.update("""
+                INSERT INTO user_data (id_role, username, password, enabled, token_version)
+                SELECT 1, 'cashier' || g, 'x', true, 0 FROM generate_series(1, 5) g""");
+        jdbcTemplate.update("""
+                INSERT INTO client (first_name, last_name, card_id, phone_number, email, address)
+                SELECT 'Cliente', 'Nro ' || g, lpad(g::text, 10, '0'), '0999999999', 'cliente' || g || '@mail.com', 'Centro'
+                FROM generate_series(1, 8) g""");
+        jdbcTemplate.update("INSERT INTO category (name, description, enabled) VALUES ('General', 'General', true)");
+        jdbcTemplate.update("""
+                INSERT INTO product (id_category, name, description, price, stock, enabled)
+                SELECT 1, 'Producto ' || g, 'Producto ' || g, 10 + g * 5, 1000, true
+                FROM generate_series(1, 14) g""");
+
+        // Ventas repartidas uniformemente en 365 días
+        jdbcTemplate.update("""
+                INSERT INTO sale (id_sale, id_client, id_user, date_time, total, tax)
+                SELECT g, 1 + g % 8, 1 + g % 5,
+                       TIMESTAMP '2025-01-01' + (g * (365.0 * 86400 / ?)) * INTERVAL '1 second',
+                       round((20 + (g * 37) % 900)::numeric, 2), round(((20 + (g * 37) % 900) * 0.18)::numeric, 2)
+                FROM generate_series(1, ?) g
+                """, SALES, SALES);
+        jdbcTemplate.update("""
+                INSERT INTO sale_detail (id_sale_detail, id_sale, id_product, quantity, sale_price, discount)
+                SELECT (s - 1) * ? + l, s, 1 + (s * 7 + l * 3) % 14, 1 + (s + l) % 4, 10 + (s * l) % 200, 0
+                FROM generate_series(1, ?) s, generate_series(1, ?) l
+                """, LINES_PER_SALE, SALES, LINES_PER_SALE);
+        jdbcTemplate.execute("ANALYZE sale");
+        jdbcTemplate.execute("ANALYZE sale_detail");
+    }
+
+    @Test
+    void rangeQueriesUseIndexes() {
+        String plan = String.join("\n", jdbcTemplate.queryForList("""
+                EXPLAIN SELECT d.id_product, SUM(d.quantity) FROM sale s
+                JOIN sale_detail d ON d.id_sale = s.id_sale
+                WHERE s.date_time >= TIMESTAMP '2025-06-01' AND s.date_time < TIMESTAMP '2025-06-02'
+                GROUP BY d.id_product""", String.class));
+
+        assertThat(plan).containsIgnoringCase("idx_sale_datetime_id");
+        assertThat(plan).containsIgnoringCase("idx_saledetail_sale");
+    }
+
+    @Test
+    void weeklyReportsStayInteractive() {
+        LocalDateTime from = START.plusMonths(5);
+        LocalDateTime to = from.plusDays(7);
+
+        double topProducts = p95("top products", () -> analyticsRepo.findTopProducts(from, to, 10));
+        double revenue = p95("revenue by day", () -> analyticsRepo.findRevenueByPeriod(from, to, "day"));
+        double ticket = p95("ticket stats", () -> analyticsRepo.findTicketStats(from, to));
+        double cashiers = p95("sales by cashier", () -> analyticsRepo.findSalesByCashier(from, to));
+
+        // Una semana son ~9.600 ventas y ~29.000 líneas de un total de 1,5M
+        assertThat(List.of(topProducts, revenue, ticket, cashiers)).allMatch(ms -> ms < 100.0);
+    }
+
+    private double p95(String name, Runnable query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.run();
+        }
+        long[] nanos = new long[MEASURED];
+        for (int i = 0; i < MEASURED; i++) {
+            long start = System.nanoTime();
+            query.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double p50 = nanos[MEASURED / 2] / 1_000_000.0;
+        double p95 = nanos[MEASURED * 95 / 100] / 1_000_000.0;
+        System.out.printf("Analytics %-16s over %,d sales / %,d lines: p50=%.2f ms, p95=%.2f ms%n",
+                name, SALES, SALES * LINES_PER_SALE, p50, p95);
+        return p95;
+    }
+}
@@ -0,0 +1,156 @@
+package com.alonso.salesapp.repository;
+
+import com.alonso.salesapp.dto.analytics.CashierSalesDTO;
+import com.alonso.salesapp.dto.analytics.ProductMarginDTO;
+import com.alonso.salesapp.dto.analytics.TicketStatsDTO;
+import com.alonso.salesapp.dto.analytics.TopProductDTO;
+import com.alonso.salesapp.model.*;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class AnalyticsRepoTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2026, 4, 1, 0, 0);
+
+    @Autowired
+    private AnalyticsRepo analyticsRepo;
+
+    @Autowired
+    private SaleRepo saleRepo;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Client client;
+    private User ana;
+    private User luis;
+    private Product laptop;
+    private Product mouse;
+
+    @BeforeEach
+    void setUp() {
+        Role role = Role.builder().idRole(1).name("SELLER").enabled(true).build();
+        entityManager.persist(role);
+
+        ana = User.builder().username("ana").password("secret").role(role).build();
+        entityManager.persist(ana);
+        luis = User.builder().username("luis").password("secret").role(role).build();
+        entityManager.persist(luis);
+
+        client = Client.builder()
+                .firstName("Carla")
+                .lastName("Pérez")
+                .cardId("0102030405")
+                .phoneNumber("0999999999")
+                .email("carla@mail.com")
+                .address("Av. Siempre Viva")
+                .build();
+        entityManager.persist(client);
+
+        Category category = Category.builder().name("Electronics").description("Electronic devices").enabled(true).build();
+        entityManager.persist(category);
+
+        laptop = Product.builder().name("Laptop").description("Laptop").price(Money.of(500.0)).stock(10).category(category).build();
+        entityManager.persist(laptop);
+        mouse = Product.builder().name("Mouse").description("Mouse").price(Money.of(20.0)).stock(100).category(category).build();
+        entityManager.persist(mouse);
+
+        saleRepo.save(sale(ana, FROM.plusDays(1), 520.0, line(laptop, 1, 500.0), line(mouse, 1, 20.0)));
+        saleRepo.save(sale(ana, FROM.plusDays(2), 60.0, line(mouse, 3, 20.0)));
+        saleRepo.save(sale(luis, FROM.plusDays(2), 100.0, line(mouse, 5, 20.0)));
+        // Fuera del rango: no debe contar
+        saleRepo.save(sale(luis, TO, 999.0, line(laptop, 2, 499.5)));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testFindTopProducts_RanksByUnitsWithinRange() {
+        List<TopProductDTO> top = analyticsRepo.findTopProducts(FROM, TO, 10);
+
+        assertThat(top).hasSize(2);
+        assertThat(top.getFirst().ranking()).isEqualTo(1L);
+        assertThat(top.getFirst().name()).isEqualTo("Mouse");
+        assertThat(top.getFirst().units()).isEqualTo(9L);
+        assertThat(top.getFirst().revenue()).isEqualTo(180.0);
+        assertThat(top.get(1).name()).isEqualTo("Laptop");
+        assertThat(top.get(0).revenueShare() + top.get(1).revenueShare()).isCloseTo(100.0, within(0.001));
+
+        assertThat(analyticsRepo.findTopProducts(FROM, TO, 1)).hasSize(1);
+    }
+
+    @Test
+    public void testFindTicketStats_AggregatesSaleTotals() {
+        TicketStatsDTO stats = analyticsRepo.findTicketStats(FROM, TO);
+
+        assertThat(stats.sales()).isEqualTo(3L);
+        assertThat(stats.revenue()).isEqualTo(680.0);
+        assertThat(stats.medianTicket()).isEqualTo(100.0);
+        assertThat(stats.maxTicket()).isEqualTo(520.0);
+    }
+
+    @Test
+    public void testFindSalesByCashier_RanksByRevenue() {
+        List<CashierSalesDTO> cashiers = analyticsRepo.findSalesByCashier(FROM, TO);
+
+        assertThat(cashiers).extracting(CashierSalesDTO::username).containsExactly("ana", "luis");
+        assertThat(cashiers.getFirst().sales()).isEqualTo(2L);
+        assertThat(cashiers.getFirst().averageTicket()).isEqualTo(290.0);
+        assertThat(cashiers.get(1).ranking()).isEqualTo(2L);
+        // Nada se hidrata como entidad
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    public void testFindMarginByProduct_UsesLineCostSnapshot() {
+        List<ProductMarginDTO> margins = analyticsRepo.findMarginByProduct(FROM, TO);
+
+        assertThat(margins).extracting(ProductMarginDTO::name).containsExactly("Laptop", "Mouse");
+        ProductMarginDTO laptopMargin = margins.getFirst();
+        assertThat(laptopMargin.revenue()).isEqualTo(500.0);
+        assertThat(laptopMargin.cost()).isCloseTo(300.0, within(0.001));
+        assertThat(laptopMargin.margin()).isCloseTo(200.0, within(0.001));
+        assertThat(laptopMargin.marginPercent()).isCloseTo(40.0, within(0.001));
+        assertThat(margins.get(1).units()).isEqualTo(9L);
+        assertThat(margins.get(1).margin()).isCloseTo(72.0, within(0.001));
+    }
+
+    private Sale sale(User user, LocalDateTime dateTime, double total, SaleDetail... lines) {
+        Sale sale = Sale.builder()
+                .client(client)
+                .user(user)
+                .dateTime(dateTime)
+                .total(Money.of(total))
+                .tax(Money.of(0.0))
+                .details(new ArrayList<>(List.of(lines)))
+                .build();
+        sale.getDetails().forEach(line -> line.setSale(sale));
+        return sale;
+    }
+
+    private SaleDetail line(Product product, int quantity, double price) {
+        return SaleDetail.builder()
+                .product(product)
+                .quantity((short) quantity)
+                .salePrice(Money.of(price))
+                .discount(Money.of(0.0))
+                // Coste medio del 60% del precio
+                .unitCost(price * 0.6)
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.alonso.salesapp.repository;
+
+import com.alonso.salesapp.dto.client.ClientDTO;
+import com.alonso.salesapp.mapper.ClientMapper;
+import com.alonso.salesapp.mapper.ClientMapperImpl;
+import com.alonso.salesapp.model.Client;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@DataJpaTest
+@ActiveProfiles("test")
+public class ClientRepoTest {
+
+    private static final int ROWS = 2_000;
+
+    @Autowired
+    private ClientRepo clientRepo;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final ClientMapper mapper = new ClientMapperImpl();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ROWS; i++) {
+            entityManager.persist(Client.builder()
+                    .firstName("Nombre " + i)
+                    .lastName("Apellido " + i)
+                    .cardId(String.format("%010d", i))
+                    .phoneNumber("0999999999")
+                    .email("cliente" + i + "@mail.com")
+                    .address("Dirección " + i)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testFindAllAsDTO() {
+        List<ClientDTO> clients = clientRepo.findAllAsDTO();
+
+        assertThat(clients).hasSize(ROWS);
+        assertThat(clients.getFirst().firstName()).isEqualTo("Nombre 0");
+        assertThat(clients.getFirst().cardId()).isEqualTo("0000000000");
+        // Nada queda en el contexto de persistencia
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    // Medición de memoria, no corre con el build normal: mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark
+    @Test
+    @Tag("benchmark")
+    public void testFindAllAsDTO_AllocatesLessPerRowThanEntities() {
+        // Calentamiento: compilación de las consultas y carga de clases fuera de la medición
+        readWithEntities();
+        clientRepo.findAllAsDTO();
+        entityManager.clear();
+
+        long entityBytes = allocatedBytes(this::readWithEntities);
+        entityManager.clear();
+        long projectionBytes = allocatedBytes(clientRepo::findAllAsDTO);
+
+        log.info("Clientes ({} filas): entidades + MapStruct {} B/fila, proyección {} B/fila",
+                ROWS, entityBytes / ROWS, projectionBytes / ROWS);
+        assertThat(projectionBytes).isLessThan(entityBytes);
+    }
+
+    private List<ClientDTO> readWithEntities() {
+        return clientRepo.findAll().stream().map(mapper::toDTO).toList();
+    }
+
+    private long allocatedBytes(Supplier<?> action) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        action.get();
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+}
@@ -0,0 +1,134 @@
+package com.alonso.salesapp.repository;
+
+import com.alonso.salesapp.dto.sale.DailySalesDTO;
+import com.alonso.salesapp.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class DailySalesSummaryRepoTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2026, 3, 1);
+    private static final LocalDate DAY_2 = LocalDate.of(2026, 3, 2);
+
+    @Autowired
+    private DailySalesSummaryRepo summaryRepo;
+
+    @Autowired
+    private SaleRepo saleRepo;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Client client;
+    private User user;
+    private Product laptop;
+    private Product mouse;
+
+    @BeforeEach
+    void setUp() {
+        Role role = Role.builder().idRole(1).name("ADMIN").enabled(true).build();
+        entityManager.persist(role);
+
+        user = User.builder().username("seller").password("secret").role(role).build();
+        entityManager.persist(user);
+
+        client = Client.builder()
+                .firstName("Ana")
+                .lastName("Pérez")
+                .cardId("0102030405")
+                .phoneNumber("0999999999")
+                .email("ana@mail.com")
+                .address("Av. Siempre Viva")
+                .build();
+        entityManager.persist(client);
+
+        Category electronics = Category.builder().name("Electronics").description("Electronic devices").enabled(true).build();
+        entityManager.persist(electronics);
+        Category accessories = Category.builder().name("Accessories").description("Accessories").enabled(true).build();
+        entityManager.persist(accessories);
+
+        laptop = Product.builder().name("Laptop").description("Laptop").price(Money.of(1000.0)).stock(10).category(electronics).build();
+        entityManager.persist(laptop);
+        mouse = Product.builder().name("Mouse").description("Mouse").price(Money.of(20.0)).stock(100).category(accessories).build();
+        entityManager.persist(mouse);
+
+        saleRepo.save(sale(DAY_1.atTime(9, 0), line(laptop, 1, 1000.0, 50.0), line(mouse, 2, 20.0, 0.0)));
+        saleRepo.save(sale(DAY_1.atTime(17, 45), line(mouse, 3, 20.0, 0.0)));
+        saleRepo.save(sale(DAY_2.atTime(10, 15), line(laptop, 2, 1000.0, 0.0)));
+        entityManager.flush();
+    }
+
+    @Test
+    public void testBackfillFrom_AggregatesPerDayProductAndUser() {
+        int rows = summaryRepo.backfillFrom(LocalDateTime.of(2026, 1, 1, 0, 0));
+        entityManager.clear();
+
+        // (día 1, laptop), (día 1, mouse), (día 2, laptop)
+        assertThat(rows).isEqualTo(3);
+
+        DailySalesSummary mouseDay1 = summaryRepo.findById(
+                new DailySalesSummaryId(DAY_1, mouse.getIdProduct(), user.getIdUser())).orElseThrow();
+        assertThat(mouseDay1.getUnits()).isEqualTo(5);
+        assertThat(mouseDay1.getRevenue()).isEqualTo(100.0);
+        assertThat(mouseDay1.getLineCount()).isEqualTo(2);
+        assertThat(mouseDay1.getIdCategory()).isEqualTo(mouse.getCategory().getIdCategory());
+    }
+
+    @Test
+    public void testFindDailyTotals_ReadsFromSummary() {
+        summaryRepo.backfillFrom(LocalDateTime.of(2026, 1, 1, 0, 0));
+
+        List<DailySalesDTO> all = summaryRepo.findDailyTotals(DAY_1, DAY_2, null, null);
+        assertThat(all).containsExactly(
+                new DailySalesDTO(DAY_1, 6L, 1050.0, 3L),
+                new DailySalesDTO(DAY_2, 2L, 2000.0, 1L));
+
+        List<DailySalesDTO> accessories = summaryRepo.findDailyTotals(DAY_1, DAY_2,
+                mouse.getCategory().getIdCategory(), user.getIdUser());
+        assertThat(accessories).containsExactly(new DailySalesDTO(DAY_1, 5L, 100.0, 2L));
+    }
+
+    @Test
+    public void testDeleteFrom_ThenBackfill_RebuildsOnlyFromDate() {
+        summaryRepo.backfillFrom(LocalDateTime.of(2026, 1, 1, 0, 0));
+
+        assertThat(summaryRepo.deleteFrom(DAY_2)).isEqualTo(1);
+        assertThat(summaryRepo.backfillFrom(DAY_2.atStartOfDay())).isEqualTo(1);
+        assertThat(summaryRepo.count()).isEqualTo(3);
+    }
+
+    private Sale sale(LocalDateTime dateTime, SaleDetail... lines) {
+        Sale sale = Sale.builder()
+                .client(client)
+                .user(user)
+                .dateTime(dateTime)
+                .total(Money.of(0.0))
+                .tax(Money.of(0.0))
+                .details(new ArrayList<>(List.of(lines)))
+                .build();
+        sale.getDetails().forEach(line -> line.setSale(sale));
+        return sale;
+    }
+
+    private SaleDetail line(Product product, int quantity, double price, double discount) {
+        return SaleDetail.builder()
+                .product(product)
+                .quantity((short) quantity)
+                .salePrice(Money.of(price))
+                .discount(Money.of(discount))
+                .build();
+    }
+}
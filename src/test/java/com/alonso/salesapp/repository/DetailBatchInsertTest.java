@@ -0,0 +1,146 @@
+package com.alonso.salesapp.repository;
+
+import com.alonso.salesapp.model.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class DetailBatchInsertTest {
+
+    private static final int LINES = 40;
+
+    @Autowired
+    private SaleRepo saleRepo;
+
+    @Autowired
+    private IngressRepo ingressRepo;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private Client client;
+    private User user;
+    private Provider provider;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        Role role = Role.builder().idRole(1).name("ADMIN").enabled(true).build();
+        entityManager.persist(role);
+
+        user = User.builder().username("seller").password("secret").role(role).build();
+        entityManager.persist(user);
+
+        client = Client.builder()
+                .firstName("Ana")
+                .lastName("Pérez")
+                .cardId("0102030405")
+                .phoneNumber("0999999999")
+                .email("ana@mail.com")
+                .address("Av. Siempre Viva")
+                .build();
+        entityManager.persist(client);
+
+        provider = Provider.builder().name("Proveedor").address("Calle 1").enabled(true).build();
+        entityManager.persist(provider);
+
+        Category category = Category.builder().name("Electronics").description("Electronic devices").enabled(true).build();
+        entityManager.persist(category);
+
+        product = Product.builder()
+                .name("Mouse")
+                .description("Wireless mouse")
+                .price(Money.of(10.0))
+                .stock(1000)
+                .category(category)
+                .build();
+        entityManager.persist(product);
+        entityManager.flush();
+
+        // Primer documento: inicializa las secuencias (la reserva de ids se hace una vez por bloque)
+        saleRepo.save(sale(1));
+        ingressRepo.save(ingress(1));
+        entityManager.flush();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testSaveSale_BatchesDetailInserts() {
+        saleRepo.save(sale(LINES));
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(LINES + 1);
+        // Cabecera + un lote con los 40 detalles (con IDENTITY eran 41 sentencias)
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    public void testSaveIngress_BatchesDetailInserts() {
+        ingressRepo.save(ingress(LINES));
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(LINES + 1);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    private Sale sale(int lines) {
+        Sale sale = Sale.builder()
+                .client(client)
+                .user(user)
+                .dateTime(LocalDateTime.now())
+                .total(Money.of(10.0 * lines))
+                .tax(Money.of(0.0))
+                .build();
+        List<SaleDetail> details = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            details.add(SaleDetail.builder()
+                    .sale(sale)
+                    .product(product)
+                    .quantity((short) 1)
+                    .salePrice(Money.of(10.0))
+                    .discount(Money.of(0.0))
+                    .build());
+        }
+        sale.setDetails(details);
+        return sale;
+    }
+
+    private Ingress ingress(int lines) {
+        Ingress ingress = Ingress.builder()
+                .provider(provider)
+                .user(user)
+                .dateTime(LocalDateTime.now())
+                .serialNumber("F-001")
+                .total(Money.of(5.0 * lines))
+                .tax(Money.of(0.0))
+                .build();
+        List<IngressDetail> details = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            details.add(IngressDetail.builder()
+                    .ingress(ingress)
+                    .product(product)
+                    .quantity((short) 1)
+                    .cost(Money.of(5.0))
+                    .build());
+        }
+        ingress.setDetails(details);
+        return ingress;
+    }
+}
@@ -1,6 +1,8 @@
 package com.alonso.salesapp.repository;
 
+import com.alonso.salesapp.model.Money;
 import com.alonso.salesapp.model.Category;
+import com.alonso.salesapp.model.ImageStatus;
 import com.alonso.salesapp.model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,7 +12,9 @@ import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -41,7 +45,7 @@ public class ProductRepoTest {
         product = Product.builder()
                 .name("Laptop")
                 .description("Gaming laptop")
-                .price(1500.0)
+                .price(Money.of(1500.0))
                 .stock(10)
                 .category(category)
                 .enabled(true)
@@ -58,7 +62,7 @@ public class ProductRepoTest {
 
 
         // Ejecutar la consulta con bloqueo
-        Optional<Product> result = productRepo.findByIdLocked(1);
+        Optional<Product> result = productRepo.findByIdLocked(product.getIdProduct());
 
         // Verificar que el producto se encuentre y tenga los datos correctos
         assertThat(result).isPresent();
@@ -73,4 +77,67 @@ public class ProductRepoTest {
         // Verificar que no se encuentre
         assertThat(result).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @Transactional
+    public void testFindAllByIdLocked() {
+        Product mouse = Product.builder()
+                .name("Mouse")
+                .description("Wireless mouse")
+                .price(Money.of(50.0))
+                .stock(20)
+                .category(category)
+                .enabled(true)
+                .build();
+        entityManager.persist(mouse);
+        entityManager.flush();
+
+        // Ejecutar la consulta con bloqueo (incluye un id inexistente)
+        List<Product> result = productRepo.findAllByIdLocked(Set.of(mouse.getIdProduct(), product.getIdProduct(), 999));
+
+        // Verificar que vengan solo los existentes y ordenados por id
+        assertThat(result).extracting(Product::getIdProduct)
+                .containsExactly(product.getIdProduct(), mouse.getIdProduct());
+    }
+
+    @Test
+    @Transactional
+    public void testDecrementStockIfAvailable() {
+        // Hay 10 en stock: se descuentan 4
+        int updated = productRepo.decrementStockIfAvailable(product.getIdProduct(), 4);
+
+        // No alcanza: quedan 6 y se piden 7
+        int rejected = productRepo.decrementStockIfAvailable(product.getIdProduct(), 7);
+
+        entityManager.clear();
+        assertThat(updated).isEqualTo(1);
+        assertThat(rejected).isZero();
+        assertThat(productRepo.findById(product.getIdProduct()).orElseThrow().getStock()).isEqualTo(6);
+    }
+
+    @Test
+    @Transactional
+    public void testAdjustStock() {
+        // Deltas netos como los que vuelca el ledger: +5 y luego -3
+        productRepo.adjustStock(product.getIdProduct(), 5);
+        productRepo.adjustStock(product.getIdProduct(), -3);
+
+        entityManager.clear();
+        assertThat(productRepo.findById(product.getIdProduct()).orElseThrow().getStock()).isEqualTo(12);
+    }
+
+    @Test
+    @Transactional
+    public void testImageUpdates_BumpVersion() {
+        long version = product.getVersion();
+
+        productRepo.updateImageStatus(product.getIdProduct(), ImageStatus.PENDING);
+        productRepo.replaceImageStatus(ImageStatus.PENDING, ImageStatus.FAILED);
+        productRepo.updateImage(product.getIdProduct(), "https://cdn/img.jpg", "img", ImageStatus.READY);
+
+        entityManager.clear();
+        Product updated = productRepo.findById(product.getIdProduct()).orElseThrow();
+        assertThat(updated.getImageStatus()).isEqualTo(ImageStatus.READY);
+        assertThat(updated.getVersion()).isEqualTo(version + 3);
+    }
+}
@@ -0,0 +1,134 @@
+package com.alonso.salesapp.repository;
+
+import com.alonso.salesapp.model.Product;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Búsqueda full-text sobre un catálogo de 1M de productos en PostgreSQL real (índice de db/schema-postgresql.sql).
+ * No corre con el build normal: mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductSearchBenchmarkTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final List<String> WORDS = List.of("laptop", "mouse", "teclado", "monitor",
+            "silla", "lámpara", "arroz", "pelota");
+    private static final int WARMUP = 100;
+    private static final int MEASURED = 500;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // El import.sql vacío de los tests tapa los datos de ejemplo: la categoría se crea aquí
+    @BeforeAll
+    void loadCatalog() {
+        jdbcTemplate.update("INSERT INTO category (name, description, enabled) VALUES ('Catálogo', 'Benchmark', true)");
+        Integer idCategory = jdbcTemplate.queryForObject("SELECT max(id_category) FROM category", Integer.class);
+        jdbcTemplate.update("""
+                INSERT INTO product (id_category, name, description, price, stock, enabled, image_status)
+                SELECT ?,
+                       'Producto ' || g || ' ' || (ARRAY['laptop','mouse','teclado','monitor','silla','lámpara','arroz','pelota'])[1 + g % 8],
+                       'Descripción ' || md5(g::text) || ' modelo ' || g,
+                       10, 5, true, 'NONE'
+                FROM generate_series(1, ?) g
+                """, idCategory, PRODUCTS);
+        jdbcTemplate.execute("ANALYZE product");
+    }
+
+    @Test
+    void searchUsesGinIndex() {
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT p.* FROM product p WHERE " + ProductRepo.SEARCH_MATCH.replace(":q", "'laptop 4242'"),
+                String.class);
+
+        assertThat(String.join("\n", plan)).containsIgnoringCase("idx_product_search");
+    }
+
+    @Test
+    void searchStaysWithinFewMilliseconds() {
+        double[] percentiles = measure("word + model", this::search);
+
+        assertThat(percentiles[0]).isLessThan(5.0);
+        assertThat(percentiles[1]).isLessThan(10.0);
+    }
+
+    // Una sola palabra coincide con 1 de cada 8 productos (125k): solo se ordenan las primeras SEARCH_LIMIT,
+    // así que el presupuesto es algo mayor pero no depende del tamaño del catálogo
+    @Test
+    void broadSearchIsBoundedBySearchLimit() {
+        Page<Product> first = broadSearch();
+        assertThat(first.getTotalElements()).isEqualTo(ProductRepo.SEARCH_LIMIT);
+
+        double[] percentiles = measure("single word", this::broadSearch);
+
+        assertThat(percentiles[0]).isLessThan(20.0);
+        assertThat(percentiles[1]).isLessThan(40.0);
+    }
+
+    // Devuelve p50 y p95 en ms
+    private double[] measure(String label, Supplier<Page<Product>> search) {
+        for (int i = 0; i < WARMUP; i++) {
+            search.get();
+        }
+        long[] nanos = new long[MEASURED];
+        for (int i = 0; i < MEASURED; i++) {
+            long start = System.nanoTime();
+            Page<Product> page = search.get();
+            nanos[i] = System.nanoTime() - start;
+            assertThat(page.getContent()).isNotEmpty();
+        }
+        Arrays.sort(nanos);
+        double p50 = nanos[MEASURED / 2] / 1_000_000.0;
+        double p95 = nanos[MEASURED * 95 / 100] / 1_000_000.0;
+        double p99 = nanos[MEASURED * 99 / 100] / 1_000_000.0;
+
+        System.out.printf("Product search (%s) on %,d products (page + count): p50=%.2f ms, p95=%.2f ms, p99=%.2f ms%n",
+                label, PRODUCTS, p50, p95, p99);
+        return new double[]{p50, p95};
+    }
+
+    // Consulta típica de un terminal: palabra del producto + número de modelo
+    private Page<Product> search() {
+        int model = ThreadLocalRandom.current().nextInt(1, PRODUCTS + 1);
+        String query = WORDS.get(model % WORDS.size()) + " " + model;
+        return productRepo.search(query, PageRequest.of(0, 10));
+    }
+
+    private Page<Product> broadSearch() {
+        return productRepo.search(WORDS.get(ThreadLocalRandom.current().nextInt(WORDS.size())), PageRequest.of(0, 10));
+    }
+}
@@ -0,0 +1,65 @@
+package com.alonso.salesapp.repository;
+
+import com.alonso.salesapp.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Búsqueda full-text en PostgreSQL real con la configuración de la aplicación (sin datos de ejemplo):
+// el índice GIN lo crea db/schema-postgresql.sql en el arranque, no import.sql
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.hbm2ddl.import_files=")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductSearchTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void searchIndexIsCreatedOnStartup() {
+        String definition = jdbcTemplate.queryForObject(
+                "SELECT indexdef FROM pg_indexes WHERE tablename = 'product' AND indexname = 'idx_product_search'",
+                String.class);
+
+        assertThat(definition).containsIgnoringCase("USING gin").contains("to_tsvector");
+    }
+
+    @Test
+    void searchRanksEnabledProductsByRelevance() {
+        jdbcTemplate.update("INSERT INTO category (name, description, enabled) VALUES ('Tecnología', 'Equipos', true)");
+        Integer idCategory = jdbcTemplate.queryForObject("SELECT max(id_category) FROM category", Integer.class);
+        insertProduct(idCategory, "Laptop HP", "Laptop HP Pavilion 15 pulgadas", true);
+        insertProduct(idCategory, "Mochila", "Mochila para laptop", true);
+        insertProduct(idCategory, "Laptop Dell", "Laptop Dell descatalogada", false);
+
+        Page<Product> page = productRepo.search("laptop hp", PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(Product::getName).containsExactly("Laptop HP");
+        assertThat(productRepo.search("laptop", PageRequest.of(0, 10)).getContent())
+                .extracting(Product::getName).containsExactly("Laptop HP", "Mochila");
+    }
+
+    private void insertProduct(Integer idCategory, String name, String description, boolean enabled) {
+        jdbcTemplate.update("""
+                INSERT INTO product (id_category, name, description, price, stock, enabled, image_status)
+                VALUES (?, ?, ?, 10, 5, ?, 'NONE')
+                """, idCategory, name, description, enabled);
+    }
+}
@@ -0,0 +1,108 @@
+package com.alonso.salesapp.repository;
+
+import com.alonso.salesapp.dto.category.CategoryDTO;
+import com.alonso.salesapp.model.Category;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sin transacción de test: cada llamada al repositorio hace commit, como en la aplicación,
+// y la caché de segundo nivel / de consultas se llena e invalida igual que en producción.
+@DataJpaTest(properties = "hibernate.cache.stats-enabled=true")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReferenceCacheTest {
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private DailySalesSummaryRepo summaryRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Integer idCategory;
+
+    @BeforeEach
+    void setUp() {
+        Category category = Category.builder()
+                .name("Electronics")
+                .description("Electronic devices")
+                .enabled(true)
+                .build();
+        idCategory = categoryRepo.save(category).getIdCategory();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        categoryRepo.deleteAll();
+    }
+
+    @Test
+    public void testFindById_ServedFromSecondLevelCache() {
+        categoryRepo.findById(idCategory);
+
+        long statementsBefore = statistics.getPrepareStatementCount();
+        Category cached = categoryRepo.findById(idCategory).orElseThrow();
+
+        assertThat(cached.getName()).isEqualTo("Electronics");
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsBefore);
+    }
+
+    @Test
+    public void testUpdate_NotServedStale() {
+        Category category = categoryRepo.findById(idCategory).orElseThrow();
+        category.setName("Computers");
+        categoryRepo.save(category);
+
+        assertThat(categoryRepo.findById(idCategory).orElseThrow().getName()).isEqualTo("Computers");
+        assertThat(categoryRepo.findAllAsDTO()).extracting(CategoryDTO::name).containsExactly("Computers");
+    }
+
+    @Test
+    public void testFindAllAsDTO_UsesQueryCache() {
+        categoryRepo.findAllAsDTO();
+        List<CategoryDTO> categories = categoryRepo.findAllAsDTO();
+
+        assertThat(categories).extracting(CategoryDTO::name).containsExactly("Electronics");
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSummaryNativeWrite_KeepsReferenceCache() {
+        categoryRepo.findById(idCategory);
+        categoryRepo.findAllAsDTO();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                summaryRepo.backfillFrom(LocalDateTime.of(2026, 1, 1, 0, 0)));
+
+        // Solo se invalida daily_sales_summary: la categoría y la consulta cacheada siguen sin ir a la BD
+        assertThat(entityManagerFactory.getCache().contains(Category.class, idCategory)).isTrue();
+        categoryRepo.findAllAsDTO();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+}
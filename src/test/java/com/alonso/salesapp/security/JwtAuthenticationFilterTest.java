@@ -0,0 +1,87 @@
+package com.alonso.salesapp.security;
+
+import com.alonso.salesapp.service.impl.JwtService;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JwtAuthenticationFilter Tests")
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private TokenVersionRegistry tokenVersions;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @InjectMocks
+    private JwtAuthenticationFilter filter;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Debería autenticar un access token con versión vigente")
+    void shouldAuthenticate_WhenClaimsAndVersionAreCurrent() throws Exception {
+        when(jwtService.verify("access")).thenReturn(token("ADMIN", 1, 3));
+        when(tokenVersions.isCurrent(1, 3)).thenReturn(true);
+
+        filter.doFilter(request("access"), new MockHttpServletResponse(), filterChain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+                .extracting(Object::toString).containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("No debería autenticar con un token revocado")
+    void shouldNotAuthenticate_WhenVersionIsRevoked() throws Exception {
+        when(jwtService.verify("access")).thenReturn(token("ADMIN", 1, 2));
+        when(tokenVersions.isCurrent(1, 2)).thenReturn(false);
+
+        filter.doFilter(request("access"), new MockHttpServletResponse(), filterChain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    @DisplayName("No debería aceptar un refresh token (sin claims) como credencial")
+    void shouldNotAuthenticate_WhenTokenHasNoClaims() throws Exception {
+        when(jwtService.verify("refresh")).thenReturn(token(null, null, null));
+
+        filter.doFilter(request("refresh"), new MockHttpServletResponse(), filterChain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(tokenVersions);
+        verify(filterChain).doFilter(any(), any());
+    }
+
+    private static VerifiedToken token(String role, Integer idUser, Integer version) {
+        return new VerifiedToken("cashier", Instant.now().plusSeconds(60), role, idUser, version);
+    }
+
+    private static MockHttpServletRequest request(String jwt) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sales");
+        request.addHeader("Authorization", "Bearer " + jwt);
+        return request;
+    }
+}
@@ -0,0 +1,80 @@
+package com.alonso.salesapp.security;
+
+import com.alonso.salesapp.model.User;
+import com.alonso.salesapp.repository.UserRepo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenVersionRegistry Tests")
+class TokenVersionRegistryTest {
+
+    @Mock
+    private UserRepo userRepo;
+
+    @InjectMocks
+    private TokenVersionRegistry registry;
+
+    @Test
+    @DisplayName("No debería deshacer una revocación con un refresco leído antes")
+    void refresh_DoesNotUndoNewerUpdate() {
+        registry.update(User.builder().idUser(1).tokenVersion(3).build());
+        // Instantánea de user_data tomada antes de que se confirmara la versión 3
+        when(userRepo.findAllTokenVersions()).thenReturn(List.of(view(1, 2, true)));
+
+        registry.refresh();
+
+        assertThat(registry.isCurrent(1, 2)).isFalse();
+        assertThat(registry.isCurrent(1, 3)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debería revocar todo al deshabilitar con la misma versión")
+    void refresh_DisabledWinsOnSameVersion() {
+        registry.update(User.builder().idUser(1).tokenVersion(2).build());
+        when(userRepo.findAllTokenVersions()).thenReturn(List.of(view(1, 2, false)));
+
+        registry.refresh();
+
+        assertThat(registry.isCurrent(1, 2)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debería cargar una sola vez un usuario aún no conocido")
+    void isCurrent_LoadsUnknownUserOnce() {
+        when(userRepo.findById(7)).thenReturn(Optional.of(User.builder().idUser(7).tokenVersion(1).build()));
+
+        assertThat(registry.isCurrent(7, 1)).isTrue();
+        assertThat(registry.isCurrent(7, 0)).isFalse();
+        verify(userRepo, times(1)).findById(7);
+    }
+
+    private static UserRepo.TokenVersionView view(Integer idUser, int version, boolean enabled) {
+        return new UserRepo.TokenVersionView() {
+            @Override
+            public Integer getIdUser() {
+                return idUser;
+            }
+
+            @Override
+            public int getTokenVersion() {
+                return version;
+            }
+
+            @Override
+            public boolean isEnabled() {
+                return enabled;
+            }
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.dto.analytics.CashierSalesDTO;
+import com.alonso.salesapp.dto.analytics.LineGroupDTO;
+import com.alonso.salesapp.dto.analytics.ProductMarginDTO;
+import com.alonso.salesapp.dto.analytics.RevenuePeriodDTO;
+import com.alonso.salesapp.dto.analytics.TicketStatsDTO;
+import com.alonso.salesapp.dto.analytics.TopProductDTO;
+import com.alonso.salesapp.exception.InvalidRequestException;
+import com.alonso.salesapp.model.AnalyticsPeriod;
+import com.alonso.salesapp.model.LineGroupBy;
+import com.alonso.salesapp.repository.AnalyticsRepo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Analytics Service Tests")
+class AnalyticsServiceImplTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2026, 4, 1, 0, 0);
+
+    @Mock
+    private AnalyticsRepo repo;
+
+    @Mock
+    private SaleLineColumnStore columnStore;
+
+    @InjectMocks
+    private AnalyticsServiceImpl analyticsService;
+
+    @Test
+    @DisplayName("Debería limitar el número de productos del ranking")
+    void shouldClampTopProductsLimit() {
+        List<TopProductDTO> top = List.of(new TopProductDTO(1L, 1, "Mouse", 9L, 180.0, 100.0));
+        when(repo.findTopProducts(FROM, TO, 100)).thenReturn(top);
+
+        assertThat(analyticsService.topProducts(FROM, TO, 5000)).isEqualTo(top);
+
+        analyticsService.topProducts(FROM, TO, 0);
+        verify(repo).findTopProducts(FROM, TO, 1);
+    }
+
+    @Test
+    @DisplayName("Debería pasar la unidad del periodo a la consulta")
+    void shouldPassPeriodUnit_ToRepository() {
+        List<RevenuePeriodDTO> revenue = List.of(new RevenuePeriodDTO(FROM, 3L, 680.0, 0.0, 226.67, 680.0));
+        when(repo.findRevenueByPeriod(FROM, TO, "month")).thenReturn(revenue);
+
+        assertThat(analyticsService.revenueByPeriod(FROM, TO, AnalyticsPeriod.MONTH)).isEqualTo(revenue);
+    }
+
+    @Test
+    @DisplayName("Debería retornar el ticket medio y las ventas por cajero")
+    void shouldReturnTicketStatsAndCashiers() {
+        TicketStatsDTO stats = new TicketStatsDTO(3L, 680.0, 226.67, 100.0, 520.0);
+        List<CashierSalesDTO> cashiers = List.of(new CashierSalesDTO(1L, 1, "ana", 2L, 580.0, 290.0, 85.3));
+        when(repo.findTicketStats(FROM, TO)).thenReturn(stats);
+        when(repo.findSalesByCashier(FROM, TO)).thenReturn(cashiers);
+
+        assertThat(analyticsService.ticketStats(FROM, TO)).isEqualTo(stats);
+        assertThat(analyticsService.salesByCashier(FROM, TO)).isEqualTo(cashiers);
+    }
+
+    @Test
+    @DisplayName("Debería retornar el margen por producto")
+    void shouldReturnMarginByProduct() {
+        List<ProductMarginDTO> margins = List.of(new ProductMarginDTO(1, "Laptop", 3L, 2950.0, 2100.0, 850.0, 28.81));
+        when(repo.findMarginByProduct(FROM, TO)).thenReturn(margins);
+
+        assertThat(analyticsService.marginByProduct(FROM, TO)).isEqualTo(margins);
+        assertThatThrownBy(() -> analyticsService.marginByProduct(TO, FROM))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar un rango de fechas vacío o invertido")
+    void shouldThrowException_WhenRangeIsInvalid() {
+        assertThatThrownBy(() -> analyticsService.ticketStats(TO, FROM))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("Rango de fechas no válido");
+        assertThatThrownBy(() -> analyticsService.salesByCashier(FROM, FROM))
+                .isInstanceOf(InvalidRequestException.class);
+
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("Debería agrupar líneas desde la analítica en memoria cuando está habilitada")
+    void shouldAggregateLines_WhenColumnStoreIsEnabled() {
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 4, 1);
+        List<LineGroupDTO> groups = List.of(new LineGroupDTO("2", 9L, 180.0, 3L));
+        when(columnStore.isEnabled()).thenReturn(true);
+        when(columnStore.aggregate(from, to, null, 1, LineGroupBy.PRODUCT)).thenReturn(groups);
+
+        assertThat(analyticsService.lineTotals(from, to, null, 1, LineGroupBy.PRODUCT)).isEqualTo(groups);
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("Debería lanzar exception cuando la analítica en memoria está deshabilitada")
+    void shouldThrowException_WhenColumnStoreIsDisabled() {
+        when(columnStore.isEnabled()).thenReturn(false);
+
+        assertThatThrownBy(() -> analyticsService.lineTotals(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 4, 1),
+                null, null, LineGroupBy.DAY))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("analytics.columnar.enabled");
+
+        verify(columnStore, never()).aggregate(any(), any(), any(), any(), any());
+    }
+}
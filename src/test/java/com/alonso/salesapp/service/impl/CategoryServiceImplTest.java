@@ -145,30 +145,27 @@ class CategoryServiceImplTest {
         @Test
         @DisplayName("Debería retornar todas las categorías")
         void shouldReturnAllCategories() {
-            Category category2 = new Category(2, "Books", "Book category", true);
             CategoryDTO categoryDTO2 = new CategoryDTO(2, "Books", "Book category", true);
 
-            when(repo.findAll()).thenReturn(List.of(category, category2));
-            when(mapper.toDTO(category)).thenReturn(categoryDTO);
-            when(mapper.toDTO(category2)).thenReturn(categoryDTO2);
+            when(repo.findAllAsDTO()).thenReturn(List.of(categoryDTO, categoryDTO2));
 
             List<CategoryDTO> result = categoryService.readAll();
 
             assertThat(result).hasSize(2);
             assertThat(result).extracting(CategoryDTO::name)
                     .containsExactly("Electronics", "Books");
-            verify(repo).findAll();
+            verify(repo).findAllAsDTO();
         }
 
         @Test
         @DisplayName("Debería retornar lista vacía cuando no hay categorías")
         void shouldReturnEmptyList_WhenNoCategoriesExist() {
-            when(repo.findAll()).thenReturn(List.of());
+            when(repo.findAllAsDTO()).thenReturn(List.of());
 
             List<CategoryDTO> result = categoryService.readAll();
 
             assertThat(result).isEmpty();
-            verify(repo).findAll();
+            verify(repo).findAllAsDTO();
         }
 
         @Test
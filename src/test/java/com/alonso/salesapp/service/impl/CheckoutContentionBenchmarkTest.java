@@ -0,0 +1,130 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.dto.sale.SaleDTO;
+import com.alonso.salesapp.dto.sale.SaleDetailDTO;
+import com.alonso.salesapp.exception.ModelNotFoundException;
+import com.alonso.salesapp.model.StockMode;
+import com.alonso.salesapp.service.ISaleService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ventas concurrentes con LOCKING (SELECT ... FOR UPDATE) frente a OPTIMISTIC (@Version + reintentos)
+ * en PostgreSQL real, con productos muy disputados y con un catálogo de cola larga.
+ * No corre con el build normal: mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "analytics.columnar.enabled=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CheckoutContentionBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int PRODUCTS = 2_000;
+    private static final int HOT_PRODUCTS = 4;
+    private static final long RUN_MS = 5_000;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private ISaleService saleService;
+
+    @Autowired
+    private OptimisticRetry retry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void loadCatalog() {
+        jdbcTemplate.update("INSERT INTO role (id_role, name, enabled) VALUES (1, 'ROLE_ADMIN', true)");
+        jdbcTemplate.update("INSERT INTO user_data (id_role, username, password, enabled, token_version) "
+                + "VALUES (1, 'cashier', 'x', true, 0)");
+        jdbcTemplate.update("INSERT INTO client (first_name, last_name, card_id, phone_number, email, address) "
+                + "VALUES ('Ana', 'Pérez', '0102030405', '0999999999', 'ana@mail.com', 'Av. Siempre Viva')");
+        jdbcTemplate.update("INSERT INTO category (name, description, enabled) VALUES ('General', 'General', true)");
+        // Stock de sobra: se mide la contención, no el rechazo por falta de stock
+        jdbcTemplate.update("""
+                INSERT INTO product (id_category, name, description, price, stock, enabled)
+                SELECT 1, 'Producto ' || g, 'Producto ' || g, 10 + g % 90, 100000000, true
+                FROM generate_series(1, ?) g""", PRODUCTS);
+    }
+
+    @Test
+    void compareModesUnderContention() throws InterruptedException {
+        IntSupplier hot = () -> 1 + ThreadLocalRandom.current().nextInt(HOT_PRODUCTS);
+        IntSupplier longTail = () -> 1 + ThreadLocalRandom.current().nextInt(PRODUCTS);
+
+        for (StockMode mode : List.of(StockMode.LOCKING, StockMode.OPTIMISTIC)) {
+            run(mode, "hot SKUs", hot);
+            run(mode, "long tail", longTail);
+        }
+
+        // Ninguna venta se pierde ni se descuenta dos veces, haya habido reintentos o no
+        Long mismatched = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM product p
+                WHERE p.stock + COALESCE((SELECT SUM(d.quantity) FROM sale_detail d
+                                          WHERE d.id_product = p.id_product), 0) <> 100000000""", Long.class);
+        assertThat(mismatched).isZero();
+    }
+
+    private void run(StockMode mode, String scenario, IntSupplier product) throws InterruptedException {
+        ReflectionTestUtils.setField(AopProxyUtils.getSingletonTarget(saleService), "stockMode", mode);
+        long conflictsBefore = retry.conflictCount();
+        long exhaustedBefore = retry.exhaustedCount();
+        LongAdder sales = new LongAdder();
+        LongAdder failures = new LongAdder();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long deadline = System.currentTimeMillis() + RUN_MS;
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    // Dos líneas por venta, como un ticket corto de caja
+                    SaleDTO sale = new SaleDTO(null, 1, 1, null, null, List.of(
+                            new SaleDetailDTO(null, product.getAsInt(), (short) 1, null, null),
+                            new SaleDetailDTO(null, product.getAsInt(), (short) 1, null, null)));
+                    try {
+                        retry.execute(() -> saleService.create(sale));
+                        sales.increment();
+                    } catch (OptimisticLockingFailureException | ModelNotFoundException e) {
+                        failures.increment();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(RUN_MS * 4, TimeUnit.MILLISECONDS)).isTrue();
+
+        System.out.printf("Checkout %-10s %-9s: %,8.0f sales/s, conflicts=%,d, exhausted=%,d, failed=%,d%n",
+                mode, scenario, sales.sum() * 1000.0 / RUN_MS, retry.conflictCount() - conflictsBefore,
+                retry.exhaustedCount() - exhaustedBefore, failures.sum());
+    }
+}
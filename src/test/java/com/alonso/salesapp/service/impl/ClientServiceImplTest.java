@@ -156,34 +156,27 @@ class ClientServiceImplTest {
         @Test
         @DisplayName("Debería retornar todos los clientes")
         void shouldReturnAllClients() {
-            Client client2 = Client.builder()
-                    .idClient(2)
-                    .firstName("Jane")
-                    .lastName("Smith")
-                    .build();
             ClientDTO clientDTO2 = new ClientDTO(2, "Jane", "Smith", "11111111", "999999999", "jane@example.com", "789 Other Ave");
 
-            when(repo.findAll()).thenReturn(List.of(client, client2));
-            when(mapper.toDTO(client)).thenReturn(clientDTO);
-            when(mapper.toDTO(client2)).thenReturn(clientDTO2);
+            when(repo.findAllAsDTO()).thenReturn(List.of(clientDTO, clientDTO2));
 
             List<ClientDTO> result = clientService.readAll();
 
             assertThat(result).hasSize(2);
             assertThat(result).extracting(ClientDTO::firstName)
                     .containsExactly("John", "Jane");
-            verify(repo).findAll();
+            verify(repo).findAllAsDTO();
         }
 
         @Test
         @DisplayName("Debería retornar lista vacía cuando no hay clientes")
         void shouldReturnEmptyList_WhenNoClientsExist() {
-            when(repo.findAll()).thenReturn(List.of());
+            when(repo.findAllAsDTO()).thenReturn(List.of());
 
             List<ClientDTO> result = clientService.readAll();
 
             assertThat(result).isEmpty();
-            verify(repo).findAll();
+            verify(repo).findAllAsDTO();
         }
 
         @Test
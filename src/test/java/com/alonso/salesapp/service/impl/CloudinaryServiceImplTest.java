@@ -8,12 +8,14 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,9 +34,6 @@ class CloudinaryServiceImplTest {
     @Mock
     private Uploader uploader;
 
-    @Mock
-    private MultipartFile multipartFile;
-
     private CloudinaryServiceImpl cloudinaryService;
 
     @BeforeEach
@@ -48,68 +47,44 @@ class CloudinaryServiceImplTest {
     @DisplayName("Subir Imagen")
     class UploadTests {
 
+        @TempDir
+        Path dir;
+
         @Test
         @DisplayName("Debería subir imagen exitosamente")
         void shouldUploadImage_Successfully() throws IOException {
+            Path image = Files.write(dir.resolve("test.jpg"), new byte[]{1, 2, 3});
             Map<String, Object> expectedResult = Map.of(
                     "secure_url", "https://cloudinary.com/image.jpg",
                     "public_id", "img_123"
             );
 
             when(cloudinary.uploader()).thenReturn(uploader);
-            when(multipartFile.getOriginalFilename()).thenReturn("test.jpg");
-            when(multipartFile.getBytes()).thenReturn(new byte[]{1, 2, 3});
-            when(uploader.upload(any(), anyMap())).thenReturn(expectedResult);
+            when(uploader.upload(image.toFile(), Map.of())).thenReturn(expectedResult);
 
-            Map result = cloudinaryService.upload(multipartFile);
+            Map result = cloudinaryService.upload(image);
 
             assertThat(result).isNotNull();
             assertThat(result.get("secure_url")).isEqualTo("https://cloudinary.com/image.jpg");
             assertThat(result.get("public_id")).isEqualTo("img_123");
-            verify(uploader).upload(any(), anyMap());
+            assertThat(image).exists();
         }
 
         @Test
         @DisplayName("Debería lanzar CloudinaryException cuando falla la subida")
         void shouldThrowCloudinaryException_WhenUploadFails() throws IOException {
+            Path image = Files.write(dir.resolve("test.jpg"), new byte[]{1, 2, 3});
+
             when(cloudinary.uploader()).thenReturn(uploader);
-            when(multipartFile.getOriginalFilename()).thenReturn("test.jpg");
-            when(multipartFile.getBytes()).thenReturn(new byte[]{1, 2, 3});
             when(uploader.upload(any(), anyMap())).thenThrow(new IOException("Upload failed"));
 
-            assertThatThrownBy(() -> cloudinaryService.upload(multipartFile))
+            assertThatThrownBy(() -> cloudinaryService.upload(image))
                     .isInstanceOf(CloudinaryException.class)
                     .hasMessageContaining("Error al subir imagen a Cloudinary")
                     .hasCauseInstanceOf(IOException.class);
 
             verify(uploader).upload(any(), anyMap());
         }
-
-        @Test
-        @DisplayName("Debería manejar archivo sin nombre")
-        void shouldHandleFile_WithoutName() throws IOException {
-            Map<String, Object> expectedResult = Map.of("secure_url", "url", "public_id", "id");
-
-            when(cloudinary.uploader()).thenReturn(uploader);
-            when(multipartFile.getOriginalFilename()).thenReturn(null);
-            when(multipartFile.getBytes()).thenReturn(new byte[]{1, 2, 3});
-            when(uploader.upload(any(), anyMap())).thenReturn(expectedResult);
-
-            Map result = cloudinaryService.upload(multipartFile);
-
-            assertThat(result).isNotNull();
-        }
-
-        @Test
-        @DisplayName("Debería lanzar exception cuando falla la conversión del archivo")
-        void shouldThrowException_WhenFileConversionFails() throws IOException {
-            when(multipartFile.getOriginalFilename()).thenReturn("test.jpg");
-            when(multipartFile.getBytes()).thenThrow(new IOException("Cannot read file"));
-
-            assertThatThrownBy(() -> cloudinaryService.upload(multipartFile))
-                    .isInstanceOf(CloudinaryException.class)
-                    .hasCauseInstanceOf(IOException.class);
-        }
     }
 
     @Nested
@@ -3,16 +3,19 @@ package com.alonso.salesapp.service.impl;
 import com.alonso.salesapp.model.Role;
 import com.alonso.salesapp.model.User;
 import com.alonso.salesapp.repository.UserRepo;
+import com.alonso.salesapp.security.PrincipalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,6 +29,9 @@ class CustomUserDetailsServiceTest {
     @Mock
     private UserRepo userRepo;
 
+    @Spy
+    private PrincipalCache principalCache = new PrincipalCache(100, Duration.ofMinutes(5));
+
     @InjectMocks
     private CustomUserDetailsService customUserDetailsService;
 
@@ -82,5 +88,36 @@ class CustomUserDetailsServiceTest {
         assertTrue(exception.getMessage().contains("User not found with username: nonexistent"));
         verify(userRepo, times(1)).findByUsername("nonexistent");
     }
-}
 
+    @Test
+    @DisplayName("Should serve repeated lookups from the principal cache")
+    void shouldServeRepeatedLookupsFromCache() {
+        // Given
+        when(userRepo.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        // When
+        UserDetails first = customUserDetailsService.loadUserByUsername("testuser");
+        UserDetails second = customUserDetailsService.loadUserByUsername("testuser");
+
+        // Then
+        assertSame(first, second);
+        verify(userRepo, times(1)).findByUsername("testuser");
+        assertEquals(1, principalCache.stats().hitCount());
+        assertEquals(1, principalCache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("Should reload user after invalidation")
+    void shouldReloadUserAfterInvalidation() {
+        // Given
+        when(userRepo.findByUsername("testuser")).thenReturn(Optional.of(user));
+        customUserDetailsService.loadUserByUsername("testuser");
+
+        // When
+        principalCache.invalidate("testuser");
+        customUserDetailsService.loadUserByUsername("testuser");
+
+        // Then
+        verify(userRepo, times(2)).findByUsername("testuser");
+    }
+}
@@ -0,0 +1,191 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.exception.IdempotencyKeyReusedException;
+import com.alonso.salesapp.exception.InvalidRequestException;
+import com.alonso.salesapp.model.IdempotencyRecord;
+import com.alonso.salesapp.repository.IdempotencyRecordRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Idempotency Store Tests")
+class IdempotencyStoreTest {
+
+    private static final Map<String, Object> SALE = Map.of("idClient", 1, "total", 10.5);
+
+    @Mock
+    private IdempotencyRecordRepo repo;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyStore store;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore(repo, JsonMapper.builder().build(), transactionManager, Duration.ofHours(24), 100);
+        login("ana");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Debería ejecutar y guardar la respuesta la primera vez que llega una clave")
+    void shouldExecuteAndStore_WhenKeyIsNew() {
+        when(repo.claim(eq("sale:ana:k1"), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        String result = store.execute("sale", "k1", SALE, String.class, this::create);
+
+        assertThat(result).isEqualTo("created-1");
+        verify(repo).complete("sale:ana:k1", "\"created-1\"");
+    }
+
+    @Test
+    @DisplayName("Debería servir los reintentos desde la caché sin volver a ejecutar")
+    void shouldServeRetriesFromCache() {
+        when(repo.claim(eq("sale:ana:k1"), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        store.execute("sale", "k1", SALE, String.class, this::create);
+        String retry = store.execute("sale", "k1", SALE, String.class, this::create);
+
+        assertThat(retry).isEqualTo("created-1");
+        assertThat(executions).hasValue(1);
+        verify(repo, times(1)).claim(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Debería devolver la respuesta guardada cuando la clave ya estaba confirmada")
+    void shouldReplayStoredResponse_WhenKeyWasClaimed() {
+        when(repo.claim(eq("ingress:ana:k2"), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(0);
+        when(repo.findById("ingress:ana:k2")).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .requestKey("ingress:ana:k2").requestHash(store.fingerprint(SALE)).response("\"stored\"").build()));
+
+        String result = store.execute("ingress", "k2", SALE, String.class, this::create);
+
+        assertThat(result).isEqualTo("stored");
+        assertThat(executions).hasValue(0);
+        verify(repo, never()).complete(any(), any());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar con 422 una clave confirmada que llega con otro cuerpo")
+    void shouldRejectStoredKey_WithDifferentBody() {
+        when(repo.claim(eq("sale:ana:k3"), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(0);
+        when(repo.findById("sale:ana:k3")).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .requestKey("sale:ana:k3").requestHash(store.fingerprint(SALE)).response("\"stored\"").build()));
+
+        assertThatThrownBy(() -> store.execute("sale", "k3", Map.of("idClient", 2), String.class, this::create))
+                .isInstanceOf(IdempotencyKeyReusedException.class)
+                .hasMessageContaining("k3");
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar desde la caché una clave reciente que llega con otro cuerpo")
+    void shouldRejectCachedKey_WithDifferentBody() {
+        when(repo.claim(eq("sale:ana:k4"), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+        store.execute("sale", "k4", SALE, String.class, this::create);
+
+        assertThatThrownBy(() -> store.execute("sale", "k4", Map.of("idClient", 2), String.class, this::create))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Debería separar las claves por ámbito")
+    void shouldKeepScopesApart() {
+        when(repo.claim(any(), any(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+
+        store.execute("sale", "same", SALE, String.class, this::create);
+        String ingress = store.execute("ingress", "same", SALE, String.class, this::create);
+
+        assertThat(ingress).isEqualTo("created-2");
+    }
+
+    @Test
+    @DisplayName("Debería separar las claves por usuario")
+    void shouldKeepUsersApart() {
+        when(repo.claim(any(), any(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+
+        store.execute("sale", "pos-1", SALE, String.class, this::create);
+        login("luis");
+        String other = store.execute("sale", "pos-1", SALE, String.class, this::create);
+        login("a:b");
+        store.execute("sale", "pos-1", SALE, String.class, this::create);
+
+        assertThat(other).isEqualTo("created-2");
+        verify(repo).claim(eq("sale:ana:pos-1"), anyString(), any(), any());
+        verify(repo).claim(eq("sale:luis:pos-1"), anyString(), any(), any());
+        verify(repo).claim(eq("sale:a%3Ab:pos-1"), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Debería ejecutar siempre cuando no llega clave")
+    void shouldAlwaysExecute_WithoutKey() {
+        store.execute("sale", null, SALE, String.class, this::create);
+        store.execute("sale", " ", SALE, String.class, this::create);
+
+        assertThat(executions).hasValue(2);
+        verifyNoInteractions(repo, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar con 400 las claves demasiado largas")
+    void shouldRejectTooLongKey() {
+        String key = "x".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1);
+
+        assertThatThrownBy(() -> store.execute("sale", key, SALE, String.class, this::create))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("Idempotency-Key");
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Debería borrar las claves caducadas")
+    void shouldPurgeExpiredKeys() {
+        when(repo.deleteExpired(any(LocalDateTime.class))).thenReturn(3);
+
+        store.purgeExpired();
+
+        verify(repo).deleteExpired(any(LocalDateTime.class));
+    }
+
+    private void login(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+    }
+
+    private String create() {
+        return "created-" + executions.incrementAndGet();
+    }
+}
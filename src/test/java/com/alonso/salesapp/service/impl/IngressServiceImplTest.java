@@ -7,6 +7,7 @@ import com.alonso.salesapp.exception.ModelNotFoundException;
 import com.alonso.salesapp.mapper.IngressMapper;
 import com.alonso.salesapp.model.*;
 import com.alonso.salesapp.repository.*;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -16,11 +17,17 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -46,6 +53,15 @@ class IngressServiceImplTest {
     @Mock
     private ProductRepo productRepo;
 
+    @Mock
+    private InventoryLedger ledger;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private IngressServiceImpl ingressService;
 
@@ -86,7 +102,7 @@ class IngressServiceImplTest {
         product = Product.builder()
                 .idProduct(1)
                 .name("Laptop")
-                .price(1000.0)
+                .price(Money.of(1000.0))
                 .stock(5)
                 .category(category)
                 .build();
@@ -96,7 +112,7 @@ class IngressServiceImplTest {
                 .idIngressDetail(1)
                 .product(product)
                 .quantity((short) 10)
-                .cost(800.0)
+                .cost(Money.of(800.0))
                 .build();
 
         // Setup Ingress
@@ -106,8 +122,8 @@ class IngressServiceImplTest {
                 .user(user)
                 .dateTime(LocalDateTime.now())
                 .serialNumber("INV-001")
-                .tax(1440.0)
-                .total(9440.0)
+                .tax(Money.of(1440.0))
+                .total(Money.of(9440.0))
                 .details(new ArrayList<>(List.of(ingressDetail)))
                 .build();
         ingressDetail.setIngress(ingress);
@@ -128,7 +144,7 @@ class IngressServiceImplTest {
             when(mapper.toEntity(ingressDTO)).thenReturn(ingress);
             when(providerRepo.findById(1)).thenReturn(Optional.of(provider));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Ingress.class))).thenReturn(ingress);
             when(mapper.toResponseDTO(any(Ingress.class))).thenReturn(ingressResponseDTO);
 
@@ -137,7 +153,7 @@ class IngressServiceImplTest {
             assertThat(result).isNotNull();
             verify(providerRepo).findById(1);
             verify(userRepo).findById(1);
-            verify(productRepo).findByIdLocked(1);
+            verify(productRepo).findAllByIdLocked(Set.of(1));
             verify(repo).save(any(Ingress.class));
         }
 
@@ -177,13 +193,13 @@ class IngressServiceImplTest {
             when(mapper.toEntity(ingressDTO)).thenReturn(ingress);
             when(providerRepo.findById(1)).thenReturn(Optional.of(provider));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.empty());
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of());
 
             assertThatThrownBy(() -> ingressService.create(ingressDTO))
                     .isInstanceOf(ModelNotFoundException.class)
                     .hasMessageContaining("Product not found with id: 1");
 
-            verify(productRepo).findByIdLocked(1);
+            verify(productRepo).findAllByIdLocked(Set.of(1));
             verify(repo, never()).save(any());
         }
 
@@ -195,7 +211,7 @@ class IngressServiceImplTest {
             when(mapper.toEntity(ingressDTO)).thenReturn(ingress);
             when(providerRepo.findById(1)).thenReturn(Optional.of(provider));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Ingress.class))).thenReturn(ingress);
             when(mapper.toResponseDTO(any(Ingress.class))).thenReturn(ingressResponseDTO);
 
@@ -205,13 +221,68 @@ class IngressServiceImplTest {
             assertThat(product.getStock()).isEqualTo(initialStock + 10);
         }
 
+        @Test
+        @DisplayName("Debería sumar stock en el ledger al confirmar cuando está activo")
+        void shouldRestockInLedger_WhenEnabled() {
+            when(ledger.isEnabled()).thenReturn(true);
+            when(mapper.toEntity(ingressDTO)).thenReturn(ingress);
+            when(providerRepo.findById(1)).thenReturn(Optional.of(provider));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(ledger.availableStock(1)).thenReturn(10);
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
+            when(repo.save(any(Ingress.class))).thenReturn(ingress);
+            when(mapper.toResponseDTO(any(Ingress.class))).thenReturn(ingressResponseDTO);
+
+            ingressService.create(ingressDTO);
+
+            verify(ledger).restockAfterCommit(Map.of(1, 10));
+            verify(productRepo, never()).findAllById(any());
+            assertThat(product.getStock()).isEqualTo(5);
+            // El coste medio pondera con las existencias del ledger (10), no con las de la fila (5):
+            // (10 * 0 + 10 * 800) / 20 = 400
+            assertThat(product.getAverageCost()).isEqualTo(400.0);
+        }
+
+        @Test
+        @DisplayName("Debería actualizar el coste medio ponderado con las existencias actuales")
+        void shouldUpdateMovingAverageCost() {
+            product.setAverageCost(650.0);
+            IngressDetail secondLine = IngressDetail.builder()
+                    .product(Product.builder().idProduct(1).build())
+                    .quantity((short) 5)
+                    .cost(Money.of(1000.0))
+                    .build();
+            ingress.getDetails().add(secondLine);
+
+            when(mapper.toEntity(ingressDTO)).thenReturn(ingress);
+            when(providerRepo.findById(1)).thenReturn(Optional.of(provider));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
+            when(repo.save(any(Ingress.class))).thenReturn(ingress);
+            when(mapper.toResponseDTO(any(Ingress.class))).thenReturn(ingressResponseDTO);
+
+            ingressService.create(ingressDTO);
+
+            // (5 * 650 + 10 * 800) / 15 = 750; después (15 * 750 + 5 * 1000) / 20 = 812.5
+            assertThat(product.getAverageCost()).isEqualTo(812.5);
+            assertThat(product.getStock()).isEqualTo(20);
+        }
+
+        @Test
+        @DisplayName("Debería tomar el coste de la compra cuando no hay existencias")
+        void shouldUseIngressCost_WhenThereIsNoStock() {
+            assertThat(IngressServiceImpl.movingAverageCost(650.0, 0, 10, 800.0)).isEqualTo(800.0);
+            assertThat(IngressServiceImpl.movingAverageCost(650.0, -3, 10, 800.0)).isEqualTo(800.0);
+            assertThat(IngressServiceImpl.movingAverageCost(500.0, 10, 10, 700.0)).isEqualTo(600.0);
+        }
+
         @Test
         @DisplayName("Debería calcular tax automáticamente cuando no viene en DTO")
         void shouldCalculateTax_WhenNotProvided() {
             when(mapper.toEntity(ingressDTO)).thenReturn(ingress);
             when(providerRepo.findById(1)).thenReturn(Optional.of(provider));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Ingress.class))).thenReturn(ingress);
             when(mapper.toResponseDTO(any(Ingress.class))).thenReturn(ingressResponseDTO);
 
@@ -223,7 +294,7 @@ class IngressServiceImplTest {
 
             // Subtotal: 10 * 800 = 8000
             // Tax (18%): 8000 * 0.18 = 1440
-            assertThat(savedIngress.getTax()).isEqualTo(1440.0);
+            assertThat(savedIngress.getTax()).isEqualTo(Money.of(1440.0));
         }
 
         @Test
@@ -232,7 +303,7 @@ class IngressServiceImplTest {
             when(mapper.toEntity(ingressDTO)).thenReturn(ingress);
             when(providerRepo.findById(1)).thenReturn(Optional.of(provider));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Ingress.class))).thenReturn(ingress);
             when(mapper.toResponseDTO(any(Ingress.class))).thenReturn(ingressResponseDTO);
 
@@ -243,7 +314,7 @@ class IngressServiceImplTest {
             Ingress savedIngress = captor.getValue();
 
             // Subtotal: 8000, Tax: 1440, Total: 9440
-            assertThat(savedIngress.getTotal()).isEqualTo(9440.0);
+            assertThat(savedIngress.getTotal()).isEqualTo(Money.of(9440.0));
         }
 
         @Test
@@ -254,7 +325,7 @@ class IngressServiceImplTest {
             when(mapper.toEntity(ingressDTO)).thenReturn(ingress);
             when(providerRepo.findById(1)).thenReturn(Optional.of(provider));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Ingress.class))).thenReturn(ingress);
             when(mapper.toResponseDTO(any(Ingress.class))).thenReturn(ingressResponseDTO);
 
@@ -309,7 +380,7 @@ class IngressServiceImplTest {
             when(mapper.toEntity(dtoWithTax)).thenReturn(ingressWithTax);
             when(providerRepo.findById(1)).thenReturn(Optional.of(provider));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Ingress.class))).thenReturn(ingressWithTax);
             when(mapper.toResponseDTO(any(Ingress.class))).thenReturn(ingressResponseDTO);
 
@@ -317,7 +388,7 @@ class IngressServiceImplTest {
 
             ArgumentCaptor<Ingress> captor = ArgumentCaptor.forClass(Ingress.class);
             verify(repo).save(captor.capture());
-            assertThat(captor.getValue().getTax()).isEqualTo(500.0);
+            assertThat(captor.getValue().getTax()).isEqualTo(Money.of(500.0));
         }
 
         @Test
@@ -326,7 +397,7 @@ class IngressServiceImplTest {
             when(mapper.toEntity(ingressDTO)).thenReturn(ingress);
             when(providerRepo.findById(1)).thenReturn(Optional.of(provider));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Ingress.class))).thenReturn(ingress);
             when(mapper.toResponseDTO(any(Ingress.class))).thenReturn(ingressResponseDTO);
 
@@ -353,7 +424,7 @@ class IngressServiceImplTest {
             detail2.setIdIngressDetail(2);
             detail2.setProduct(product2);
             detail2.setQuantity((short) 5);
-            detail2.setCost(50.0);
+            detail2.setCost(Money.of(50.0));
 
             ingress.getDetails().add(detail2);
             detail2.setIngress(ingress);
@@ -361,20 +432,37 @@ class IngressServiceImplTest {
             when(mapper.toEntity(ingressDTO)).thenReturn(ingress);
             when(providerRepo.findById(1)).thenReturn(Optional.of(provider));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
-            when(productRepo.findByIdLocked(2)).thenReturn(Optional.of(product2));
+            when(productRepo.findAllByIdLocked(Set.of(1, 2))).thenReturn(List.of(product, product2));
             when(repo.save(any(Ingress.class))).thenReturn(ingress);
             when(mapper.toResponseDTO(any(Ingress.class))).thenReturn(ingressResponseDTO);
 
             ingressService.create(ingressDTO);
 
-            verify(productRepo).findByIdLocked(1);
-            verify(productRepo).findByIdLocked(2);
+            verify(productRepo).findAllByIdLocked(Set.of(1, 2));
             assertThat(product.getStock()).isEqualTo(15); // 5 + 10
             assertThat(product2.getStock()).isEqualTo(25); // 20 + 5
         }
     }
 
+    @Nested
+    @DisplayName("Exportar Ingresos")
+    class ExportTests {
+
+        @Test
+        @DisplayName("Debería escribir una fila CSV por línea de detalle")
+        void shouldWriteCsvRow_PerDetailLine() {
+            when(repo.streamAllDetails()).thenReturn(Stream.of(ingressDetail));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            ingressService.export(ExportFormat.CSV, out);
+
+            String[] rows = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertThat(rows).hasSize(2);
+            assertThat(rows[0]).startsWith("idIngress,dateTime,serialNumber");
+            assertThat(rows[1]).startsWith("1,").contains(",INV-001,1,Tech Supplies Inc,admin,1,Laptop,10,800.0,1440.0,9440.0");
+        }
+    }
+
     @Nested
     @DisplayName("Consultar Ingresos")
     class ReadTests {
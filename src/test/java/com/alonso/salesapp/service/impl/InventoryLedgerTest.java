@@ -0,0 +1,235 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.model.Product;
+import com.alonso.salesapp.model.StockMode;
+import com.alonso.salesapp.repository.InventoryMovementRepo;
+import com.alonso.salesapp.repository.ProductRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Inventory Ledger Tests")
+class InventoryLedgerTest {
+
+    @Mock
+    private ProductRepo productRepo;
+
+    @Mock
+    private InventoryMovementRepo movementRepo;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path dir;
+
+    private Path journal;
+    private InventoryLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        journal = dir.resolve("inventory.journal");
+        ledger = new InventoryLedger(productRepo, movementRepo, transactionManager, StockMode.LEDGER,
+                journal.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería reservar mientras haya stock y rechazar cuando no alcanza")
+    void shouldReserve_UntilStockRunsOut() throws IOException {
+        ledger.start();
+        when(productRepo.findById(1)).thenReturn(Optional.of(product(1, 5)));
+
+        assertThat(ledger.reserve(Map.of(1, 3))).isEmpty();
+        assertThat(ledger.reserve(Map.of(1, 3))).contains(1);
+        assertThat(ledger.availableStock(1)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Debería devolver lo reservado cuando un producto no alcanza (todo o nada)")
+    void shouldReleaseGranted_WhenAnyProductFails() throws IOException {
+        ledger.start();
+        when(productRepo.findById(1)).thenReturn(Optional.of(product(1, 5)));
+        when(productRepo.findById(2)).thenReturn(Optional.of(product(2, 1)));
+
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(1, 2);
+        quantities.put(2, 2);
+
+        assertThat(ledger.reserve(quantities)).contains(2);
+        assertThat(ledger.availableStock(1)).isEqualTo(5);
+        assertThat(ledger.availableStock(2)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debería volcar a la tabla product solo el delta neto por producto")
+    void shouldFlushNetDelta() throws IOException {
+        ledger.start();
+        when(productRepo.findById(1)).thenReturn(Optional.of(product(1, 5)));
+
+        ledger.reserve(Map.of(1, 3));
+        ledger.restockAfterCommit(Map.of(1, 10));
+        ledger.flush();
+
+        verify(productRepo).adjustStock(1, 7);
+        verify(movementRepo).deleteBySeqIn(List.of(1L, 2L));
+        assertThat(ledger.availableStock(1)).isEqualTo(12);
+
+        // Nada pendiente: el siguiente volcado no escribe
+        ledger.flush();
+        verify(productRepo, times(1)).adjustStock(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Debería reaplicar al arrancar solo los movimientos confirmados del journal")
+    void shouldReplayCommittedMovements_OnStart() throws IOException {
+        // El 2 no llegó a confirmarse (sin marca) y la última línea quedó a medias por una caída
+        Files.writeString(journal, "1;1=-4,2=6\n2;1=-3\n3;2=5\n4;1=");
+        when(movementRepo.findExisting(List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 3L));
+
+        ledger.start();
+
+        verify(productRepo).adjustStock(1, -4);
+        verify(productRepo).adjustStock(2, 11);
+        verify(movementRepo).deleteBySeqIn(List.of(1L, 3L));
+        assertThat(Files.size(journal)).isZero();
+    }
+
+    @Test
+    @DisplayName("No debería reaplicar un lote que ya se volcó antes de la caída")
+    void shouldNotReplayFlushedBatch_OnStart() throws IOException {
+        // Volcado confirmado (marcas borradas) pero el archivo rotado no llegó a borrarse
+        Files.writeString(dir.resolve("inventory.journal.flushing"), "1;1=-4\n2;1=10\n");
+        when(movementRepo.findExisting(List.of(1L, 2L))).thenReturn(List.of());
+
+        ledger.start();
+
+        verify(productRepo, never()).adjustStock(anyInt(), anyInt());
+        assertThat(Files.exists(dir.resolve("inventory.journal.flushing"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debería anotar la reserva en la transacción y devolverla si hace rollback")
+    void shouldJournalInTransaction_AndReleaseOnRollback() throws IOException {
+        ledger.start();
+        when(productRepo.findById(1)).thenReturn(Optional.of(product(1, 5)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.reserve(Map.of(1, 3));
+
+        // Anotada en el journal y con su marca antes del commit
+        assertThat(Files.readString(journal)).isEqualTo("1;1=-3\n");
+        verify(movementRepo).insert(1L);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        ledger.flush();
+
+        assertThat(ledger.availableStock(1)).isEqualTo(5);
+        verify(productRepo, never()).adjustStock(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Debería conservar en el journal los movimientos en curso al rotarlo")
+    void shouldKeepInFlightMovements_WhenJournalRotates() throws IOException {
+        ledger.start();
+        when(productRepo.findById(1)).thenReturn(Optional.of(product(1, 5)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        ledger.reserve(Map.of(1, 2));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Ingreso aún sin confirmar mientras se vuelca la venta
+        TransactionSynchronizationManager.initSynchronization();
+        ledger.restockAfterCommit(Map.of(1, 10));
+        ledger.flush();
+
+        verify(productRepo).adjustStock(1, -2);
+        verify(movementRepo).deleteBySeqIn(List.of(1L));
+        assertThat(Files.readString(journal)).isEqualTo("2;1=10\n");
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        ledger.flush();
+
+        verify(productRepo).adjustStock(1, 10);
+        assertThat(ledger.availableStock(1)).isEqualTo(13);
+    }
+
+    @Test
+    @DisplayName("Debería leer el stock inicial antes de anotar un ingreso para no sumarlo dos veces")
+    void shouldLoadStock_BeforeJournalingRestock() throws IOException {
+        ledger.start();
+        when(productRepo.findById(1)).thenReturn(Optional.of(product(1, 5)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.restockAfterCommit(Map.of(1, 10));
+
+        // Si se leyera al confirmar, un volcado intermedio ya incluiría el ingreso en product.stock
+        InOrder inOrder = inOrder(productRepo, movementRepo);
+        inOrder.verify(productRepo).findById(1);
+        inOrder.verify(movementRepo).insert(1L);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        ledger.flush();
+
+        verify(productRepo, times(1)).findById(1);
+        verify(productRepo).adjustStock(1, 10);
+        assertThat(ledger.availableStock(1)).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("No debería hacer nada cuando el modo no es LEDGER")
+    void shouldDoNothing_WhenDisabled() throws IOException {
+        InventoryLedger disabled = new InventoryLedger(productRepo, movementRepo, transactionManager,
+                StockMode.LOCKING, journal.toString());
+
+        disabled.start();
+        disabled.flush();
+        disabled.stop();
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(Files.exists(journal)).isFalse();
+        verifyNoInteractions(productRepo, movementRepo);
+    }
+
+    // Termina la transacción simulada: ejecuta y limpia las sincronizaciones registradas
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private Product product(Integer id, int stock) {
+        Product product = new Product();
+        product.setIdProduct(id);
+        product.setStock(stock);
+        return product;
+    }
+}
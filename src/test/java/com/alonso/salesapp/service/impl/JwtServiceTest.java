@@ -3,6 +3,7 @@ package com.alonso.salesapp.service.impl;
 import com.alonso.salesapp.exception.InvalidTokenException;
 import com.alonso.salesapp.model.Role;
 import com.alonso.salesapp.model.User;
+import com.alonso.salesapp.security.VerifiedToken;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +14,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -211,5 +213,49 @@ public class JwtServiceTest {
         Date refreshExpiration = jwtService.extractExpiration(refreshToken);
         assertTrue(refreshExpiration.after(accessExpiration));
     }
-    
+
+    @Test
+    @DisplayName("Should verify token once and return parsed data")
+    void shouldVerifyTokenOnce() {
+        // Given
+        String token = jwtService.generateAccessToken(userDetails);
+
+        // When
+        VerifiedToken first = jwtService.verify(token);
+        VerifiedToken second = jwtService.verify(token);
+
+        // Then
+        assertEquals("testuser", first.subject());
+        assertTrue(first.expiresAt().isAfter(Instant.now()));
+        assertSame(first, second); // La segunda llamada sale de la caché, sin volver a verificar la firma
+        assertTrue(jwtService.validateToken(first, userDetails));
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens that fail verification")
+    void shouldNotCacheInvalidTokens() {
+        // Given
+        String token = jwtService.generateAccessToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // When & Then
+        assertThrows(InvalidTokenException.class, () -> jwtService.verify(tampered));
+        assertThrows(InvalidTokenException.class, () -> jwtService.verify(tampered));
+        assertEquals("testuser", jwtService.verify(token).subject());
+    }
+
+    @Test
+    @DisplayName("Should carry role, user id and token version only in access tokens")
+    void shouldCarryAuthorizationClaims() {
+        // When
+        VerifiedToken access = jwtService.verify(jwtService.generateAccessToken(userDetails));
+        VerifiedToken refresh = jwtService.verify(jwtService.generateRefreshToken(userDetails));
+
+        // Then
+        assertTrue(access.hasAuthorizationClaims());
+        assertEquals("ADMIN", access.role());
+        assertEquals(1, access.idUser());
+        assertEquals(0, access.version());
+        assertFalse(refresh.hasAuthorizationClaims());
+    }
 }
@@ -0,0 +1,77 @@
+package com.alonso.salesapp.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Optimistic Retry Tests")
+class OptimisticRetryTest {
+
+    private final OptimisticRetry retry = new OptimisticRetry(3, 1);
+
+    @Test
+    @DisplayName("Debería repetir la operación hasta que no haya conflicto")
+    void shouldRetryUntilNoConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Product", 1);
+            }
+            return "sale";
+        });
+
+        assertThat(result).isEqualTo("sale");
+        assertThat(attempts).hasValue(3);
+        assertThat(retry.conflictCount()).isEqualTo(2);
+        assertThat(retry.retryCount()).isEqualTo(2);
+        assertThat(retry.exhaustedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debería relanzar el conflicto al agotar los intentos")
+    void shouldRethrow_WhenAttemptsAreExhausted() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Product", 1);
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(retry.conflictCount()).isEqualTo(3);
+        assertThat(retry.exhaustedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("No debería repetir otros errores")
+    void shouldNotRetryOtherExceptions() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(attempts).hasValue(1);
+        assertThat(retry.conflictCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debería esperar entre la mitad y el total del tope exponencial")
+    void shouldKeepJitteredBackoffWithinBounds() {
+        OptimisticRetry slow = new OptimisticRetry(5, 8);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(slow.backoff(1)).isBetween(4L, 8L);
+            assertThat(slow.backoff(3)).isBetween(16L, 32L);
+        }
+        assertThat(slow.backoff(40)).isBetween(4096L, 8192L);
+    }
+}
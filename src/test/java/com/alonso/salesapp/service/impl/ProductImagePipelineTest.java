@@ -0,0 +1,247 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.exception.CloudinaryException;
+import com.alonso.salesapp.model.ImageStatus;
+import com.alonso.salesapp.repository.ProductRepo;
+import com.alonso.salesapp.service.ICloudinaryService;
+import org.apache.catalina.core.ApplicationPart;
+import org.apache.tomcat.util.http.fileupload.FileItem;
+import org.apache.tomcat.util.http.fileupload.disk.DiskFileItemFactory;
+import org.apache.tomcat.util.http.fileupload.util.FileItemHeadersImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.support.StandardMultipartHttpServletRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Image Pipeline Tests")
+class ProductImagePipelineTest {
+
+    private static final Map<String, Object> UPLOADED = Map.of(
+            "secure_url", "https://cloudinary.com/new.jpg",
+            "public_id", "new_id"
+    );
+
+    @Mock
+    private ICloudinaryService imageStorage;
+
+    @Mock
+    private ProductRepo productRepo;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private MultipartFile image;
+
+    @TempDir
+    Path staging;
+
+    private ProductImagePipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new ProductImagePipeline(imageStorage, productRepo, transactionManager, 1, 3, 1,
+                staging.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    @DisplayName("Debería subir la imagen, marcar READY y borrar la imagen anterior")
+    void shouldUpload_AndReplacePreviousImage() {
+        when(image.getOriginalFilename()).thenReturn("photo.jpg");
+        when(imageStorage.upload(any(Path.class))).thenReturn(UPLOADED);
+        when(productRepo.findImagePublicId(1)).thenReturn(Optional.of("old_id"));
+
+        pipeline.submit(1, image);
+
+        verify(productRepo, timeout(1000)).updateImage(1, "https://cloudinary.com/new.jpg", "new_id",
+                ImageStatus.READY);
+        verify(imageStorage, timeout(1000)).delete("old_id");
+    }
+
+    @Test
+    @DisplayName("Debería reintentar con backoff cuando la subida falla")
+    void shouldRetry_WhenUploadFails() {
+        when(image.getOriginalFilename()).thenReturn("photo.jpg");
+        when(imageStorage.upload(any(Path.class)))
+                .thenThrow(new CloudinaryException("timeout"))
+                .thenReturn(UPLOADED);
+        when(productRepo.findImagePublicId(1)).thenReturn(Optional.empty());
+
+        pipeline.submit(1, image);
+
+        verify(productRepo, timeout(1000)).updateImage(1, "https://cloudinary.com/new.jpg", "new_id",
+                ImageStatus.READY);
+        verify(imageStorage, times(2)).upload(any(Path.class));
+        verify(imageStorage, never()).delete(anyString());
+    }
+
+    @Test
+    @DisplayName("Debería marcar FAILED al agotar los reintentos")
+    void shouldMarkFailed_AfterMaxAttempts() {
+        when(image.getOriginalFilename()).thenReturn("photo.jpg");
+        when(imageStorage.upload(any(Path.class))).thenThrow(new CloudinaryException("down"));
+
+        pipeline.submit(1, image);
+
+        verify(productRepo, timeout(1000)).updateImageStatus(1, ImageStatus.FAILED);
+        verify(imageStorage, times(3)).upload(any(Path.class));
+        verify(productRepo, never()).updateImage(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Debería reintentar solo la escritura en BD sin volver a subir la imagen")
+    void shouldRetryCompletion_WithoutReuploading() {
+        when(image.getOriginalFilename()).thenReturn("photo.jpg");
+        when(imageStorage.upload(any(Path.class))).thenReturn(UPLOADED);
+        when(productRepo.findImagePublicId(1)).thenReturn(Optional.empty());
+        when(productRepo.updateImage(1, "https://cloudinary.com/new.jpg", "new_id", ImageStatus.READY))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(1);
+
+        pipeline.submit(1, image);
+
+        verify(productRepo, timeout(1000).times(2)).updateImage(1, "https://cloudinary.com/new.jpg", "new_id",
+                ImageStatus.READY);
+        verify(imageStorage, times(1)).upload(any(Path.class));
+        verify(imageStorage, never()).delete(anyString());
+        verify(productRepo, never()).updateImageStatus(any(), any());
+    }
+
+    @Test
+    @DisplayName("Debería borrar la imagen subida y marcar FAILED si la BD no llega a guardarla")
+    void shouldDeleteUploadedImage_WhenCompletionKeepsFailing() {
+        when(image.getOriginalFilename()).thenReturn("photo.jpg");
+        when(imageStorage.upload(any(Path.class))).thenReturn(UPLOADED);
+        when(productRepo.findImagePublicId(1)).thenReturn(Optional.empty());
+        when(productRepo.updateImage(1, "https://cloudinary.com/new.jpg", "new_id", ImageStatus.READY))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        pipeline.submit(1, image);
+
+        verify(productRepo, timeout(1000)).updateImageStatus(1, ImageStatus.FAILED);
+        verify(productRepo, times(3)).updateImage(1, "https://cloudinary.com/new.jpg", "new_id", ImageStatus.READY);
+        verify(imageStorage, times(1)).upload(any(Path.class));
+        verify(imageStorage).delete("new_id");
+    }
+
+    @Test
+    @DisplayName("No debería esperar a la subida de otro producto para terminar")
+    void shouldComplete_WhileOtherProductIsStillCompleting() throws InterruptedException {
+        ProductImagePipeline twoThreads = new ProductImagePipeline(imageStorage, productRepo, transactionManager,
+                2, 3, 1, staging.toString());
+        CountDownLatch release = new CountDownLatch(1);
+        when(image.getOriginalFilename()).thenReturn("photo.jpg");
+        when(imageStorage.upload(any(Path.class))).thenReturn(UPLOADED);
+        when(productRepo.findImagePublicId(1)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.empty();
+        });
+        when(productRepo.findImagePublicId(2)).thenReturn(Optional.empty());
+
+        try {
+            twoThreads.submit(1, image);
+            twoThreads.submit(2, image);
+
+            // El producto 2 se completa mientras el 1 sigue dentro de su transacción
+            verify(productRepo, timeout(1000)).updateImage(2, "https://cloudinary.com/new.jpg", "new_id",
+                    ImageStatus.READY);
+            verify(productRepo, never()).updateImage(eq(1), any(), any(), any());
+        } finally {
+            release.countDown();
+            twoThreads.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería preparar la imagen aunque el nombre del cliente traiga rutas o venga vacío")
+    void shouldStage_WithUnsafeOrMissingFilename() {
+        when(image.getOriginalFilename()).thenReturn("../../etc/photo.jpg", (String) null);
+        when(imageStorage.upload(any(Path.class))).thenReturn(UPLOADED);
+        when(productRepo.findImagePublicId(anyInt())).thenReturn(Optional.empty());
+
+        pipeline.submit(1, image);
+        pipeline.submit(2, image);
+
+        verify(imageStorage, timeout(1000)).upload(argThat((Path path) ->
+                path.getParent().equals(staging) && path.getFileName().toString().endsWith(".jpg")));
+        verify(imageStorage, timeout(1000).times(2)).upload(argThat((Path path) -> path.getParent().equals(staging)));
+    }
+
+    @Test
+    @DisplayName("Debería copiar el contenido completo de un multipart en disco aunque el staging-dir sea relativo")
+    void shouldStageWholeMultipart_WithRelativeStagingDir(@TempDir Path multipartLocation) throws Exception {
+        byte[] content = new byte[64 * 1024];
+        Arrays.fill(content, (byte) 7);
+        MultipartFile upload = diskMultipart(multipartLocation, "photo.jpg", content);
+        ProductImagePipeline relative = new ProductImagePipeline(imageStorage, productRepo, transactionManager, 1, 3, 1,
+                Path.of("").toAbsolutePath().relativize(staging).toString());
+        try {
+            Path staged = relative.stage(upload);
+
+            assertThat(staged.getParent()).isEqualTo(staging);
+            assertThat(Files.size(staged)).isEqualTo(content.length);
+            assertThat(Files.readAllBytes(staged)).isEqualTo(content);
+        } finally {
+            relative.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería conservar solo una extensión simple del nombre original")
+    void extension_KeepsOnlySimpleExtension() {
+        assertThat(ProductImagePipeline.extension("photo.JPG")).isEqualTo(".JPG");
+        assertThat(ProductImagePipeline.extension("a/b/../photo.png")).isEqualTo(".png");
+        assertThat(ProductImagePipeline.extension("dir.d/photo")).isEmpty();
+        assertThat(ProductImagePipeline.extension("photo")).isEmpty();
+        assertThat(ProductImagePipeline.extension(null)).isEmpty();
+    }
+
+    // Multipart como lo entrega Tomcat para una subida grande: el contenido vive en un archivo de su
+    // directorio temporal y transferTo acaba en Part.write
+    static MultipartFile diskMultipart(Path location, String filename, byte[] content) throws IOException {
+        DiskFileItemFactory factory = new DiskFileItemFactory(0, location.toFile());
+        FileItem item = factory.createItem("image", "image/jpeg", false, filename);
+        try (OutputStream out = item.getOutputStream()) {
+            out.write(content);
+        }
+        FileItemHeadersImpl headers = new FileItemHeadersImpl();
+        headers.addHeader("content-disposition", "form-data; name=\"image\"; filename=\"" + filename + "\"");
+        headers.addHeader("content-type", "image/jpeg");
+        item.setHeaders(headers);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/products");
+        request.setContentType("multipart/form-data; boundary=test");
+        request.addPart(new ApplicationPart(item, location.toFile()));
+        return new StandardMultipartHttpServletRequest(request).getFile("image");
+    }
+}
@@ -4,11 +4,13 @@ import com.alonso.salesapp.dto.product.ProductRequestDTO;
 import com.alonso.salesapp.dto.product.ProductResponseDTO;
 import com.alonso.salesapp.exception.ModelNotFoundException;
 import com.alonso.salesapp.mapper.ProductMapper;
+import com.alonso.salesapp.model.Money;
 import com.alonso.salesapp.model.Category;
+import com.alonso.salesapp.model.ImageStatus;
 import com.alonso.salesapp.model.Product;
 import com.alonso.salesapp.repository.CategoryRepo;
 import com.alonso.salesapp.repository.ProductRepo;
-import com.alonso.salesapp.service.ICloudinaryService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -18,14 +20,14 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.HashMap;
+import java.sql.SQLException;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -48,7 +50,10 @@ class ProductServiceImplTest {
     private ProductMapper productMapper;
 
     @Mock
-    private ICloudinaryService cloudinaryService;
+    private ProductImagePipeline imagePipeline;
+
+    @Mock
+    private InventoryLedger ledger;
 
     @InjectMocks
     private ProductServiceImpl productService;
@@ -75,7 +80,7 @@ class ProductServiceImplTest {
                 .category(category)
                 .name("Laptop")
                 .description("Laptop HP")
-                .price(1500.0)
+                .price(Money.of(1500.0))
                 .stock(0)
                 .imageUrl("https://example.com/image.jpg")
                 .imagePublicId("public_id_123")
@@ -85,8 +90,8 @@ class ProductServiceImplTest {
         // Configurar DTOs
         requestDTO = new ProductRequestDTO(1, "Laptop", "Laptop HP", 1500.0, true);
 
-        responseDTO = new ProductResponseDTO(1, 1, "Laptop", "Laptop HP", 1500.0, 0,
-                "https://example.com/image.jpg", "public_id_123", true);
+        responseDTO = new ProductResponseDTO(1, 1, "Laptop", "Laptop HP", Money.of(1500.0), 0,
+                "https://example.com/image.jpg", "public_id_123", true, ImageStatus.READY);
 
         mockImage = mock(MultipartFile.class);
     }
@@ -101,7 +106,7 @@ class ProductServiceImplTest {
         @Test
         @DisplayName("Create - Crear producto exitosamente sin imagen")
         void testCreate_Success_WithoutImage() {
-            when(categoryRepo.findById(1)).thenReturn(Optional.of(category));
+            when(categoryRepo.getReferenceById(1)).thenReturn(category);
             when(productMapper.toEntity(requestDTO)).thenReturn(product);
             when(productRepo.save(any(Product.class))).thenReturn(product);
             when(productMapper.toDTO(product)).thenReturn(responseDTO);
@@ -113,45 +118,42 @@ class ProductServiceImplTest {
             assertThat(result.name()).isEqualTo("Laptop");
             assertThat(result.stock()).isZero();
 
-            verify(categoryRepo, times(1)).findById(1);
+            verify(categoryRepo, times(1)).getReferenceById(1);
+            verify(categoryRepo, never()).findById(anyInt());
             verify(productMapper, times(1)).toEntity(requestDTO);
             verify(productRepo, times(1)).save(any(Product.class));
             verify(productMapper, times(1)).toDTO(product);
-            verify(cloudinaryService, never()).upload(any());
+            verify(imagePipeline, never()).submit(any(), any());
         }
 
         @Test
         @DisplayName("Create - Crear producto exitosamente con imagen")
         void testCreate_Success_WithImage() {
-            Map<String, Object> cloudinaryResult = new HashMap<>();
-            cloudinaryResult.put("secure_url", "https://cloudinary.com/image.jpg");
-            cloudinaryResult.put("public_id", "cloudinary_public_id");
-
-            when(categoryRepo.findById(1)).thenReturn(Optional.of(category));
+            when(categoryRepo.getReferenceById(1)).thenReturn(category);
             when(productMapper.toEntity(requestDTO)).thenReturn(product);
             when(mockImage.isEmpty()).thenReturn(false);
-            when(cloudinaryService.upload(mockImage)).thenReturn(cloudinaryResult);
             when(productRepo.save(any(Product.class))).thenReturn(product);
             when(productMapper.toDTO(product)).thenReturn(responseDTO);
 
             ProductResponseDTO result = productService.create(requestDTO, mockImage);
 
             assertThat(result).isNotNull();
-            verify(cloudinaryService, times(1)).upload(mockImage);
+            verify(imagePipeline, times(1)).submit(1, mockImage);
             verify(productRepo, times(1)).save(any(Product.class));
 
-            // Verificar que se establecieron la URL y el publicId
+            // La imagen queda pendiente: se sube después del commit
             ArgumentCaptor<Product> productCaptor = ArgumentCaptor.forClass(Product.class);
             verify(productRepo).save(productCaptor.capture());
             Product savedProduct = productCaptor.getValue();
             assertThat(savedProduct.getCategory()).isEqualTo(category);
             assertThat(savedProduct.getStock()).isZero();
+            assertThat(savedProduct.getImageStatus()).isEqualTo(ImageStatus.PENDING);
         }
 
         @Test
         @DisplayName("Create - Crear producto con imagen vacía (no se sube)")
         void testCreate_Success_WithEmptyImage() {
-            when(categoryRepo.findById(1)).thenReturn(Optional.of(category));
+            when(categoryRepo.getReferenceById(1)).thenReturn(category);
             when(productMapper.toEntity(requestDTO)).thenReturn(product);
             when(mockImage.isEmpty()).thenReturn(true);
             when(productRepo.save(any(Product.class))).thenReturn(product);
@@ -160,22 +162,35 @@ class ProductServiceImplTest {
             ProductResponseDTO result = productService.create(requestDTO, mockImage);
 
             assertThat(result).isNotNull();
-            verify(cloudinaryService, never()).upload(any());
+            verify(imagePipeline, never()).submit(any(), any());
             verify(productRepo, times(1)).save(any(Product.class));
         }
 
         @Test
         @DisplayName("Create - Lanza excepción cuando categoría no existe")
         void testCreate_ThrowsException_WhenCategoryNotFound() {
-            when(categoryRepo.findById(1)).thenReturn(Optional.empty());
+            when(categoryRepo.getReferenceById(1)).thenReturn(category);
+            when(productMapper.toEntity(requestDTO)).thenReturn(product);
+            when(productRepo.save(any(Product.class)))
+                    .thenThrow(violation("fk_product_category"));
 
             assertThatThrownBy(() -> productService.create(requestDTO, null))
                     .isInstanceOf(ModelNotFoundException.class)
                     .hasMessageContaining("Categoría no encontrada ID: 1");
 
-            verify(categoryRepo, times(1)).findById(1);
-            verify(productMapper, never()).toEntity(any());
-            verify(productRepo, never()).save(any());
+            verify(categoryRepo, never()).findById(anyInt());
+            verify(productMapper, never()).toDTO(any());
+        }
+
+        @Test
+        @DisplayName("Create - Propaga las violaciones que no son de la categoría")
+        void testCreate_PropagatesOtherIntegrityViolations() {
+            when(categoryRepo.getReferenceById(1)).thenReturn(category);
+            when(productMapper.toEntity(requestDTO)).thenReturn(product);
+            DataIntegrityViolationException violation = violation("ck_product_price");
+            when(productRepo.save(any(Product.class))).thenThrow(violation);
+
+            assertThatThrownBy(() -> productService.create(requestDTO, null)).isSameAs(violation);
         }
 
     }
@@ -197,7 +212,7 @@ class ProductServiceImplTest {
                     .category(category)
                     .name("Laptop")
                     .description("Laptop HP")
-                    .price(1500.0)
+                    .price(Money.of(1500.0))
                     .stock(10)
                     .imageUrl("https://example.com/image.jpg")
                     .imagePublicId("public_id_123")
@@ -212,14 +227,14 @@ class ProductServiceImplTest {
 
             assertThat(result).isNotNull();
             verify(productRepo, times(1)).findById(1);
-            verify(categoryRepo, never()).findById(anyInt()); // No se busca categoría porque es la misma
-            verify(cloudinaryService, never()).upload(any());
-            verify(cloudinaryService, never()).delete(any());
+            verify(categoryRepo, never()).getReferenceById(anyInt()); // No se toca la categoría porque es la misma
+            verify(imagePipeline, never()).submit(any(), any());
+            verify(imagePipeline, never()).deleteAfterCommit(any());
             verify(productRepo, times(1)).save(existingProduct);
 
             assertThat(existingProduct.getName()).isEqualTo("Laptop Actualizada");
             assertThat(existingProduct.getDescription()).isEqualTo("Nueva descripción");
-            assertThat(existingProduct.getPrice()).isEqualTo(1800.0);
+            assertThat(existingProduct.getPrice()).isEqualTo(Money.of(1800.0));
         }
 
         @Test
@@ -239,37 +254,33 @@ class ProductServiceImplTest {
                     .category(category)
                     .name("Laptop")
                     .description("Laptop HP")
-                    .price(1500.0)
+                    .price(Money.of(1500.0))
                     .stock(10)
                     .enabled(true)
                     .build();
 
             when(productRepo.findById(1)).thenReturn(Optional.of(existingProduct));
-            when(categoryRepo.findById(2)).thenReturn(Optional.of(newCategory));
-            when(productRepo.save(any(Product.class))).thenReturn(existingProduct);
+            when(categoryRepo.getReferenceById(2)).thenReturn(newCategory);
+            when(productRepo.saveAndFlush(any(Product.class))).thenReturn(existingProduct);
             when(productMapper.toDTO(existingProduct)).thenReturn(responseDTO);
 
             ProductResponseDTO result = productService.update(1, updateDTO, null);
 
             assertThat(result).isNotNull();
-            verify(categoryRepo, times(1)).findById(2);
-            verify(productRepo, times(1)).save(existingProduct);
+            verify(categoryRepo, never()).findById(anyInt());
+            verify(productRepo, times(1)).saveAndFlush(existingProduct);
             assertThat(existingProduct.getCategory()).isEqualTo(newCategory);
         }
 
         @Test
         @DisplayName("Update - Actualizar producto con nueva imagen (elimina la anterior)")
         void testUpdate_Success_WithNewImage() {
-            Map<String, Object> cloudinaryResult = new HashMap<>();
-            cloudinaryResult.put("secure_url", "https://cloudinary.com/new_image.jpg");
-            cloudinaryResult.put("public_id", "new_public_id");
-
             Product existingProduct = Product.builder()
                     .idProduct(1)
                     .category(category)
                     .name("Laptop")
                     .description("Laptop HP")
-                    .price(1500.0)
+                    .price(Money.of(1500.0))
                     .stock(10)
                     .imageUrl("https://example.com/old_image.jpg")
                     .imagePublicId("old_public_id")
@@ -278,31 +289,28 @@ class ProductServiceImplTest {
 
             when(productRepo.findById(1)).thenReturn(Optional.of(existingProduct));
             when(mockImage.isEmpty()).thenReturn(false);
-            when(cloudinaryService.upload(mockImage)).thenReturn(cloudinaryResult);
             when(productRepo.save(any(Product.class))).thenReturn(existingProduct);
             when(productMapper.toDTO(existingProduct)).thenReturn(responseDTO);
 
             ProductResponseDTO result = productService.update(1, requestDTO, mockImage);
 
             assertThat(result).isNotNull();
-            verify(cloudinaryService, times(1)).delete("old_public_id");
-            verify(cloudinaryService, times(1)).upload(mockImage);
+            verify(imagePipeline, times(1)).submit(1, mockImage);
             verify(productRepo, times(1)).save(existingProduct);
+            // La imagen anterior se conserva hasta que la nueva termine de subirse
+            assertThat(existingProduct.getImagePublicId()).isEqualTo("old_public_id");
+            assertThat(existingProduct.getImageStatus()).isEqualTo(ImageStatus.PENDING);
         }
 
         @Test
         @DisplayName("Update - Actualizar producto con nueva imagen cuando no había imagen previa")
         void testUpdate_Success_WithNewImageAndNoPreviousImage() {
-            Map<String, Object> cloudinaryResult = new HashMap<>();
-            cloudinaryResult.put("secure_url", "https://cloudinary.com/new_image.jpg");
-            cloudinaryResult.put("public_id", "new_public_id");
-
             Product existingProduct = Product.builder()
                     .idProduct(1)
                     .category(category)
                     .name("Laptop")
                     .description("Laptop HP")
-                    .price(1500.0)
+                    .price(Money.of(1500.0))
                     .stock(10)
                     .imageUrl(null)
                     .imagePublicId(null)
@@ -311,15 +319,14 @@ class ProductServiceImplTest {
 
             when(productRepo.findById(1)).thenReturn(Optional.of(existingProduct));
             when(mockImage.isEmpty()).thenReturn(false);
-            when(cloudinaryService.upload(mockImage)).thenReturn(cloudinaryResult);
             when(productRepo.save(any(Product.class))).thenReturn(existingProduct);
             when(productMapper.toDTO(existingProduct)).thenReturn(responseDTO);
 
             ProductResponseDTO result = productService.update(1, requestDTO, mockImage);
 
             assertThat(result).isNotNull();
-            verify(cloudinaryService, never()).delete(any()); // No se elimina porque no había imagen previa
-            verify(cloudinaryService, times(1)).upload(mockImage);
+            verify(imagePipeline, never()).deleteAfterCommit(any()); // No se elimina porque no había imagen previa
+            verify(imagePipeline, times(1)).submit(1, mockImage);
             verify(productRepo, times(1)).save(existingProduct);
         }
 
@@ -332,7 +339,7 @@ class ProductServiceImplTest {
                     .category(category)
                     .name("Laptop")
                     .description("Descripción original")
-                    .price(1500.0)
+                    .price(Money.of(1500.0))
                     .stock(10)
                     .enabled(true)
                     .build();
@@ -346,7 +353,7 @@ class ProductServiceImplTest {
             assertThat(result).isNotNull();
             assertThat(existingProduct.getName()).isEqualTo("Laptop Actualizada");
             assertThat(existingProduct.getDescription()).isEqualTo("Descripción original"); // No cambió
-            assertThat(existingProduct.getPrice()).isEqualTo(1800.0);
+            assertThat(existingProduct.getPrice()).isEqualTo(Money.of(1800.0));
             assertThat(existingProduct.isEnabled()).isTrue(); // No cambió
         }
 
@@ -359,7 +366,7 @@ class ProductServiceImplTest {
                     .category(category)
                     .name("Laptop")
                     .description("Laptop HP")
-                    .price(1500.0)
+                    .price(Money.of(1500.0))
                     .stock(10)
                     .enabled(true)
                     .build();
@@ -371,7 +378,7 @@ class ProductServiceImplTest {
             ProductResponseDTO result = productService.update(1, updateDTO, null);
 
             assertThat(result).isNotNull();
-            assertThat(existingProduct.getPrice()).isEqualTo(1500.0); // No cambió
+            assertThat(existingProduct.getPrice()).isEqualTo(Money.of(1500.0)); // No cambió
         }
 
         @Test
@@ -384,7 +391,7 @@ class ProductServiceImplTest {
                     .category(category)
                     .name("Laptop")
                     .description("Laptop HP")
-                    .price(1500.0)
+                    .price(Money.of(1500.0))
                     .stock(10)
                     .enabled(true)
                     .build();
@@ -399,8 +406,8 @@ class ProductServiceImplTest {
             assertThat(existingProduct.getCategory()).isEqualTo(category); // No cambió
             assertThat(existingProduct.getName()).isEqualTo("Laptop Actualizada");
             assertThat(existingProduct.getDescription()).isEqualTo("Nueva descripción");
-            assertThat(existingProduct.getPrice()).isEqualTo(1800.0);
-            verify(categoryRepo, never()).findById(anyInt());
+            assertThat(existingProduct.getPrice()).isEqualTo(Money.of(1800.0));
+            verify(categoryRepo, never()).getReferenceById(anyInt());
         }
 
         @Test
@@ -412,7 +419,7 @@ class ProductServiceImplTest {
                     .category(category)
                     .name("Laptop")
                     .description("Laptop HP")
-                    .price(1500.0)
+                    .price(Money.of(1500.0))
                     .stock(10)
                     .imageUrl("https://example.com/old_image.jpg")
                     .imagePublicId("old_public_id")
@@ -427,8 +434,8 @@ class ProductServiceImplTest {
             ProductResponseDTO result = productService.update(1, updateDTO, mockImage);
 
             assertThat(result).isNotNull();
-            verify(cloudinaryService, never()).delete(any()); // No se elimina
-            verify(cloudinaryService, never()).upload(any()); // No se sube
+            verify(imagePipeline, never()).deleteAfterCommit(any()); // No se elimina
+            verify(imagePipeline, never()).submit(any(), any()); // No se sube
             verify(productRepo, times(1)).save(existingProduct);
         }
 
@@ -461,20 +468,22 @@ class ProductServiceImplTest {
                     .category(category)
                     .name("Laptop")
                     .description("Laptop HP")
-                    .price(1500.0)
+                    .price(Money.of(1500.0))
                     .stock(10)
                     .enabled(true)
                     .build();
 
             when(productRepo.findById(1)).thenReturn(Optional.of(existingProduct));
-            when(categoryRepo.findById(99)).thenReturn(Optional.empty());
+            when(categoryRepo.getReferenceById(99)).thenReturn(Category.builder().idCategory(99).build());
+            when(productRepo.saveAndFlush(any(Product.class)))
+                    .thenThrow(violation("fk_product_category"));
 
             assertThatThrownBy(() -> productService.update(1, updateDTO, null))
                     .isInstanceOf(ModelNotFoundException.class)
                     .hasMessageContaining("Categoría no encontrada ID: 99");
 
-            verify(categoryRepo, times(1)).findById(99);
-            verify(productRepo, never()).save(any());
+            verify(categoryRepo, never()).findById(anyInt());
+            verify(productMapper, never()).toDTO(any());
         }
     }
     // ============================================
@@ -519,6 +528,27 @@ class ProductServiceImplTest {
             verify(productMapper, never()).toDTO(any());
         }
 
+        @Test
+        @DisplayName("Search - Devuelve la página de resultados del repositorio")
+        void testSearch_Success() {
+            when(productRepo.search(eq("laptop hp"), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(product)));
+            when(productMapper.toDTO(product)).thenReturn(responseDTO);
+
+            Page<ProductResponseDTO> result = productService.search("  laptop hp ", 0, 10);
+
+            assertThat(result.getContent()).extracting(ProductResponseDTO::name).containsExactly("Laptop");
+            verify(productRepo).search(eq("laptop hp"), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Search - Consulta vacía no va a la base de datos")
+        void testSearch_BlankQuery() {
+            Page<ProductResponseDTO> result = productService.search("   ", 0, 10);
+
+            assertThat(result.getContent()).isEmpty();
+            verify(productRepo, never()).search(any(), any());
+        }
+
         // ============================================
         // TESTS PARA READ BY ID
         // ============================================
@@ -539,6 +569,19 @@ class ProductServiceImplTest {
             verify(productMapper, times(1)).toDTO(product);
         }
 
+        @Test
+        @DisplayName("ReadById - Informa el stock del ledger cuando está activo")
+        void testReadById_UsesLedgerStock() {
+            when(productRepo.findById(1)).thenReturn(Optional.of(product));
+            when(productMapper.toDTO(product)).thenReturn(responseDTO);
+            when(ledger.availableStock(1)).thenReturn(7);
+
+            ProductResponseDTO result = productService.readById(1);
+
+            assertThat(result.stock()).isEqualTo(7);
+            assertThat(result.name()).isEqualTo("Laptop");
+        }
+
         @Test
         @DisplayName("ReadById - Lanza excepción cuando producto no existe")
         void testReadById_ThrowsException_WhenProductNotFound() {
@@ -568,7 +611,7 @@ class ProductServiceImplTest {
             productService.delete(1);
 
             verify(productRepo, times(1)).findById(1);
-            verify(cloudinaryService, times(1)).delete("public_id_123");
+            verify(imagePipeline, times(1)).deleteAfterCommit("public_id_123");
             verify(productRepo, times(1)).save(product);
             assertThat(product.isEnabled()).isFalse();
         }
@@ -581,7 +624,7 @@ class ProductServiceImplTest {
                     .category(category)
                     .name("Laptop")
                     .description("Laptop HP")
-                    .price(1500.0)
+                    .price(Money.of(1500.0))
                     .stock(10)
                     .imageUrl(null)
                     .imagePublicId(null)
@@ -594,7 +637,7 @@ class ProductServiceImplTest {
             productService.delete(1);
 
             verify(productRepo, times(1)).findById(1);
-            verify(cloudinaryService, never()).delete(any());
+            verify(imagePipeline, never()).deleteAfterCommit(any());
             verify(productRepo, times(1)).save(productWithoutImage);
             assertThat(productWithoutImage.isEnabled()).isFalse();
         }
@@ -609,8 +652,14 @@ class ProductServiceImplTest {
                     .hasMessageContaining("Producto no encontrado ID: 1");
 
             verify(productRepo, times(1)).findById(1);
-            verify(cloudinaryService, never()).delete(any());
+            verify(imagePipeline, never()).deleteAfterCommit(any());
             verify(productRepo, never()).save(any());
         }
     }
-}
\ No newline at end of file
+
+    // Lo que Spring traduce cuando la BD rechaza la escritura por la restricción indicada
+    private static DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("constraint violated", new SQLException("violation"), constraint));
+    }
+}
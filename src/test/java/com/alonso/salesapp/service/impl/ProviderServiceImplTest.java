@@ -152,34 +152,27 @@ class ProviderServiceImplTest {
         @Test
         @DisplayName("Debería retornar todos los proveedores")
         void shouldReturnAllProviders() {
-            Provider provider2 = new Provider();
-            provider2.setIdProvider(2);
-            provider2.setName("Office Supplies Co");
-            provider2.setAddress("789 Office Ave");
-            provider2.setEnabled(true);
             ProviderDTO providerDTO2 = new ProviderDTO(2, "Office Supplies Co", "789 Office Ave", true);
 
-            when(repo.findAll()).thenReturn(List.of(provider, provider2));
-            when(mapper.toDTO(provider)).thenReturn(providerDTO);
-            when(mapper.toDTO(provider2)).thenReturn(providerDTO2);
+            when(repo.findAllAsDTO()).thenReturn(List.of(providerDTO, providerDTO2));
 
             List<ProviderDTO> result = providerService.readAll();
 
             assertThat(result).hasSize(2);
             assertThat(result).extracting(ProviderDTO::name)
                     .containsExactly("Tech Supplies Inc", "Office Supplies Co");
-            verify(repo).findAll();
+            verify(repo).findAllAsDTO();
         }
 
         @Test
         @DisplayName("Debería retornar lista vacía cuando no hay proveedores")
         void shouldReturnEmptyList_WhenNoProvidersExist() {
-            when(repo.findAll()).thenReturn(List.of());
+            when(repo.findAllAsDTO()).thenReturn(List.of());
 
             List<ProviderDTO> result = providerService.readAll();
 
             assertThat(result).isEmpty();
-            verify(repo).findAll();
+            verify(repo).findAllAsDTO();
         }
 
         @Test
@@ -5,6 +5,9 @@ import com.alonso.salesapp.exception.ModelNotFoundException;
 import com.alonso.salesapp.mapper.RoleMapper;
 import com.alonso.salesapp.model.Role;
 import com.alonso.salesapp.repository.RoleRepo;
+import com.alonso.salesapp.repository.UserRepo;
+import com.alonso.salesapp.security.PrincipalCache;
+import com.alonso.salesapp.security.TokenVersionRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -33,6 +36,15 @@ class RoleServiceImplTest {
     @Mock
     private RoleMapper mapper;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private UserRepo userRepo;
+
+    @Mock
+    private TokenVersionRegistry tokenVersions;
+
     @InjectMocks
     private RoleServiceImpl roleService;
 
@@ -150,33 +162,27 @@ class RoleServiceImplTest {
         @Test
         @DisplayName("Debería retornar todos los roles")
         void shouldReturnAllRoles() {
-            Role role2 = new Role();
-            role2.setIdRole(2);
-            role2.setName("USER");
-            role2.setEnabled(true);
             RoleDTO roleDTO2 = new RoleDTO(2, "USER", true);
 
-            when(repo.findAll()).thenReturn(List.of(role, role2));
-            when(mapper.toDTO(role)).thenReturn(roleDTO);
-            when(mapper.toDTO(role2)).thenReturn(roleDTO2);
+            when(repo.findAllAsDTO()).thenReturn(List.of(roleDTO, roleDTO2));
 
             List<RoleDTO> result = roleService.readAll();
 
             assertThat(result).hasSize(2);
             assertThat(result).extracting(RoleDTO::name)
                     .containsExactly("ADMIN", "USER");
-            verify(repo).findAll();
+            verify(repo).findAllAsDTO();
         }
 
         @Test
         @DisplayName("Debería retornar lista vacía cuando no hay roles")
         void shouldReturnEmptyList_WhenNoRolesExist() {
-            when(repo.findAll()).thenReturn(List.of());
+            when(repo.findAllAsDTO()).thenReturn(List.of());
 
             List<RoleDTO> result = roleService.readAll();
 
             assertThat(result).isEmpty();
-            verify(repo).findAll();
+            verify(repo).findAllAsDTO();
         }
 
         @Test
@@ -220,6 +226,8 @@ class RoleServiceImplTest {
 
             ArgumentCaptor<Role> captor = ArgumentCaptor.forClass(Role.class);
             verify(repo).save(captor.capture());
+            verify(userRepo).bumpTokenVersionByRole(1);
+            verify(tokenVersions).refresh();
         }
 
         @Test
@@ -0,0 +1,129 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.dto.analytics.LineGroupDTO;
+import com.alonso.salesapp.dto.analytics.SaleLineRow;
+import com.alonso.salesapp.model.*;
+import com.alonso.salesapp.repository.SaleRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Sale Line Column Store Tests")
+class SaleLineColumnStoreTest {
+
+    private static final LocalDateTime MARCH_1 = LocalDateTime.of(2026, 3, 1, 10, 0);
+    private static final LocalDate FROM = LocalDate.of(2026, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2026, 4, 1);
+
+    @Mock
+    private SaleRepo saleRepo;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SaleLineColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new SaleLineColumnStore(saleRepo, transactionManager, true);
+        store.load(Stream.of(
+                new SaleLineRow(MARCH_1, 1, 7, (short) 2, Money.of(0.1), Money.of(0.0)),
+                new SaleLineRow(MARCH_1, 2, 7, (short) 1, Money.of(20.0), Money.of(5.0)),
+                new SaleLineRow(MARCH_1.plusDays(1), 1, 8, (short) 3, Money.of(0.1), Money.of(0.0)),
+                new SaleLineRow(MARCH_1.plusMonths(1), 1, 8, (short) 9, Money.of(10.0), Money.of(0.0))));
+    }
+
+    @Test
+    @DisplayName("Debería agrupar por producto sumando en punto fijo")
+    void shouldGroupByProduct_WithExactSums() {
+        List<LineGroupDTO> groups = store.aggregate(FROM, TO, null, null, LineGroupBy.PRODUCT);
+
+        // 0.1 * 5 en double no da 0.5 exacto; en céntimos sí
+        assertThat(groups).containsExactly(
+                new LineGroupDTO("1", 5L, 0.5, 2L),
+                new LineGroupDTO("2", 1L, 15.0, 1L));
+    }
+
+    @Test
+    @DisplayName("Debería agrupar por día y filtrar por producto y cajero")
+    void shouldGroupByDay_AndFilter() {
+        assertThat(store.aggregate(FROM, TO, 1, null, LineGroupBy.DAY)).containsExactly(
+                new LineGroupDTO("2026-03-01", 2L, 0.2, 1L),
+                new LineGroupDTO("2026-03-02", 3L, 0.3, 1L));
+
+        assertThat(store.aggregate(FROM, TO.plusDays(1), null, 8, LineGroupBy.USER)).containsExactly(
+                new LineGroupDTO("8", 12L, 90.3, 2L));
+    }
+
+    @Test
+    @DisplayName("Debería retornar vacío cuando el rango no tiene líneas")
+    void shouldReturnEmpty_WhenRangeHasNoLines() {
+        assertThat(store.aggregate(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1), null, null,
+                LineGroupBy.PRODUCT)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debería añadir una venta sin transacción activa de inmediato")
+    void shouldAppendSale_WithoutTransaction() {
+        Category category = new Category(1, "Electronics", "Electronic devices", true);
+        Product product = Product.builder().idProduct(3).name("Mouse").price(Money.of(20.0)).category(category).build();
+        Sale sale = Sale.builder()
+                .user(User.builder().idUser(7).username("seller").build())
+                .dateTime(MARCH_1)
+                .details(List.of(SaleDetail.builder().product(product).quantity((short) 4).salePrice(Money.of(20.0))
+                        .discount(Money.of(1.5)).build()))
+                .build();
+
+        store.append(sale);
+
+        assertThat(store.size()).isEqualTo(5);
+        assertThat(store.aggregate(FROM, TO, 3, null, LineGroupBy.PRODUCT))
+                .containsExactly(new LineGroupDTO("3", 4L, 78.5, 1L));
+    }
+
+    @Test
+    @DisplayName("Debería dar el mismo resultado que un recorrido secuencial con muchas filas")
+    void shouldMatchSequentialSums_WhenScanIsSplit() {
+        int rows = 500_000;
+        SaleLineColumnStore big = new SaleLineColumnStore(saleRepo, transactionManager, true);
+        big.load(IntStream.range(0, rows).mapToObj(i -> new SaleLineRow(MARCH_1.plusDays(i % 28), 1 + i % 50,
+                1 + i % 5, (short) (1 + i % 3), Money.of(1.25), i % 2 == 0 ? Money.ZERO : Money.of(0.5))));
+
+        List<LineGroupDTO> groups = big.aggregate(FROM, TO, null, null, LineGroupBy.PRODUCT);
+
+        assertThat(groups).hasSize(50);
+        long units = groups.stream().mapToLong(LineGroupDTO::units).sum();
+        long lines = groups.stream().mapToLong(LineGroupDTO::lines).sum();
+        long expectedUnits = IntStream.range(0, rows).mapToLong(i -> 1 + i % 3).sum();
+        assertThat(lines).isEqualTo(rows);
+        assertThat(units).isEqualTo(expectedUnits);
+        verifyNoInteractions(saleRepo);
+    }
+
+    @Test
+    @DisplayName("No debería cargar nada ni aceptar ventas cuando está deshabilitado")
+    void shouldIgnoreAppends_WhenDisabled() {
+        SaleLineColumnStore disabled = new SaleLineColumnStore(saleRepo, transactionManager, false);
+
+        disabled.start();
+        disabled.append(Sale.builder().build());
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.size()).isZero();
+        verifyNoInteractions(saleRepo, transactionManager);
+    }
+}
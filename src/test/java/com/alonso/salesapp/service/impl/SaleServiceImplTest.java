@@ -1,26 +1,47 @@
 package com.alonso.salesapp.service.impl;
 
+import com.alonso.salesapp.dto.sale.DailySalesDTO;
+import com.alonso.salesapp.dto.sale.SaleBatchItemDTO;
+import com.alonso.salesapp.dto.sale.SaleBatchResponseDTO;
 import com.alonso.salesapp.dto.sale.SaleDTO;
 import com.alonso.salesapp.dto.sale.SaleDetailDTO;
+import com.alonso.salesapp.dto.sale.SaleFilterDTO;
+import com.alonso.salesapp.dto.sale.SalePageDTO;
 import com.alonso.salesapp.dto.sale.SaleResponseDTO;
+import com.alonso.salesapp.exception.InvalidRequestException;
 import com.alonso.salesapp.exception.ModelNotFoundException;
 import com.alonso.salesapp.mapper.SaleMapper;
 import com.alonso.salesapp.model.*;
 import com.alonso.salesapp.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import tools.jackson.databind.ObjectMapper;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -46,6 +67,24 @@ class SaleServiceImplTest {
     @Mock
     private ProductRepo productRepo;
 
+    @Mock
+    private InventoryLedger ledger;
+
+    @Mock
+    private SalesRollup rollup;
+
+    @Mock
+    private SaleLineColumnStore columnStore;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private SaleServiceImpl saleService;
 
@@ -82,7 +121,7 @@ class SaleServiceImplTest {
         product = new Product();
         product.setIdProduct(1);
         product.setName("Laptop");
-        product.setPrice(1000.0);
+        product.setPrice(Money.of(1000.0));
         product.setStock(10);
         product.setCategory(category);
 
@@ -91,8 +130,8 @@ class SaleServiceImplTest {
         saleDetail.setIdSaleDetail(1);
         saleDetail.setProduct(product);
         saleDetail.setQuantity((short) 2);
-        saleDetail.setSalePrice(1000.0);
-        saleDetail.setDiscount(0.0);
+        saleDetail.setSalePrice(Money.of(1000.0));
+        saleDetail.setDiscount(Money.of(0.0));
 
         // Setup Sale
         sale = new Sale();
@@ -100,8 +139,8 @@ class SaleServiceImplTest {
         sale.setClient(client);
         sale.setUser(user);
         sale.setDateTime(LocalDateTime.now());
-        sale.setTax(360.0);
-        sale.setTotal(2360.0);
+        sale.setTax(Money.of(360.0));
+        sale.setTotal(Money.of(2360.0));
         sale.setDetails(new ArrayList<>(List.of(saleDetail)));
         saleDetail.setSale(sale);
 
@@ -121,7 +160,7 @@ class SaleServiceImplTest {
             when(mapper.toEntity(saleDTO)).thenReturn(sale);
             when(clientRepo.findById(1)).thenReturn(Optional.of(client));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Sale.class))).thenReturn(sale);
             when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
 
@@ -130,8 +169,10 @@ class SaleServiceImplTest {
             assertThat(result).isNotNull();
             verify(clientRepo).findById(1);
             verify(userRepo).findById(1);
-            verify(productRepo).findByIdLocked(1);
+            verify(productRepo).findAllByIdLocked(Set.of(1));
             verify(repo).save(any(Sale.class));
+            verify(rollup).record(sale);
+            verify(columnStore).append(sale);
         }
 
         @Test
@@ -170,13 +211,13 @@ class SaleServiceImplTest {
             when(mapper.toEntity(saleDTO)).thenReturn(sale);
             when(clientRepo.findById(1)).thenReturn(Optional.of(client));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.empty());
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of());
 
             assertThatThrownBy(() -> saleService.create(saleDTO))
                     .isInstanceOf(ModelNotFoundException.class)
                     .hasMessageContaining("Product not found with id: 1");
 
-            verify(productRepo).findByIdLocked(1);
+            verify(productRepo).findAllByIdLocked(Set.of(1));
             verify(repo, never()).save(any());
         }
 
@@ -188,13 +229,14 @@ class SaleServiceImplTest {
             when(mapper.toEntity(saleDTO)).thenReturn(sale);
             when(clientRepo.findById(1)).thenReturn(Optional.of(client));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
 
             assertThatThrownBy(() -> saleService.create(saleDTO))
                     .isInstanceOf(ModelNotFoundException.class)
                     .hasMessageContaining("Stock insuficiente para el producto: Laptop");
 
             verify(repo, never()).save(any());
+            verifyNoInteractions(rollup, columnStore);
         }
 
         @Test
@@ -205,7 +247,7 @@ class SaleServiceImplTest {
             when(mapper.toEntity(saleDTO)).thenReturn(sale);
             when(clientRepo.findById(1)).thenReturn(Optional.of(client));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Sale.class))).thenReturn(sale);
             when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
 
@@ -220,7 +262,7 @@ class SaleServiceImplTest {
             when(mapper.toEntity(saleDTO)).thenReturn(sale);
             when(clientRepo.findById(1)).thenReturn(Optional.of(client));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Sale.class))).thenReturn(sale);
             when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
 
@@ -232,7 +274,7 @@ class SaleServiceImplTest {
 
             // Subtotal: 2 * 1000 - 0 = 2000
             // Tax (18%): 2000 * 0.18 = 360
-            assertThat(savedSale.getTax()).isEqualTo(360.0);
+            assertThat(savedSale.getTax()).isEqualTo(Money.of(360.0));
         }
 
         @Test
@@ -241,7 +283,7 @@ class SaleServiceImplTest {
             when(mapper.toEntity(saleDTO)).thenReturn(sale);
             when(clientRepo.findById(1)).thenReturn(Optional.of(client));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Sale.class))).thenReturn(sale);
             when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
 
@@ -252,7 +294,7 @@ class SaleServiceImplTest {
             Sale savedSale = captor.getValue();
 
             // Subtotal: 2000, Tax: 360, Total: 2360
-            assertThat(savedSale.getTotal()).isEqualTo(2360.0);
+            assertThat(savedSale.getTotal()).isEqualTo(Money.of(2360.0));
         }
 
         @Test
@@ -263,7 +305,7 @@ class SaleServiceImplTest {
             when(mapper.toEntity(saleDTO)).thenReturn(sale);
             when(clientRepo.findById(1)).thenReturn(Optional.of(client));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Sale.class))).thenReturn(sale);
             when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
 
@@ -316,7 +358,7 @@ class SaleServiceImplTest {
             when(mapper.toEntity(dtoWithTax)).thenReturn(saleWithTax);
             when(clientRepo.findById(1)).thenReturn(Optional.of(client));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Sale.class))).thenReturn(saleWithTax);
             when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
 
@@ -324,7 +366,7 @@ class SaleServiceImplTest {
 
             ArgumentCaptor<Sale> captor = ArgumentCaptor.forClass(Sale.class);
             verify(repo).save(captor.capture());
-            assertThat(captor.getValue().getTax()).isEqualTo(100.0);
+            assertThat(captor.getValue().getTax()).isEqualTo(Money.of(100.0));
         }
 
         @Test
@@ -333,7 +375,7 @@ class SaleServiceImplTest {
             when(mapper.toEntity(saleDTO)).thenReturn(sale);
             when(clientRepo.findById(1)).thenReturn(Optional.of(client));
             when(userRepo.findById(1)).thenReturn(Optional.of(user));
-            when(productRepo.findByIdLocked(1)).thenReturn(Optional.of(product));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
             when(repo.save(any(Sale.class))).thenReturn(sale);
             when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
 
@@ -345,6 +387,414 @@ class SaleServiceImplTest {
 
             savedSale.getDetails().forEach(detail -> assertThat(detail.getSale()).isEqualTo(savedSale));
         }
+
+        @Test
+        @DisplayName("Debería guardar en cada línea el coste medio vigente del producto")
+        void shouldSnapshotAverageCost_InDetails() {
+            product.setAverageCost(700.0);
+            when(mapper.toEntity(saleDTO)).thenReturn(sale);
+            when(clientRepo.findById(1)).thenReturn(Optional.of(client));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
+            when(repo.save(any(Sale.class))).thenReturn(sale);
+            when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
+
+            saleService.create(saleDTO);
+
+            ArgumentCaptor<Sale> captor = ArgumentCaptor.forClass(Sale.class);
+            verify(repo).save(captor.capture());
+
+            assertThat(captor.getValue().getDetails()).allSatisfy(detail ->
+                    assertThat(detail.getUnitCost()).isEqualTo(700.0));
+        }
+
+        @Test
+        @DisplayName("Debería bloquear productos una sola vez, ordenados y sin duplicados")
+        void shouldLockProductsOnce_SortedAndDistinct() {
+            Product product2 = new Product();
+            product2.setIdProduct(2);
+            product2.setName("Mouse");
+            product2.setPrice(Money.of(50.0));
+            product2.setStock(5);
+
+            SaleDetail detail2 = new SaleDetail();
+            detail2.setProduct(product2);
+            detail2.setQuantity((short) 1);
+
+            SaleDetail detail3 = new SaleDetail();
+            detail3.setProduct(product);
+            detail3.setQuantity((short) 3);
+
+            // Orden del cliente: 1, 2, 1
+            sale.getDetails().addAll(List.of(detail2, detail3));
+
+            when(mapper.toEntity(saleDTO)).thenReturn(sale);
+            when(clientRepo.findById(1)).thenReturn(Optional.of(client));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(productRepo.findAllByIdLocked(Set.of(1, 2))).thenReturn(List.of(product, product2));
+            when(repo.save(any(Sale.class))).thenReturn(sale);
+            when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
+
+            saleService.create(saleDTO);
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Set<Integer>> captor = ArgumentCaptor.forClass(Set.class);
+            verify(productRepo).findAllByIdLocked(captor.capture());
+            assertThat(captor.getValue()).containsExactly(1, 2);
+            verifyNoMoreInteractions(productRepo);
+
+            assertThat(product.getStock()).isEqualTo(5); // 10 - 2 - 3
+            assertThat(product2.getStock()).isEqualTo(4); // 5 - 1
+        }
+
+        @Test
+        @DisplayName("Debería validar stock acumulado cuando un producto se repite en varias líneas")
+        void shouldThrowException_WhenRepeatedLinesExceedStock() {
+            SaleDetail repeated = new SaleDetail();
+            repeated.setProduct(product);
+            repeated.setQuantity((short) 9);
+            sale.getDetails().add(repeated);
+
+            when(mapper.toEntity(saleDTO)).thenReturn(sale);
+            when(clientRepo.findById(1)).thenReturn(Optional.of(client));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
+
+            assertThatThrownBy(() -> saleService.create(saleDTO))
+                    .isInstanceOf(ModelNotFoundException.class)
+                    .hasMessageContaining("Stock insuficiente para el producto: Laptop");
+
+            verify(repo, never()).save(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Crear Venta con stock atómico")
+    class AtomicStockTests {
+
+        @BeforeEach
+        void setUp() {
+            ReflectionTestUtils.setField(saleService, "stockMode", StockMode.ATOMIC);
+        }
+
+        @Test
+        @DisplayName("Debería descontar stock con UPDATE condicional sin bloquear productos")
+        void shouldDecrementStock_WithConditionalUpdate() {
+            when(mapper.toEntity(saleDTO)).thenReturn(sale);
+            when(clientRepo.findById(1)).thenReturn(Optional.of(client));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(productRepo.findAllById(Set.of(1))).thenReturn(List.of(product));
+            when(productRepo.decrementStockIfAvailable(1, 2)).thenReturn(1);
+            when(repo.save(any(Sale.class))).thenReturn(sale);
+            when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
+
+            saleService.create(saleDTO);
+
+            // Los productos se leen después del UPDATE, con el stock ya descontado
+            InOrder order = inOrder(productRepo);
+            order.verify(productRepo).decrementStockIfAvailable(1, 2);
+            order.verify(productRepo).findAllById(Set.of(1));
+            verify(productRepo, never()).findAllByIdLocked(any());
+            // La entidad no se toca: el stock ya se actualizó en BD
+            assertThat(product.getStock()).isEqualTo(10);
+            assertThat(saleDetail.getSalePrice()).isEqualTo(Money.of(1000.0));
+        }
+
+        @Test
+        @DisplayName("Debería sumar líneas repetidas en un solo UPDATE por producto")
+        void shouldMergeRepeatedLines_IntoSingleUpdate() {
+            SaleDetail repeated = new SaleDetail();
+            repeated.setProduct(product);
+            repeated.setQuantity((short) 3);
+            sale.getDetails().add(repeated);
+
+            when(mapper.toEntity(saleDTO)).thenReturn(sale);
+            when(clientRepo.findById(1)).thenReturn(Optional.of(client));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(productRepo.findAllById(Set.of(1))).thenReturn(List.of(product));
+            when(productRepo.decrementStockIfAvailable(1, 5)).thenReturn(1);
+            when(repo.save(any(Sale.class))).thenReturn(sale);
+            when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
+
+            saleService.create(saleDTO);
+
+            verify(productRepo).decrementStockIfAvailable(1, 5);
+        }
+
+        @Test
+        @DisplayName("Debería lanzar exception cuando el UPDATE no afecta filas")
+        void shouldThrowException_WhenNoRowsUpdated() {
+            when(mapper.toEntity(saleDTO)).thenReturn(sale);
+            when(clientRepo.findById(1)).thenReturn(Optional.of(client));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(productRepo.decrementStockIfAvailable(1, 2)).thenReturn(0);
+            // Releído tras el UPDATE: otra venta dejó 1 unidad
+            product.setStock(1);
+            when(productRepo.findById(1)).thenReturn(Optional.of(product));
+
+            assertThatThrownBy(() -> saleService.create(saleDTO))
+                    .isInstanceOf(ModelNotFoundException.class)
+                    .hasMessageContaining("Stock insuficiente para el producto: Laptop. Stock actual: 1");
+
+            verify(productRepo, never()).findAllById(any());
+            verify(repo, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Debería lanzar exception cuando producto no existe")
+        void shouldThrowException_WhenProductNotFound() {
+            when(mapper.toEntity(saleDTO)).thenReturn(sale);
+            when(clientRepo.findById(1)).thenReturn(Optional.of(client));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(productRepo.decrementStockIfAvailable(1, 2)).thenReturn(0);
+            when(productRepo.findById(1)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> saleService.create(saleDTO))
+                    .isInstanceOf(ModelNotFoundException.class)
+                    .hasMessageContaining("Product not found with id: 1");
+
+            verify(repo, never()).save(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Crear Venta con control optimista")
+    class OptimisticStockTests {
+
+        @BeforeEach
+        void setUp() {
+            ReflectionTestUtils.setField(saleService, "stockMode", StockMode.OPTIMISTIC);
+        }
+
+        @Test
+        @DisplayName("Debería descontar stock en memoria sin bloquear productos")
+        void shouldDecrementInMemory_WithoutLocks() {
+            when(mapper.toEntity(saleDTO)).thenReturn(sale);
+            when(clientRepo.findById(1)).thenReturn(Optional.of(client));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(productRepo.findAllById(Set.of(1))).thenReturn(List.of(product));
+            when(repo.save(any(Sale.class))).thenReturn(sale);
+            when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
+
+            saleService.create(saleDTO);
+
+            // El UPDATE con la versión lo hace el dirty checking al confirmar
+            assertThat(product.getStock()).isEqualTo(8);
+            verify(productRepo, never()).findAllByIdLocked(any());
+            verify(productRepo, never()).decrementStockIfAvailable(any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Debería lanzar exception cuando el stock leído no alcanza")
+        void shouldThrowException_WhenStockIsInsufficient() {
+            product.setStock(1);
+            when(mapper.toEntity(saleDTO)).thenReturn(sale);
+            when(clientRepo.findById(1)).thenReturn(Optional.of(client));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(productRepo.findAllById(Set.of(1))).thenReturn(List.of(product));
+
+            assertThatThrownBy(() -> saleService.create(saleDTO))
+                    .isInstanceOf(ModelNotFoundException.class)
+                    .hasMessageContaining("Stock insuficiente para el producto: Laptop. Stock actual: 1");
+
+            assertThat(product.getStock()).isEqualTo(1);
+            verify(repo, never()).save(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Crear Venta con ledger de inventario")
+    class LedgerStockTests {
+
+        @BeforeEach
+        void setUp() {
+            ReflectionTestUtils.setField(saleService, "stockMode", StockMode.LEDGER);
+        }
+
+        @Test
+        @DisplayName("Debería reservar en el ledger sin tocar la fila del producto")
+        void shouldReserveInLedger_WithoutTouchingProductRow() {
+            when(mapper.toEntity(saleDTO)).thenReturn(sale);
+            when(clientRepo.findById(1)).thenReturn(Optional.of(client));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(productRepo.findAllById(Set.of(1))).thenReturn(List.of(product));
+            when(ledger.reserve(Map.of(1, 2))).thenReturn(Optional.empty());
+            when(repo.save(any(Sale.class))).thenReturn(sale);
+            when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
+
+            saleService.create(saleDTO);
+
+            verify(ledger).reserve(Map.of(1, 2));
+            verify(productRepo, never()).findAllByIdLocked(any());
+            verify(productRepo, never()).decrementStockIfAvailable(any(), anyInt());
+            assertThat(product.getStock()).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("Debería lanzar exception con el stock del ledger cuando no alcanza")
+        void shouldThrowException_WhenLedgerRejects() {
+            when(mapper.toEntity(saleDTO)).thenReturn(sale);
+            when(clientRepo.findById(1)).thenReturn(Optional.of(client));
+            when(userRepo.findById(1)).thenReturn(Optional.of(user));
+            when(productRepo.findAllById(Set.of(1))).thenReturn(List.of(product));
+            when(ledger.reserve(Map.of(1, 2))).thenReturn(Optional.of(1));
+            when(ledger.availableStock(1)).thenReturn(1);
+
+            assertThatThrownBy(() -> saleService.create(saleDTO))
+                    .isInstanceOf(ModelNotFoundException.class)
+                    .hasMessageContaining("Stock insuficiente para el producto: Laptop. Stock actual: 1");
+
+            verify(repo, never()).save(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Crear lote de ventas")
+    class BatchTests {
+
+        private final SaleDTO fits = batchDTO(1, 2);
+        private final SaleDTO exceedsStock = batchDTO(1, 9);
+        private final SaleDTO unknownClient = new SaleDTO(null, 99, 1, null, null,
+                List.of(new SaleDetailDTO(null, 1, (short) 1, null, null)));
+
+        @BeforeEach
+        void setUp() {
+            when(mapper.toEntity(any(SaleDTO.class))).thenAnswer(invocation -> toSale(invocation.getArgument(0)));
+        }
+
+        @Test
+        @DisplayName("Debería resolver el lote con una consulta por tabla y un único bloqueo de productos")
+        void shouldLoadReferencesOnce_AndReportPerSale() {
+            when(clientRepo.findAllById(Set.of(1, 99))).thenReturn(List.of(client));
+            when(userRepo.findAllById(Set.of(1))).thenReturn(List.of(user));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
+            when(repo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
+
+            SaleBatchResponseDTO result = saleService.createBatch(List.of(fits, exceedsStock, unknownClient));
+
+            assertThat(result.created()).isEqualTo(1);
+            assertThat(result.failed()).isEqualTo(2);
+            assertThat(result.results()).extracting(SaleBatchItemDTO::index).containsExactly(0, 1, 2);
+            assertThat(result.results().get(0).sale()).isEqualTo(saleResponseDTO);
+            assertThat(result.results().get(1).error()).contains("Stock insuficiente para el producto: Laptop");
+            assertThat(result.results().get(2).error()).contains("Client not found with id: 99");
+
+            // 10 - 2: la venta rechazada no descuenta nada
+            assertThat(product.getStock()).isEqualTo(8);
+            verify(productRepo, times(1)).findAllByIdLocked(any());
+            verify(clientRepo, never()).findById(any());
+            verify(repo, never()).save(any());
+            verify(rollup, times(1)).record(any(Sale.class));
+            verify(columnStore, times(1)).append(any(Sale.class));
+        }
+
+        @Test
+        @DisplayName("Debería reservar cada venta del lote en el ledger sin bloquear productos")
+        void shouldReservePerSale_InLedgerMode() {
+            ReflectionTestUtils.setField(saleService, "stockMode", StockMode.LEDGER);
+            when(clientRepo.findAllById(Set.of(1))).thenReturn(List.of(client));
+            when(userRepo.findAllById(Set.of(1))).thenReturn(List.of(user));
+            when(productRepo.findAllById(Set.of(1))).thenReturn(List.of(product));
+            when(ledger.reserve(Map.of(1, 2))).thenReturn(Optional.empty());
+            when(ledger.reserve(Map.of(1, 9))).thenReturn(Optional.of(1));
+            when(ledger.availableStock(1)).thenReturn(8);
+            when(repo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
+
+            SaleBatchResponseDTO result = saleService.createBatch(List.of(fits, exceedsStock));
+
+            assertThat(result.created()).isEqualTo(1);
+            assertThat(result.results().get(1).error()).contains("Stock actual: 8");
+            verify(productRepo, never()).findAllByIdLocked(any());
+            assertThat(product.getStock()).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("Debería rechazar en su resultado la venta inválida sin rechazar el lote")
+        void shouldRejectInvalidSale_InItsOwnResult() {
+            SaleDTO invalid = new SaleDTO(null, 0, 1, null, null,
+                    List.of(new SaleDetailDTO(null, 1, (short) 0, null, null)));
+            when(clientRepo.findAllById(Set.of(1))).thenReturn(List.of(client));
+            when(userRepo.findAllById(Set.of(1))).thenReturn(List.of(user));
+            when(productRepo.findAllByIdLocked(Set.of(1))).thenReturn(List.of(product));
+            when(repo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(mapper.toResponseDTO(any(Sale.class))).thenReturn(saleResponseDTO);
+
+            SaleBatchResponseDTO result = saleService.createBatch(Arrays.asList(invalid, fits, null));
+
+            assertThat(result.created()).isEqualTo(1);
+            assertThat(result.failed()).isEqualTo(2);
+            assertThat(result.results().get(0).sale()).isNull();
+            assertThat(result.results().get(0).error())
+                    .isEqualTo("details[0].quantity: Quantity must be at least 1; idClient: Client ID must be valid");
+            assertThat(result.results().get(1).sale()).isEqualTo(saleResponseDTO);
+            assertThat(result.results().get(2).error()).isEqualTo("La venta no puede ser nula");
+            // Solo las ventas válidas se mapean y cuentan para las consultas del lote
+            verify(mapper, times(1)).toEntity(any(SaleDTO.class));
+            assertThat(product.getStock()).isEqualTo(8);
+        }
+
+        private SaleDTO batchDTO(int idProduct, int quantity) {
+            return new SaleDTO(null, 1, 1, null, null,
+                    List.of(new SaleDetailDTO(null, idProduct, (short) quantity, null, null)));
+        }
+
+        // Lo que haría MapStruct: referencias solo con id y detalles en una lista mutable
+        private Sale toSale(SaleDTO dto) {
+            List<SaleDetail> details = new ArrayList<>();
+            dto.details().forEach(line -> details.add(SaleDetail.builder()
+                    .product(Product.builder().idProduct(line.idProduct()).build())
+                    .quantity(line.quantity())
+                    .build()));
+            return Sale.builder().details(details).build();
+        }
+    }
+
+    @Nested
+    @DisplayName("Exportar Ventas")
+    class ExportTests {
+
+        @Test
+        @DisplayName("Debería escribir una fila CSV por línea de detalle")
+        void shouldWriteCsvRow_PerDetailLine() {
+            when(repo.streamAllDetails()).thenReturn(Stream.of(saleDetail));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            saleService.export(ExportFormat.CSV, out);
+
+            String[] rows = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertThat(rows).hasSize(2);
+            assertThat(rows[0]).startsWith("idSale,dateTime,idClient");
+            assertThat(rows[1]).startsWith("1,").contains(",John Doe,seller,1,Laptop,2,1000.0,0.0,360.0,2360.0");
+        }
+
+        @Test
+        @DisplayName("Debería escribir un objeto NDJSON por venta agrupando sus líneas")
+        void shouldWriteNdjsonObject_PerSale() {
+            SaleDetail second = new SaleDetail();
+            second.setSale(sale);
+            second.setProduct(product);
+            second.setQuantity((short) 1);
+
+            Sale other = new Sale();
+            other.setIdSale(2);
+            SaleDetail otherLine = new SaleDetail();
+            otherLine.setSale(other);
+            otherLine.setProduct(product);
+            otherLine.setQuantity((short) 3);
+
+            when(repo.streamAllDetails()).thenReturn(Stream.of(saleDetail, second, otherLine));
+            when(mapper.toResponseDTO(any(Sale.class), anyList())).thenReturn(saleResponseDTO);
+            when(objectMapper.writeValueAsString(saleResponseDTO)).thenReturn("{}");
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            saleService.export(ExportFormat.NDJSON, out);
+
+            assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{}\n{}\n");
+            verify(mapper).toResponseDTO(sale, List.of(saleDetail, second));
+            verify(mapper).toResponseDTO(other, List.of(otherLine));
+        }
     }
 
     @Nested
@@ -352,28 +802,60 @@ class SaleServiceImplTest {
     class ReadTests {
 
         @Test
-        @DisplayName("Debería retornar todas las ventas")
-        void shouldReturnAllSales() {
-            when(repo.findAll()).thenReturn(List.of(sale));
-            when(mapper.toResponseDTOList(anyList())).thenReturn(List.of(saleResponseDTO));
-
-            List<SaleResponseDTO> result = saleService.readAll();
+        @DisplayName("Debería cargar el grafo solo para los ids de la página")
+        void shouldLoadGraph_OnlyForPageIds() {
+            SaleFilterDTO filter = new SaleFilterDTO(null, null, 1, null, null, null);
+            when(repo.findPageIds(null, null, 1, null, null, null, Limit.of(21))).thenReturn(List.of(1));
+            when(repo.findAllWithDetailsByIdIn(List.of(1))).thenReturn(List.of(sale));
+            when(mapper.toResponseDTOList(List.of(sale))).thenReturn(List.of(saleResponseDTO));
+
+            SalePageDTO result = saleService.readPage(filter, 20);
+
+            assertThat(result.content()).hasSize(1);
+            assertThat(result.hasNext()).isFalse();
+            assertThat(result.nextId()).isNull();
+            verify(repo, never()).findAll();
+        }
 
-            assertThat(result).hasSize(1);
-            verify(repo).findAll();
-            verify(mapper).toResponseDTOList(anyList());
+        @Test
+        @DisplayName("Debería devolver el cursor de la última venta cuando hay más páginas")
+        void shouldReturnCursor_WhenMorePagesExist() {
+            SaleFilterDTO filter = new SaleFilterDTO(null, null, null, null, null, null);
+            when(repo.findPageIds(null, null, null, null, null, null, Limit.of(2))).thenReturn(List.of(1, 0));
+            when(repo.findAllWithDetailsByIdIn(List.of(1))).thenReturn(List.of(sale));
+            when(mapper.toResponseDTOList(List.of(sale))).thenReturn(List.of(saleResponseDTO));
+
+            SalePageDTO result = saleService.readPage(filter, 1);
+
+            assertThat(result.hasNext()).isTrue();
+            assertThat(result.nextId()).isEqualTo(1);
+            assertThat(result.nextDateTime()).isEqualTo(sale.getDateTime());
         }
 
         @Test
-        @DisplayName("Debería retornar lista vacía cuando no hay ventas")
-        void shouldReturnEmptyList_WhenNoSalesExist() {
-            when(repo.findAll()).thenReturn(List.of());
-            when(mapper.toResponseDTOList(anyList())).thenReturn(List.of());
+        @DisplayName("Debería retornar página vacía sin cargar detalles cuando no hay ventas")
+        void shouldReturnEmptyPage_WhenNoSalesExist() {
+            SaleFilterDTO filter = new SaleFilterDTO(null, null, null, null, null, null);
+            when(repo.findPageIds(null, null, null, null, null, null, Limit.of(101))).thenReturn(List.of());
 
-            List<SaleResponseDTO> result = saleService.readAll();
+            SalePageDTO result = saleService.readPage(filter, 500);
 
-            assertThat(result).isEmpty();
-            verify(repo).findAll();
+            assertThat(result.content()).isEmpty();
+            assertThat(result.hasNext()).isFalse();
+            verify(repo, never()).findAllWithDetailsByIdIn(any());
+        }
+
+        @Test
+        @DisplayName("Debería rechazar un cursor sin afterId o sin afterDateTime")
+        void shouldRejectPartialCursor() {
+            SaleFilterDTO withoutId = new SaleFilterDTO(null, null, null, null, LocalDateTime.now(), null);
+            SaleFilterDTO withoutDateTime = new SaleFilterDTO(null, null, null, null, null, 42);
+
+            assertThatThrownBy(() -> saleService.readPage(withoutId, 20))
+                    .isInstanceOf(InvalidRequestException.class);
+            assertThatThrownBy(() -> saleService.readPage(withoutDateTime, 20))
+                    .isInstanceOf(InvalidRequestException.class);
+            verifyNoInteractions(repo);
         }
 
         @Test
@@ -399,5 +881,18 @@ class SaleServiceImplTest {
 
             verify(repo).findById(999);
         }
+
+        @Test
+        @DisplayName("Debería leer los totales diarios desde el resumen")
+        void shouldReadDailySummary_FromRollup() {
+            LocalDate day = LocalDate.of(2026, 3, 1);
+            List<DailySalesDTO> totals = List.of(new DailySalesDTO(day, 5L, 250.0, 3L));
+            when(rollup.readDaily(day, day, null, 1)).thenReturn(totals);
+
+            List<DailySalesDTO> result = saleService.readDailySummary(day, day, null, 1);
+
+            assertThat(result).isEqualTo(totals);
+            verifyNoInteractions(repo);
+        }
     }
 }
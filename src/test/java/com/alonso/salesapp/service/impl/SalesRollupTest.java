@@ -0,0 +1,107 @@
+package com.alonso.salesapp.service.impl;
+
+import com.alonso.salesapp.model.*;
+import com.alonso.salesapp.repository.DailySalesSummaryRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Sales Rollup Tests")
+class SalesRollupTest {
+
+    @Mock
+    private DailySalesSummaryRepo summaryRepo;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SalesRollup rollup;
+    private Product laptop;
+    private Product mouse;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        rollup = new SalesRollup(summaryRepo, transactionManager);
+
+        Category category = new Category(3, "Electronics", "Electronic devices", true);
+        laptop = Product.builder().idProduct(1).name("Laptop").price(Money.of(1000.0)).category(category).build();
+        mouse = Product.builder().idProduct(2).name("Mouse").price(Money.of(20.0)).category(category).build();
+        user = User.builder().idUser(7).username("seller").build();
+    }
+
+    @Test
+    @DisplayName("Debería acumular una fila por producto sumando las líneas repetidas")
+    void shouldAccumulateOneRowPerProduct() {
+        Sale sale = Sale.builder()
+                .user(user)
+                .dateTime(LocalDateTime.of(2026, 3, 1, 18, 30))
+                .details(List.of(
+                        line(mouse, 2, 20.0, 5.0),
+                        line(laptop, 1, 1000.0, 0.0),
+                        line(mouse, 1, 20.0, 0.0)))
+                .build();
+
+        rollup.record(sale);
+
+        LocalDate day = LocalDate.of(2026, 3, 1);
+        InOrder inOrder = inOrder(summaryRepo);
+        inOrder.verify(summaryRepo).accumulate(day, 1, 7, 3, 1L, 1000.0, 1L);
+        inOrder.verify(summaryRepo).accumulate(day, 2, 7, 3, 3L, 55.0, 2L);
+        verifyNoMoreInteractions(summaryRepo);
+    }
+
+    @Test
+    @DisplayName("Debería reconstruir desde la fecha indicada bloqueando antes la tabla")
+    void shouldRebuildFromDate_WhenOptionIsPresent() {
+        when(summaryRepo.backfillFrom(any())).thenReturn(12);
+
+        rollup.run(new DefaultApplicationArguments("--rebuild-sales-rollup=2026-01-15"));
+
+        InOrder inOrder = inOrder(summaryRepo);
+        inOrder.verify(summaryRepo).lockForRebuild();
+        inOrder.verify(summaryRepo).deleteFrom(LocalDate.of(2026, 1, 15));
+        inOrder.verify(summaryRepo).backfillFrom(LocalDateTime.of(2026, 1, 15, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Debería reconstruir todo el histórico cuando la opción no trae fecha")
+    void shouldRebuildEverything_WhenOptionHasNoDate() {
+        when(summaryRepo.backfillFrom(any())).thenReturn(0);
+
+        rollup.run(new DefaultApplicationArguments("--rebuild-sales-rollup"));
+
+        verify(summaryRepo).deleteFrom(LocalDate.EPOCH);
+    }
+
+    @Test
+    @DisplayName("No debería tocar el resumen al arrancar sin la opción")
+    void shouldNotRebuild_WithoutOption() {
+        rollup.run(new DefaultApplicationArguments("--server.port=8081"));
+
+        verifyNoInteractions(summaryRepo, transactionManager);
+    }
+
+    private SaleDetail line(Product product, int quantity, double price, double discount) {
+        return SaleDetail.builder()
+                .product(product)
+                .quantity((short) quantity)
+                .salePrice(Money.of(price))
+                .discount(Money.of(discount))
+                .build();
+    }
+}
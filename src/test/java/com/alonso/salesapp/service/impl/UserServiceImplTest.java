@@ -7,6 +7,8 @@ import com.alonso.salesapp.model.Role;
 import com.alonso.salesapp.model.User;
 import com.alonso.salesapp.repository.RoleRepo;
 import com.alonso.salesapp.repository.UserRepo;
+import com.alonso.salesapp.security.PrincipalCache;
+import com.alonso.salesapp.security.TokenVersionRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -38,6 +40,12 @@ class UserServiceImplTest {
     @Mock
     private UserMapper mapper;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private TokenVersionRegistry tokenVersions;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -232,33 +240,27 @@ class UserServiceImplTest {
         @Test
         @DisplayName("Debería retornar todos los usuarios")
         void shouldReturnAllUsers() {
-            User user2 = new User();
-            user2.setIdUser(2);
-            user2.setUsername("user2");
-            user2.setRole(role);
             UserDTO userDTO2 = new UserDTO(2, 1, "user2", "pass2", true);
 
-            when(repo.findAll()).thenReturn(List.of(user, user2));
-            when(mapper.toDTO(user)).thenReturn(userDTO);
-            when(mapper.toDTO(user2)).thenReturn(userDTO2);
+            when(repo.findAllAsDTO()).thenReturn(List.of(userDTO, userDTO2));
 
             List<UserDTO> result = userService.getAllUsers();
 
             assertThat(result).hasSize(2);
             assertThat(result).extracting(UserDTO::username)
                     .containsExactly("admin", "user2");
-            verify(repo).findAll();
+            verify(repo).findAllAsDTO();
         }
 
         @Test
         @DisplayName("Debería retornar lista vacía cuando no hay usuarios")
         void shouldReturnEmptyList_WhenNoUsersExist() {
-            when(repo.findAll()).thenReturn(List.of());
+            when(repo.findAllAsDTO()).thenReturn(List.of());
 
             List<UserDTO> result = userService.getAllUsers();
 
             assertThat(result).isEmpty();
-            verify(repo).findAll();
+            verify(repo).findAllAsDTO();
         }
 
         @Test
@@ -302,6 +304,9 @@ class UserServiceImplTest {
 
             ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
             verify(repo).save(captor.capture());
+            verify(principalCache).invalidate("admin");
+            verify(tokenVersions).update(user);
+            assertThat(captor.getValue().getTokenVersion()).isEqualTo(1);
         }
 
         @Test